@@ -0,0 +1,189 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.benchmarks.stub.StubServer;
+import com.leonardobishop.quests.bukkit.BukkitQuestsLogger;
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.config.BukkitQuestsConfig;
+import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
+import com.leonardobishop.quests.bukkit.questcontroller.NormalQuestController;
+import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskTypeManager;
+import com.leonardobishop.quests.bukkit.util.LogHistory;
+import com.leonardobishop.quests.common.logger.QuestsLogger;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.QPlayerManager;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.QuestCompleter;
+import com.leonardobishop.quests.common.quest.QuestManager;
+import com.leonardobishop.quests.common.questcontroller.QuestController;
+import com.leonardobishop.quests.common.scheduler.ServerScheduler;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import com.leonardobishop.quests.common.tasktype.TaskTypeManager;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The plugin, set up without a server for benchmarks. The bundled default configuration is used, with any
+ * overridden options applied. Scheduled tasks run immediately on the calling thread, and players are loaded
+ * from a {@link MemoryStorageProvider}.
+ * <p>
+ * Task types must be registered before quests are registered with {@link #registerQuests(Collection)},
+ * and quests must be registered before players are added.
+ */
+public final class BenchmarkPlugin extends BukkitQuestsPlugin {
+
+    private final LogHistory logHistory = new LogHistory(false);
+    private final MemoryStorageProvider storageProvider = new MemoryStorageProvider();
+    private final ServerScheduler scheduler = new ServerScheduler() {
+        @Override
+        public void doSync(Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        public void doAsync(Runnable runnable) {
+            runnable.run();
+        }
+    };
+    private final StubServer stubServer;
+    private final BukkitQuestsLogger questsLogger;
+    private final BukkitQuestsConfig questsConfig;
+    private final QuestManager questManager;
+    private final BukkitTaskTypeManager taskTypeManager;
+    private QuestController questController;
+    private QPlayerManager playerManager;
+    private BukkitQuestCompleter questCompleter;
+
+    @SuppressWarnings("deprecation")
+    public BenchmarkPlugin(StubServer stubServer, File dataFolder, Map<String, Object> options) {
+        super(new JavaPluginLoader(stubServer.getServer()),
+                new PluginDescriptionFile("Quests", "benchmark", BukkitQuestsPlugin.class.getName()),
+                dataFolder, new File(dataFolder, "Quests.jar"));
+        this.stubServer = stubServer;
+
+        File configFile = new File(dataFolder, "config.yml");
+        try (InputStream in = Objects.requireNonNull(BukkitQuestsPlugin.class.getClassLoader().getResourceAsStream("resources/bukkit/config.yml"))) {
+            Files.createDirectories(dataFolder.toPath());
+            Files.copy(in, configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        this.questsLogger = new BukkitQuestsLogger(this);
+        this.questsLogger.setServerLoggingLevel(QuestsLogger.LoggingLevel.ERROR);
+        this.questsConfig = new BukkitQuestsConfig(configFile);
+        if (!questsConfig.loadConfig()) {
+            throw new IllegalStateException("failed to load default configuration");
+        }
+        options.forEach((path, value) -> questsConfig.getConfig().set(path, value));
+
+        this.questManager = new QuestManager(this);
+        this.taskTypeManager = new BukkitTaskTypeManager(this);
+        stubServer.registerPlugin(this);
+    }
+
+    /**
+     * Registers quests with the quest manager and the task types of their tasks, then creates the quest
+     * controller, player manager and quest completer.
+     *
+     * @param quests the quests to register
+     */
+    public void registerQuests(Collection<Quest> quests) {
+        taskTypeManager.closeRegistrations();
+        for (Quest quest : quests) {
+            questManager.registerQuest(quest);
+            taskTypeManager.registerQuestTasksWithTaskTypes(quest);
+        }
+        this.questController = new NormalQuestController(this);
+        this.playerManager = new QPlayerManager(this, storageProvider, questController);
+        this.questCompleter = new BukkitQuestCompleter(this);
+    }
+
+    public void registerTaskType(BukkitTaskType taskType) {
+        taskTypeManager.registerTaskType(taskType);
+    }
+
+    /**
+     * Loads a player with the given progress file, who is also online on the stub server.
+     *
+     * @param questProgressFile the progress of the player
+     * @return the loaded player
+     */
+    public QPlayer addPlayer(QuestProgressFile questProgressFile) {
+        stubServer.addPlayer(questProgressFile.getPlayerUUID(), questProgressFile.getPlayerUUID().toString().substring(0, 16));
+        storageProvider.put(questProgressFile);
+        return playerManager.loadPlayer(questProgressFile.getPlayerUUID()).join();
+    }
+
+    public StubServer getStubServer() {
+        return stubServer;
+    }
+
+    @Override
+    public @NotNull QuestsLogger getQuestsLogger() {
+        return questsLogger;
+    }
+
+    @Override
+    public @NotNull QuestManager getQuestManager() {
+        return questManager;
+    }
+
+    @Override
+    public @NotNull TaskTypeManager getTaskTypeManager() {
+        return taskTypeManager;
+    }
+
+    @Override
+    public @NotNull QPlayerManager getPlayerManager() {
+        return playerManager;
+    }
+
+    @Override
+    public @NotNull QuestController getQuestController() {
+        return questController;
+    }
+
+    @Override
+    public @NotNull QuestCompleter getQuestCompleter() {
+        return questCompleter;
+    }
+
+    @Override
+    public @NotNull BukkitQuestsConfig getQuestsConfig() {
+        return questsConfig;
+    }
+
+    @Override
+    public @NotNull StorageProvider getStorageProvider() {
+        return storageProvider;
+    }
+
+    @Override
+    public @NotNull ServerScheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public @NotNull FileConfiguration getConfig() {
+        return questsConfig.getConfig();
+    }
+
+    @Override
+    public LogHistory getLogHistory() {
+        return logHistory;
+    }
+}
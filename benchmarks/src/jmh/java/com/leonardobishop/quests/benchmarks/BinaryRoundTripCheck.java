@@ -0,0 +1,97 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+
+import java.util.*;
+
+/**
+ * Checks that progress saved by the binary storage provider is loaded back exactly, for every type of progress
+ * it can store. Progress for quests and tasks which no longer exist is saved between the other records, so that
+ * skipping them when loading is checked too. The binary format has no test suite, so this is run as part of the
+ * setup of {@link StorageBenchmark}.
+ * <p>
+ * The plugin must have quests 'quest-0' and 'quest-1', each with tasks 'task-0' to 'task-2', and must verify that
+ * quests exist on load.
+ */
+final class BinaryRoundTripCheck {
+
+    private static final UUID PLAYER = new UUID(0, 1);
+    private static final String REMOVED_QUEST = "removed-quest";
+    private static final String REMOVED_TASK = "removed-task";
+
+    private BinaryRoundTripCheck() { }
+
+    static void verify(Quests plugin, StorageProvider storageProvider) {
+        QuestProgressFile saved = new QuestProgressFile(PLAYER, plugin);
+
+        QuestProgress first = new QuestProgress(plugin, "quest-0", false, true, 1_700_000_000_000L, PLAYER, true, Long.MAX_VALUE, true);
+        first.addTaskProgress(new TaskProgress(first, "task-0", Integer.MIN_VALUE, PLAYER, false, true));
+        first.addTaskProgress(new TaskProgress(first, "task-1", Long.MAX_VALUE, PLAYER, true, true));
+        first.addTaskProgress(new TaskProgress(first, "task-2", -1.5F, PLAYER, false, true));
+        saved.addQuestProgress(first);
+
+        QuestProgress removed = new QuestProgress(plugin, REMOVED_QUEST, true, true, 42L, PLAYER, false, 0, true);
+        removed.addTaskProgress(new TaskProgress(removed, "task-0", 12345, PLAYER, true, true));
+        removed.addTaskProgress(new TaskProgress(removed, "task-1", Double.MIN_VALUE, PLAYER, true, true));
+        saved.addQuestProgress(removed);
+
+        QuestProgress second = new QuestProgress(plugin, "quest-1", true, false, Long.MIN_VALUE, PLAYER, false, 0, true);
+        second.addTaskProgress(new TaskProgress(second, "task-0", Math.PI, PLAYER, true, true));
+        second.addTaskProgress(new TaskProgress(second, REMOVED_TASK, Long.MIN_VALUE, PLAYER, false, true));
+        second.addTaskProgress(new TaskProgress(second, "task-1", null, PLAYER, false, true));
+        second.addTaskProgress(new TaskProgress(second, "task-2", 0, PLAYER, true, true));
+        saved.addQuestProgress(second);
+
+        check(storageProvider.saveProgressFile(PLAYER, saved), "progress file was not saved");
+        QuestProgressFile loaded = storageProvider.loadProgressFile(PLAYER);
+        check(loaded != null, "progress file was not loaded");
+
+        Map<String, QuestProgress> loadedQuests = new HashMap<>();
+        for (QuestProgress questProgress : loaded.getAllQuestProgress()) {
+            loadedQuests.put(questProgress.getQuestId(), questProgress);
+        }
+        check(!loadedQuests.containsKey(REMOVED_QUEST), "progress for a removed quest was loaded");
+        check(loadedQuests.size() == 2, "expected 2 quests but loaded " + loadedQuests.keySet());
+        verifyQuest(first, loadedQuests.get(first.getQuestId()));
+        verifyQuest(second, loadedQuests.get(second.getQuestId()));
+    }
+
+    private static void verifyQuest(QuestProgress expected, QuestProgress actual) {
+        String questId = expected.getQuestId();
+        check(actual != null, "quest " + questId + " was not loaded");
+        check(expected.isStarted() == actual.isStarted(), "started differs for quest " + questId);
+        check(expected.getStartedDate() == actual.getStartedDate(), "started date differs for quest " + questId);
+        check(expected.isCompleted() == actual.isCompleted(), "completed differs for quest " + questId);
+        check(expected.isCompletedBefore() == actual.isCompletedBefore(), "completed before differs for quest " + questId);
+        check(expected.getCompletionDate() == actual.getCompletionDate(), "completion date differs for quest " + questId);
+
+        Map<String, TaskProgress> actualTasks = actual.getTaskProgressMap();
+        check(!actualTasks.containsKey(REMOVED_TASK), "progress for a removed task was loaded in quest " + questId);
+        for (TaskProgress expectedTask : expected.getTaskProgress()) {
+            if (expectedTask.getTaskId().equals(REMOVED_TASK)) continue;
+
+            String taskId = questId + "/" + expectedTask.getTaskId();
+            TaskProgress actualTask = actualTasks.get(expectedTask.getTaskId());
+            check(actualTask != null, "task " + taskId + " was not loaded");
+            check(expectedTask.isCompleted() == actualTask.isCompleted(), "completed differs for task " + taskId);
+            // equals also compares the type, so an int read back as a long is caught
+            check(Objects.equals(expectedTask.getProgress(), actualTask.getProgress()),
+                    "progress differs for task " + taskId + ": saved " + describe(expectedTask.getProgress())
+                            + " but loaded " + describe(actualTask.getProgress()));
+        }
+    }
+
+    private static String describe(Object progress) {
+        return progress == null ? "null" : progress + " (" + progress.getClass().getSimpleName() + ")";
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("Binary storage round trip failed: " + message);
+        }
+    }
+}
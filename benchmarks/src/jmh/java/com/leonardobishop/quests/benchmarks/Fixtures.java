@@ -0,0 +1,135 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.benchmarks.stub.StubServer;
+import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Synthetic quests, players and progress shared by the benchmarks. Everything is generated from a fixed seed,
+ * so that each run benchmarks the same data.
+ * <p>
+ * Classes which look up the plugin statically (such as TaskUtils) keep the first plugin they see, which is
+ * fine as JMH runs each benchmark and parameter combination in its own fork.
+ */
+final class Fixtures {
+
+    static final String TASK_TYPE = "benchmark";
+    static final int TASKS_PER_QUEST = 3;
+    static final int TASK_AMOUNT = 1000;
+
+    private static final long SEED = 0x5155455354L;
+
+    private Fixtures() { }
+
+    /**
+     * Creates a plugin with the given number of quests, each with {@link #TASKS_PER_QUEST} tasks of the benchmark
+     * task type.
+     *
+     * @param dataFolder the data folder of the plugin
+     * @param questCount the number of quests
+     * @param options configuration options to override
+     * @return the plugin
+     */
+    static BenchmarkPlugin createPlugin(Path dataFolder, int questCount, Map<String, Object> options) {
+        StubServer stubServer = StubServer.install();
+        stubServer.removePlayers();
+
+        BenchmarkPlugin plugin = new BenchmarkPlugin(stubServer, dataFolder.toFile(), options);
+        plugin.registerTaskType(new BenchmarkTaskType());
+        plugin.registerQuests(createQuests(questCount));
+        return plugin;
+    }
+
+    static List<Quest> createQuests(int count) {
+        List<Quest> quests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Quest quest = new Quest.Builder("quest-" + i)
+                    .withSortOrder(i)
+                    .withPlaceholders(Map.of("progress", "{task-0:progress}/" + TASK_AMOUNT))
+                    .build();
+            for (int j = 0; j < TASKS_PER_QUEST; j++) {
+                Task task = new Task("task-" + j, TASK_TYPE);
+                task.addConfigValue("amount", TASK_AMOUNT);
+                quest.registerTask(task);
+            }
+            quests.add(quest);
+        }
+        return quests;
+    }
+
+    /**
+     * Creates a progress file in which a percentage of quests are started and have some progress. Other quests
+     * are either absent, or completed. Every quest and task in the file is marked as modified.
+     *
+     * @param plugin the plugin
+     * @param uuid the uuid of the player
+     * @param quests the quests to generate progress for
+     * @param startedPercent the percentage of quests which are started
+     * @return the progress file
+     */
+    static QuestProgressFile createProgressFile(Quests plugin, UUID uuid, Collection<Quest> quests, int startedPercent) {
+        Random random = new Random(SEED ^ uuid.getLeastSignificantBits());
+        long now = System.currentTimeMillis();
+
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+        for (Quest quest : quests) {
+            int roll = random.nextInt(100);
+            boolean started = roll < startedPercent;
+            boolean completed = !started && roll < startedPercent + (100 - startedPercent) / 4;
+            if (!started && !completed) continue;
+
+            QuestProgress questProgress = new QuestProgress(plugin, quest.getId(), completed, completed,
+                    completed ? now : 0, uuid, started, now, true);
+            for (Task task : quest.getTasks()) {
+                Object progress = completed ? TASK_AMOUNT : random.nextInt(TASK_AMOUNT);
+                questProgress.addTaskProgress(new TaskProgress(questProgress, task.getId(), progress, uuid, completed, true));
+            }
+            questProgressFile.addQuestProgress(questProgress);
+        }
+        return questProgressFile;
+    }
+
+    static List<UUID> createPlayers(int count) {
+        Random random = new Random(SEED);
+        List<UUID> uuids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uuids.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        return uuids;
+    }
+
+    static Path createDataFolder() {
+        try {
+            return Files.createTempDirectory("quests-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteDataFolder(Path dataFolder) {
+        try (Stream<Path> paths = Files.walk(dataFolder)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static final class BenchmarkTaskType extends BukkitTaskType {
+
+        BenchmarkTaskType() {
+            super(TASK_TYPE, "benchmarks", "Does nothing; used by benchmarks.");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds quest progress files in memory, so that players can be loaded with generated progress.
+ * Saves are discarded.
+ */
+final class MemoryStorageProvider implements StorageProvider {
+
+    private final Map<UUID, QuestProgressFile> files = new ConcurrentHashMap<>();
+
+    void put(QuestProgressFile questProgressFile) {
+        files.put(questProgressFile.getPlayerUUID(), questProgressFile);
+    }
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Override
+    public void init() {
+        // no impl
+    }
+
+    @Override
+    public void shutdown() {
+        // no impl
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        return files.get(uuid);
+    }
+
+    @Override
+    public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        return true;
+    }
+
+    @Override
+    public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
+        return new ArrayList<>(files.values());
+    }
+
+    @Override
+    public void saveAllProgressFiles(List<QuestProgressFile> files) {
+        // no impl
+    }
+
+    @Override
+    public boolean isSimilar(StorageProvider provider) {
+        return provider == this;
+    }
+}
@@ -0,0 +1,53 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStack;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replacing task placeholders in quest item lore, which is done for every quest shown in a menu.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PlaceholderBenchmark {
+
+    private static final List<String> LORE = List.of(
+            "&7Break blocks to complete this quest.",
+            "",
+            "&7Progress: &f{task-0:progress}&7/&f" + Fixtures.TASK_AMOUNT,
+            "&7Second task: &f{task-1:progress} &7({task-1:complete})",
+            "&7Third task: {task-2:complete}"
+    );
+
+    private Path dataFolder;
+    private QuestProgress questProgress;
+
+    @Setup
+    public void setup() {
+        dataFolder = Fixtures.createDataFolder();
+        BenchmarkPlugin plugin = Fixtures.createPlugin(dataFolder, 1, Collections.emptyMap());
+
+        Quest quest = plugin.getQuestManager().getQuestById("quest-0");
+        questProgress = Fixtures.createProgressFile(plugin, Fixtures.createPlayers(1).get(0), List.of(quest), 100).getQuestProgress(quest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteDataFolder(dataFolder);
+    }
+
+    @Benchmark
+    public void processPlaceholders(Blackhole blackhole) {
+        for (String line : LORE) {
+            blackhole.consume(QItemStack.processPlaceholders(line, questProgress));
+        }
+    }
+}
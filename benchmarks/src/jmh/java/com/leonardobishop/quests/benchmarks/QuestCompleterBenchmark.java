@@ -0,0 +1,77 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures queueing and draining the quest completer. No quest is ready to complete, so this measures the
+ * cost of the checks rather than of completing quests. The budget is unlimited so that each run drains the
+ * whole queue.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestCompleterBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int quests;
+
+    @Param({"1", "100"})
+    private int players;
+
+    private Path dataFolder;
+    private BukkitQuestCompleter questCompleter;
+    private List<QPlayer> qPlayers;
+    private List<QuestProgress> startedProgress;
+
+    @Setup
+    public void setup() {
+        dataFolder = Fixtures.createDataFolder();
+        BenchmarkPlugin plugin = Fixtures.createPlugin(dataFolder, quests, Collections.emptyMap());
+
+        qPlayers = new ArrayList<>(players);
+        startedProgress = new ArrayList<>();
+        for (UUID uuid : Fixtures.createPlayers(players)) {
+            QPlayer qPlayer = plugin.addPlayer(Fixtures.createProgressFile(plugin, uuid, plugin.getQuestManager().getQuests().values(), 50));
+            qPlayers.add(qPlayer);
+            for (QuestProgress questProgress : qPlayer.getQuestProgressFile().getAllQuestProgress()) {
+                if (questProgress.isStarted()) {
+                    startedProgress.add(questProgress);
+                }
+            }
+        }
+
+        questCompleter = (BukkitQuestCompleter) plugin.getQuestCompleter();
+        questCompleter.setBudget(TimeUnit.HOURS.toMicros(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteDataFolder(dataFolder);
+    }
+
+    @Benchmark
+    public void fullCheck() {
+        for (QPlayer qPlayer : qPlayers) {
+            questCompleter.queueFullCheck(qPlayer.getQuestProgressFile());
+        }
+        questCompleter.run();
+    }
+
+    @Benchmark
+    public void singular() {
+        for (QuestProgress questProgress : startedProgress) {
+            questCompleter.queueSingular(questProgress);
+        }
+        questCompleter.run();
+    }
+}
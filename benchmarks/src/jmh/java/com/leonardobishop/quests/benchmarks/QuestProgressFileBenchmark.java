@@ -0,0 +1,69 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures copying quest progress files, which happens whenever a player is saved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestProgressFileBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int quests;
+
+    /**
+     * The number of tasks changed between each snapshot of the modified progress.
+     */
+    @Param({"1", "10"})
+    private int modifiedTasks;
+
+    private Path dataFolder;
+    private QuestProgressFile questProgressFile;
+    private List<TaskProgress> startedTasks;
+    private int next;
+
+    @Setup
+    public void setup() {
+        dataFolder = Fixtures.createDataFolder();
+        BenchmarkPlugin plugin = Fixtures.createPlugin(dataFolder, quests, Collections.emptyMap());
+
+        questProgressFile = Fixtures.createProgressFile(plugin, Fixtures.createPlayers(1).get(0), plugin.getQuestManager().getQuests().values(), 50);
+        questProgressFile.resetModified();
+
+        startedTasks = new ArrayList<>();
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.isStarted()) {
+                startedTasks.addAll(questProgress.getTaskProgress());
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteDataFolder(dataFolder);
+    }
+
+    @Benchmark
+    public QuestProgressFile copy() {
+        return new QuestProgressFile(questProgressFile);
+    }
+
+    @Benchmark
+    public QuestProgressFile snapshotModified() {
+        for (int i = 0; i < modifiedTasks && !startedTasks.isEmpty(); i++) {
+            startedTasks.get(next++ % startedTasks.size()).incrementProgress(1);
+        }
+        return questProgressFile.snapshotModified();
+    }
+}
@@ -0,0 +1,117 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
+import com.leonardobishop.quests.bukkit.storage.SqliteStorageProvider;
+import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading and saving players with each file based storage provider. The write-behind provider is not
+ * used, so every save is written immediately. The binary provider is checked with {@link BinaryRoundTripCheck}
+ * before it is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageBenchmark {
+
+    private static final int PLAYERS = 100;
+    private static final int DELTA_TASKS = 10;
+
+    @Param({"yaml", "binary", "sqlite"})
+    private String provider;
+
+    @Param({"10", "100", "1000", "5000"})
+    private int quests;
+
+    private Path dataFolder;
+    private StorageProvider storageProvider;
+    private List<UUID> uuids;
+    private List<QuestProgressFile> fullFiles;
+    private List<QuestProgressFile> deltaFiles;
+    private int next;
+
+    @Setup
+    public void setup() {
+        dataFolder = Fixtures.createDataFolder();
+        BenchmarkPlugin plugin = Fixtures.createPlugin(dataFolder, quests, Collections.emptyMap());
+        Collection<Quest> questList = plugin.getQuestManager().getQuests().values();
+
+        storageProvider = switch (provider) {
+            case "yaml" -> new YamlStorageProvider(plugin);
+            case "binary" -> new BinaryStorageProvider(plugin);
+            case "sqlite" -> {
+                YamlConfiguration configuration = new YamlConfiguration();
+                configuration.set("file", "quests.db");
+                yield new SqliteStorageProvider(plugin, configuration);
+            }
+            default -> throw new IllegalArgumentException("unknown provider " + provider);
+        };
+        storageProvider.init();
+        if (storageProvider instanceof BinaryStorageProvider) {
+            BinaryRoundTripCheck.verify(plugin, storageProvider);
+        }
+
+        uuids = Fixtures.createPlayers(PLAYERS);
+        fullFiles = new ArrayList<>(PLAYERS);
+        deltaFiles = new ArrayList<>(PLAYERS);
+        for (UUID uuid : uuids) {
+            QuestProgressFile questProgressFile = Fixtures.createProgressFile(plugin, uuid, questList, 50);
+            storageProvider.saveProgressFile(uuid, questProgressFile);
+            fullFiles.add(questProgressFile);
+            deltaFiles.add(createDelta(Fixtures.createProgressFile(plugin, uuid, questList, 50)));
+        }
+    }
+
+    /**
+     * @return a snapshot of the file with a few started tasks modified, as is typical of periodic saves
+     */
+    private static QuestProgressFile createDelta(QuestProgressFile questProgressFile) {
+        questProgressFile.resetModified();
+
+        int modified = 0;
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (!questProgress.isStarted()) continue;
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                if (modified++ == DELTA_TASKS) {
+                    return questProgressFile.snapshotModified();
+                }
+                taskProgress.incrementProgress(1);
+            }
+        }
+        return questProgressFile.snapshotModified();
+    }
+
+    @TearDown
+    public void tearDown() {
+        storageProvider.shutdown();
+        Fixtures.deleteDataFolder(dataFolder);
+    }
+
+    @Benchmark
+    public QuestProgressFile load() {
+        return storageProvider.loadProgressFile(uuids.get(next++ % PLAYERS));
+    }
+
+    @Benchmark
+    public boolean saveFull() {
+        int index = next++ % PLAYERS;
+        return storageProvider.saveProgressFile(uuids.get(index), fullFiles.get(index));
+    }
+
+    @Benchmark
+    public boolean saveDelta() {
+        int index = next++ % PLAYERS;
+        return storageProvider.saveProgressFile(uuids.get(index), deltaFiles.get(index));
+    }
+}
@@ -0,0 +1,58 @@
+package com.leonardobishop.quests.benchmarks;
+
+import com.leonardobishop.quests.bukkit.util.TaskUtils;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.tasktype.TaskType;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the tasks an event applies to, which every task type does for every event it handles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TaskDispatchBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    private int quests;
+
+    @Param({"10", "50"})
+    private int startedPercent;
+
+    @Param({"false", "true"})
+    private boolean autoStart;
+
+    private Path dataFolder;
+    private Player player;
+    private QPlayer qPlayer;
+    private TaskType taskType;
+
+    @Setup
+    public void setup() {
+        dataFolder = Fixtures.createDataFolder();
+        BenchmarkPlugin plugin = Fixtures.createPlugin(dataFolder, quests, Map.of("options.quest-autostart", autoStart));
+
+        UUID uuid = Fixtures.createPlayers(1).get(0);
+        qPlayer = plugin.addPlayer(Fixtures.createProgressFile(plugin, uuid, plugin.getQuestManager().getQuests().values(), startedPercent));
+        player = Bukkit.getPlayer(uuid);
+        taskType = plugin.getTaskTypeManager().getTaskType(Fixtures.TASK_TYPE);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.deleteDataFolder(dataFolder);
+    }
+
+    @Benchmark
+    public List<TaskUtils.PendingTask> getApplicableTasks() {
+        return TaskUtils.getApplicableTasks(player, qPlayer, taskType, TaskUtils.TaskConstraint.WORLD);
+    }
+}
@@ -0,0 +1,148 @@
+package com.leonardobishop.quests.benchmarks.stub;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * A headless Bukkit server for benchmarks. Only the parts of the API used by the benchmarked code paths are
+ * implemented: online players, plugin lookup and worlds by name. Every other method returns a default value
+ * (null, zero, false or an empty collection), so code which relies on a real server will not behave correctly.
+ */
+public final class StubServer {
+
+    private static StubServer instance;
+
+    private final Map<UUID, Player> players = new ConcurrentHashMap<>();
+    private final Map<String, Plugin> plugins = new ConcurrentHashMap<>();
+    private final Map<String, World> worlds = new ConcurrentHashMap<>();
+    private final Logger logger = Logger.getLogger("StubServer");
+    private final Server server;
+
+    private StubServer() {
+        PluginManager pluginManager = proxy(PluginManager.class, (method, args) -> switch (method.getName()) {
+            case "getPlugin" -> plugins.get((String) args[0]);
+            case "getPlugins" -> plugins.values().toArray(new Plugin[0]);
+            default -> null;
+        });
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (method, args) -> null);
+
+        this.server = proxy(Server.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> "StubServer";
+            case "getVersion", "getBukkitVersion" -> "1.16.5-R0.1-SNAPSHOT";
+            case "getLogger" -> logger;
+            case "getPluginManager" -> pluginManager;
+            case "getScheduler" -> scheduler;
+            case "getOnlinePlayers" -> Collections.unmodifiableCollection(players.values());
+            case "getPlayer" -> args[0] instanceof UUID uuid ? players.get(uuid) : null;
+            case "getWorld" -> args[0] instanceof String name ? getWorld(name) : null;
+            case "getWorlds" -> new ArrayList<>(worlds.values());
+            case "isPrimaryThread" -> true;
+            default -> null;
+        });
+    }
+
+    /**
+     * Installs the stub server as the Bukkit server, if it has not already been installed in this JVM.
+     *
+     * @return the stub server
+     */
+    public static synchronized StubServer install() {
+        if (instance == null) {
+            instance = new StubServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+
+    public Server getServer() {
+        return server;
+    }
+
+    public void registerPlugin(Plugin plugin) {
+        plugins.put(plugin.getName(), plugin);
+    }
+
+    /**
+     * Creates an online player, who is in the world named "world" and has every permission.
+     *
+     * @param uuid the uuid of the player
+     * @param name the name of the player
+     * @return the player
+     */
+    public Player addPlayer(UUID uuid, String name) {
+        World world = getWorld("world");
+        Player player = proxy(Player.class, (method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName", "getDisplayName" -> name;
+            case "getWorld" -> world;
+            case "getServer" -> server;
+            case "isOnline", "hasPermission" -> true;
+            default -> null;
+        });
+        players.put(uuid, player);
+        return player;
+    }
+
+    public void removePlayers() {
+        players.clear();
+    }
+
+    public World getWorld(String name) {
+        return worlds.computeIfAbsent(name, key -> proxy(World.class, (method, args) -> switch (method.getName()) {
+            case "getName" -> key;
+            default -> null;
+        }));
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    if (method.getParameterCount() == 1) return proxy == args[0];
+                    break;
+                case "hashCode":
+                    if (method.getParameterCount() == 0) return System.identityHashCode(proxy);
+                    break;
+                case "toString":
+                    if (method.getParameterCount() == 0) return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                    break;
+            }
+
+            Object result = handler.handle(method, args == null ? new Object[0] : args);
+            return result != null ? result : defaultValue(method.getReturnType());
+        };
+        return type.cast(Proxy.newProxyInstance(StubServer.class.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == byte.class) return (byte) 0;
+        if (type == short.class) return (short) 0;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0F;
+        if (type == double.class) return 0D;
+        if (type == List.class || type == Collection.class) return Collections.emptyList();
+        if (type == Set.class) return Collections.emptySet();
+        if (type == Map.class) return Collections.emptyMap();
+        return null;
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Method method, Object[] args);
+    }
+}
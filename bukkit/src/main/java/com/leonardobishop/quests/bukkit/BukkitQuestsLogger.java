@@ -1,7 +1,10 @@
 package com.leonardobishop.quests.bukkit;
 
+import com.leonardobishop.quests.bukkit.util.LogHistory;
 import com.leonardobishop.quests.common.logger.QuestsLogger;
 
+import java.util.function.Supplier;
+
 public class BukkitQuestsLogger implements QuestsLogger {
 
     private final BukkitQuestsPlugin plugin;
@@ -24,10 +27,32 @@ public class BukkitQuestsLogger implements QuestsLogger {
 
     @Override
     public void log(String str, LoggingLevel level) {
-        plugin.getLogHistory().record(level, () -> str);
+        plugin.getLogHistory().record(level, str);
         if (serverLoggingLevel.getNumericVerbosity() < level.getNumericVerbosity()) {
             return;
         }
+        write(str, level);
+    }
+
+    @Override
+    public void log(Supplier<String> str, LoggingLevel level) {
+        LogHistory logHistory = plugin.getLogHistory();
+        boolean recorded = logHistory.isRecording(level);
+        boolean logged = serverLoggingLevel.getNumericVerbosity() >= level.getNumericVerbosity();
+        if (!recorded && !logged) {
+            return;
+        }
+
+        String message = str.get();
+        if (recorded) {
+            logHistory.record(level, message);
+        }
+        if (logged) {
+            write(message, level);
+        }
+    }
+
+    private void write(String str, LoggingLevel level) {
         switch (level) {
             case DEBUG -> plugin.getLogger().info("DEBUG: " + str);
             case INFO -> plugin.getLogger().info(str);
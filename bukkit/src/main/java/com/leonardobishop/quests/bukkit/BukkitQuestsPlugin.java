@@ -23,12 +23,16 @@ import com.leonardobishop.quests.bukkit.item.QuestItem;
 import com.leonardobishop.quests.bukkit.item.QuestItemRegistry;
 import com.leonardobishop.quests.bukkit.listener.PlayerJoinListener;
 import com.leonardobishop.quests.bukkit.listener.PlayerLeaveListener;
+import com.leonardobishop.quests.bukkit.listener.PlayerPrefetchListener;
 import com.leonardobishop.quests.bukkit.menu.MenuController;
 import com.leonardobishop.quests.bukkit.menu.itemstack.QItemStackRegistry;
 import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.bukkit.questcontroller.NormalQuestController;
+import com.leonardobishop.quests.bukkit.questcontroller.QuestStartResultCache;
 import com.leonardobishop.quests.bukkit.runnable.QuestsAutoSaveRunnable;
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
+import com.leonardobishop.quests.bukkit.storage.SqliteStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskTypeManager;
 import com.leonardobishop.quests.bukkit.tasktype.type.external.auctionguiplus.AuctionStart;
@@ -41,6 +45,7 @@ import com.leonardobishop.quests.bukkit.tasktype.type.external.placeholdersapi.E
 import com.leonardobishop.quests.bukkit.tasktype.type.external.shopguiplus.Buy;
 import com.leonardobishop.quests.bukkit.tasktype.type.external.shopguiplus.Sell;
 import com.leonardobishop.quests.bukkit.tasktype.type.internal.*;
+import com.leonardobishop.quests.bukkit.util.BlockOwnershipTracker;
 import com.leonardobishop.quests.bukkit.util.LogHistory;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
@@ -53,7 +58,9 @@ import com.leonardobishop.quests.common.quest.QuestCompleter;
 import com.leonardobishop.quests.common.quest.QuestManager;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
 import com.leonardobishop.quests.common.scheduler.ServerScheduler;
+import com.leonardobishop.quests.common.storage.StorageExecutor;
 import com.leonardobishop.quests.common.storage.StorageProvider;
+import com.leonardobishop.quests.common.storage.WriteBehindStorageProvider;
 import com.leonardobishop.quests.common.tasktype.TaskType;
 import com.leonardobishop.quests.common.tasktype.TaskTypeManager;
 import com.leonardobishop.quests.common.updater.Updater;
@@ -63,7 +70,9 @@ import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -72,6 +81,8 @@ import java.io.*;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiFunction;
 
 public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
@@ -101,9 +112,26 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
     private VersionSpecificHandler versionSpecificHandler;
 
     private LogHistory logHistory;
+    private BlockOwnershipTracker blockOwnershipTracker;
+    private QuestStartResultCache questStartResultCache;
+    private PlayerPrefetchListener playerPrefetchListener;
     private BukkitTask questAutoSaveTask;
     private BukkitTask questQueuePollTask;
+    private BukkitTask blockOwnershipExpiryTask;
     private BiFunction<Player, String, String> placeholderAPIProcessor;
+    private final AtomicBoolean reloadingQuests = new AtomicBoolean();
+
+    public BukkitQuestsPlugin() {
+        super();
+    }
+
+    /**
+     * Creates the plugin outside of a server plugin class loader, such as in benchmarks.
+     * This must not be used at runtime.
+     */
+    protected BukkitQuestsPlugin(@NotNull JavaPluginLoader loader, @NotNull PluginDescriptionFile description, @NotNull File dataFolder, @NotNull File file) {
+        super(loader, description, dataFolder, file);
+    }
 
     @Override
     public @NotNull QuestsLogger getQuestsLogger() {
@@ -160,6 +188,8 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         // Initial module initialization
         this.questsLogger = new BukkitQuestsLogger(this);
         this.logHistory = new LogHistory(true);
+        this.blockOwnershipTracker = new BlockOwnershipTracker(0);
+        this.questStartResultCache = new QuestStartResultCache(0);
         this.generateConfigurations();
         this.questsConfig = new BukkitQuestsConfig(new File(super.getDataFolder() + File.separator + "config.yml"));
         this.questManager = new QuestManager(this);
@@ -186,11 +216,38 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                     questsLogger.warning("No database settings are configured - default values will be used");
                 }
                 this.storageProvider = new MySqlStorageProvider(this, section);
+                break;
+            case "sqlite":
+                this.storageProvider = new SqliteStorageProvider(this, this.getConfig().getConfigurationSection("options.storage.database-settings"));
+                break;
+            case "binary":
+                this.storageProvider = new BinaryStorageProvider(this);
+        }
+
+        boolean writeBehind = questsConfig.getBoolean("options.storage.write-behind.enabled", true);
+        if (writeBehind && storageProvider instanceof MySqlStorageProvider) {
+            // other servers sharing the database would load progress which is still buffered
+            questsLogger.info("Write-behind is not used with the 'mysql' storage provider.");
+            writeBehind = false;
+        }
+        if (writeBehind) {
+            long flushInterval = questsConfig.getInt("options.storage.write-behind.flush-interval", 100) * 50L;
+            int batchSize = questsConfig.getInt("options.storage.write-behind.batch-size", 100);
+            int maxPending = questsConfig.getInt("options.storage.write-behind.max-pending", 1000);
+            this.storageProvider = new WriteBehindStorageProvider(this, storageProvider, flushInterval, batchSize, maxPending);
         }
 
         try {
             questsLogger.info("Initialising storage provider '" + storageProvider.getName() + "'");
             storageProvider.init();
+
+            // only done for the configured provider, so that migrating data never moves the files of another provider
+            StorageProvider activeProvider = storageProvider instanceof WriteBehindStorageProvider writeBehindProvider
+                    ? writeBehindProvider.getDelegate()
+                    : storageProvider;
+            if (activeProvider instanceof BinaryStorageProvider binaryStorageProvider) {
+                binaryStorageProvider.convertYamlFiles();
+            }
         } catch (Exception e) {
             questsLogger.severe("An error occurred initialising the storage provider.");
             e.printStackTrace();
@@ -235,7 +292,10 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
 
         // Finish module initialisation
         this.taskTypeManager = new BukkitTaskTypeManager(this, questsConfig.getStringList("options.task-type-exclusions"));
-        this.qPlayerManager = new QPlayerManager(this, storageProvider, questController);
+        int storageThreads = questsConfig.getInt("options.storage.executor.threads", 4);
+        boolean virtualThreads = questsConfig.getBoolean("options.storage.executor.virtual-threads", false);
+        StorageExecutor storageExecutor = new StorageExecutor(this, storageProvider, storageThreads, virtualThreads);
+        this.qPlayerManager = new QPlayerManager(this, storageExecutor, questController);
         this.menuController = new MenuController(this);
         this.questItemRegistry = new QuestItemRegistry();
         this.qItemStackRegistry = new QItemStackRegistry();
@@ -266,9 +326,13 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         super.getCommand("quests").setExecutor(questsCommandSwitcher);
 
         // Register events
+        this.playerPrefetchListener = new PlayerPrefetchListener(this);
+        super.getServer().getPluginManager().registerEvents(playerPrefetchListener, this);
         super.getServer().getPluginManager().registerEvents(new PlayerJoinListener(this), this);
         super.getServer().getPluginManager().registerEvents(menuController, this);
         super.getServer().getPluginManager().registerEvents(new PlayerLeaveListener(this), this);
+        super.getServer().getPluginManager().registerEvents(blockOwnershipTracker, this);
+        super.getServer().getPluginManager().registerEvents(questStartResultCache, this);
 
         // Register task types after the server has fully started
         Bukkit.getScheduler().runTask(this, () -> {
@@ -282,7 +346,7 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                 this.coreProtectHook = new CoreProtectHook(this);
             }
             if (Bukkit.getPluginManager().isPluginEnabled("Essentials")) {
-                this.essentialsHook = new EssentialsHook();
+                this.essentialsHook = new EssentialsHook(this);
             }
 
             taskTypeManager.registerTaskType(new BlockBreak(this));
@@ -382,6 +446,8 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                 taskType.onDisable();
             } catch (Exception ignored) { }
         }
+        // queued loads and saves are finished before players are saved on this thread
+        qPlayerManager.getStorageExecutor().shutdown();
         for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
             try {
                 qPlayerManager.savePlayerSync(qPlayer.getPlayerUUID());
@@ -395,9 +461,13 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                 e.printStackTrace();
             }
         }
+        // buffered saves are written synchronously when the storage provider shuts down
         try {
             qPlayerManager.getStorageProvider().shutdown();
-        } catch (Exception ignored) { }
+        } catch (Exception e) {
+            questsLogger.severe("An error occurred shutting down the storage provider.");
+            e.printStackTrace();
+        }
     }
 
     @Override
@@ -406,20 +476,90 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             BukkitQuestsLoader questsLoader = new BukkitQuestsLoader(this);
             questsLoader.loadQuestItems(new File(super.getDataFolder() + File.separator + "items"));
             configProblems = questsLoader.loadQuests(new File(super.getDataFolder() + File.separator + "quests"));
-
-            for (TaskType taskType : taskTypeManager.getTaskTypes()) {
-                try {
-                    taskType.onLoad();
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
+            onQuestsLoaded();
         } else {
             configProblems = Collections.singletonMap("<MAIN CONFIG> config.yml",
                     Collections.singletonList(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR, ConfigProblemDescriptions.MALFORMED_YAML.getDescription(), ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription())));
         }
     }
 
+    /**
+     * Reload quests in the same way as {@link #reloadQuests()}, except quest files are read and parsed
+     * off the main thread. The loaded quests replace the existing ones on the main thread in a single step.
+     *
+     * @return future which completes on the main thread once the quests have been replaced
+     * @throws IllegalStateException if quests are already being reloaded
+     */
+    public CompletableFuture<Void> reloadQuestsAsync() {
+        if (!reloadingQuests.compareAndSet(false, true)) {
+            throw new IllegalStateException("Quests are already being reloaded");
+        }
+
+        BukkitQuestsLoader questsLoader;
+        try {
+            if (!this.reloadBaseConfiguration()) {
+                configProblems = Collections.singletonMap("<MAIN CONFIG> config.yml",
+                        Collections.singletonList(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR, ConfigProblemDescriptions.MALFORMED_YAML.getDescription(), ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription())));
+                reloadingQuests.set(false);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            questsLoader = new BukkitQuestsLoader(this);
+            questsLoader.loadQuestItems(new File(super.getDataFolder() + File.separator + "items"));
+        } catch (RuntimeException e) {
+            reloadingQuests.set(false);
+            throw e;
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        questsLoader.loadQuestsAsync(new File(super.getDataFolder() + File.separator + "quests")).whenComplete((loadedQuests, throwable) -> serverScheduler.doSync(() -> {
+            try {
+                if (throwable != null) {
+                    questsLogger.severe("An exception occurred when attempting to reload quests (existing quests will be kept)");
+                    future.completeExceptionally(throwable);
+                    return;
+                }
+                configProblems = loadedQuests.apply();
+                onQuestsLoaded();
+                future.complete(null);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            } finally {
+                reloadingQuests.set(false);
+            }
+        }));
+        return future;
+    }
+
+    public boolean isReloadingQuests() {
+        return reloadingQuests.get();
+    }
+
+    private void onQuestsLoaded() {
+        for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
+            qPlayer.getQuestProgressFile().getActiveTaskIndex().invalidate();
+            qPlayer.getQuestProgressFile().getQuestCounts().invalidate();
+        }
+        questStartResultCache.clear();
+        // retained progress files were indexed against the previous quests
+        qPlayerManager.getRetainedPlayers().clear();
+
+        // time limits may have changed
+        BukkitQuestCompleter completer = (BukkitQuestCompleter) questCompleter;
+        completer.cancelAllExpiries();
+        for (QPlayer qPlayer : qPlayerManager.getQPlayers()) {
+            completer.scheduleExpiries(qPlayer.getQuestProgressFile());
+        }
+
+        for (TaskType taskType : taskTypeManager.getTaskTypes()) {
+            try {
+                taskType.onLoad();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     public QuestItem getConfiguredQuestItem(String path, ConfigurationSection config, ItemGetter.Filter... excludes) {
         if (config.contains(path + ".quest-item")) {
             return questItemRegistry.getItem(config.getString(path + ".quest-item"));
@@ -441,6 +581,10 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             questsLogger.setServerLoggingLevel(QuestsLogger.LoggingLevel.fromNumber(loggingLevel));
             boolean logHistoryEnabled = questsConfig.getBoolean("options.record-log-history", true);
             logHistory.setEnabled(logHistoryEnabled);
+            int logHistorySize = questsConfig.getInt("options.log-history-size", LogHistory.DEFAULT_CAPACITY);
+            logHistory.setCapacity(Math.max(1, logHistorySize));
+            int logHistoryLevel = questsConfig.getInt("options.log-history-level", 3);
+            logHistory.setLevel(QuestsLogger.LoggingLevel.fromNumber(logHistoryLevel));
 
             switch (questsConfig.getString("quest-mode.mode", "normal").toLowerCase()) {
                 default:
@@ -449,6 +593,20 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
                     //TODO the other one
             }
 
+            if (qPlayerManager != null) {
+                long retentionGracePeriod = this.getConfig().getLong("options.storage.retention.grace-period", 600);
+                // retained data may be stale if it is shared with other servers, which delayed loading suggests
+                if (storageProvider instanceof MySqlStorageProvider || this.getConfig().getInt("options.storage.synchronisation.delay-loading", 0) > 0) {
+                    retentionGracePeriod = 0;
+                }
+                int retentionMaxPlayers = this.getConfig().getInt("options.storage.retention.max-players", 200);
+                qPlayerManager.getRetainedPlayers().setGracePeriod(Math.max(0, retentionGracePeriod) * 50L);
+                qPlayerManager.getRetainedPlayers().setMaxSize(Math.max(0, retentionMaxPlayers));
+            }
+
+            long questStartCacheDuration = this.getConfig().getLong("options.performance-tweaking.quest-start-cache-duration", 100);
+            questStartResultCache.setMaxAge(Math.max(0, questStartCacheDuration) * 50L);
+
             long autoSaveInterval = this.getConfig().getLong("options.performance-tweaking.quest-autosave-interval", 12000);
             try {
                 if (questAutoSaveTask != null) questAutoSaveTask.cancel();
@@ -458,12 +616,26 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
             }
 
             long queueExecuteInterval = this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-interval", 1);
+            long queueExecuteBudget = this.getConfig().getLong("options.performance-tweaking.quest-queue-executor-budget", 500);
+            ((BukkitQuestCompleter) questCompleter).setBudget(queueExecuteBudget);
             try {
                 if (questQueuePollTask != null) questQueuePollTask.cancel();
                 questQueuePollTask = Bukkit.getScheduler().runTaskTimer(this, (BukkitQuestCompleter) questCompleter, queueExecuteInterval, queueExecuteInterval);
             } catch (Exception ex) {
                 questsLogger.debug("Cannot cancel and restart queue executor task");
             }
+
+            long blockOwnershipExpiry = this.getConfig().getLong("options.performance-tweaking.block-ownership-expiry", 72000);
+            blockOwnershipTracker.setExpiry(Math.max(0, blockOwnershipExpiry) * 50L);
+            try {
+                if (blockOwnershipExpiryTask != null) blockOwnershipExpiryTask.cancel();
+                if (blockOwnershipExpiry > 0) {
+                    long expiryInterval = Math.min(blockOwnershipExpiry, 1200);
+                    blockOwnershipExpiryTask = Bukkit.getScheduler().runTaskTimer(this, blockOwnershipTracker::removeExpired, expiryInterval, expiryInterval);
+                }
+            } catch (Exception ex) {
+                questsLogger.debug("Cannot cancel and restart block ownership expiry task");
+            }
         }
         return validConfiguration;
     }
@@ -571,6 +743,18 @@ public class BukkitQuestsPlugin extends JavaPlugin implements Quests {
         return logHistory;
     }
 
+    public BlockOwnershipTracker getBlockOwnershipTracker() {
+        return blockOwnershipTracker;
+    }
+
+    public QuestStartResultCache getQuestStartResultCache() {
+        return questStartResultCache;
+    }
+
+    public PlayerPrefetchListener getPlayerPrefetchListener() {
+        return playerPrefetchListener;
+    }
+
     @Override
     public void reloadConfig() {
         this.reloadBaseConfiguration();
@@ -2,25 +2,31 @@ package com.leonardobishop.quests.bukkit.command;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.item.QuestItem;
+import com.leonardobishop.quests.bukkit.listener.PlayerPrefetchListener;
 import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.bukkit.util.LogHistory;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.QPlayerPreferences;
+import com.leonardobishop.quests.common.player.RetainedPlayerCache;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import com.leonardobishop.quests.common.storage.StorageExecutor;
+import com.leonardobishop.quests.common.storage.WriteBehindStorageProvider;
 import com.leonardobishop.quests.common.tasktype.TaskType;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -98,7 +104,19 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             lines.add("");
             printList(lines, 0, "Full check queue", completer.getFullCheckQueue(), questProgressFile -> questProgressFile.getPlayerUUID().toString());
             lines.add("");
-            printList(lines, 0, "Expired check queue", completer.getExpiredCheckQueue(), UUID::toString);
+            printList(lines, 0, "Scheduled expiries", completer.getScheduledExpiries(),
+                    expiry -> expiry.player() + " " + expiry.questId() + " at " + expiry.deadline());
+            lines.add("");
+            BukkitQuestCompleter.Statistics completerStatistics = completer.getStatistics();
+            lines.add("Completer budget: " + completer.getBudget() + "us");
+            lines.add("Completer entries queued: " + completerStatistics.getQueued());
+            lines.add("Completer entries coalesced: " + completerStatistics.getCoalesced());
+            lines.add("Completer entries drained: " + completerStatistics.getDrained());
+            lines.add("Completer quests expired: " + completerStatistics.getExpired());
+            lines.add("Completer average queue latency: " + completerStatistics.getAverageDrainLatencyMicros() + "us");
+            lines.add("Completer max queue latency: " + completerStatistics.getMaxDrainLatencyMicros() + "us");
+            lines.add("Completer last run time: " + completerStatistics.getLastRunTimeMicros() + "us");
+            lines.add("Completer max run time: " + completerStatistics.getMaxRunTimeMicros() + "us");
             lines.add("");
 
             lines.add("################################");
@@ -106,6 +124,33 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             lines.add("################################");
             lines.add("");
             lines.add("Storage provider: " + plugin.getStorageProvider().getName());
+            StorageExecutor storageExecutor = plugin.getPlayerManager().getStorageExecutor();
+            lines.add("Storage threads: " + storageExecutor.getParallelism() + (storageExecutor.isUsingVirtualThreads() ? " (virtual)" : ""));
+            lines.add("Storage operations running: " + storageExecutor.getRunningCount());
+            lines.add("Storage operations queued: " + storageExecutor.getQueueDepth());
+            lines.add("Storage operations completed: " + storageExecutor.getOperationCount());
+            lines.add("Storage saves collapsed: " + storageExecutor.getSavesCollapsed());
+            lines.add("Storage average wait time: " + String.format("%.2f", storageExecutor.getAverageWaitTimeMillis()) + "ms");
+            lines.add("Storage max wait time: " + storageExecutor.getMaxWaitTimeMillis() + "ms");
+            PlayerPrefetchListener.Statistics prefetchStatistics = plugin.getPlayerPrefetchListener().getStatistics();
+            lines.add("Players ready on join: " + prefetchStatistics.getReadyOnJoin());
+            lines.add("Players ready after join: " + prefetchStatistics.getReadyAfterJoin());
+            lines.add("Players loaded on join: " + prefetchStatistics.getLoadedOnJoin());
+            lines.add("Player loads discarded: " + prefetchStatistics.getDiscarded());
+            lines.add("Player loads pending: " + plugin.getPlayerPrefetchListener().getPendingCount());
+            lines.add("Player average time to ready: " + prefetchStatistics.getAverageTimeToReadyMillis() + "ms");
+            lines.add("Player max time to ready: " + prefetchStatistics.getMaxTimeToReadyMillis() + "ms");
+            RetainedPlayerCache retainedPlayers = plugin.getPlayerManager().getRetainedPlayers();
+            lines.add("Retained players: " + retainedPlayers.size() + "/" + retainedPlayers.getMaxSize());
+            lines.add("Retained player hits: " + retainedPlayers.getHits());
+            lines.add("Retained player misses: " + retainedPlayers.getMisses());
+            if (plugin.getStorageProvider() instanceof WriteBehindStorageProvider writeBehindProvider) {
+                lines.add("Write-behind buffered players: " + writeBehindProvider.getPendingCount());
+                lines.add("Write-behind saves coalesced: " + writeBehindProvider.getSavesCoalesced());
+                lines.add("Write-behind failed writes: " + writeBehindProvider.getFailedWrites());
+                lines.add("Write-behind flushes: " + writeBehindProvider.getFlushCount());
+                lines.add("Write-behind files written: " + writeBehindProvider.getFilesWritten());
+            }
             lines.add("");
 
             lines.add("################################");
@@ -131,6 +176,7 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
                 lines.add("Quests autotrack: " + plugin.getQuestsConfig().getBoolean("options.quest-autotrack", true));
                 lines.add("Verify quests exist on load: " + plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true));
                 lines.add("Queue executor interval: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.quest-queue-executor-interval", 1) + " ticks");
+                lines.add("Queue executor budget: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.quest-queue-executor-budget", 500) + " microseconds");
                 lines.add("Autosave interval: " + plugin.getQuestsConfig().getInt("options.performance-tweaking.quest-autosave-interval", 12000) + " ticks");
                 lines.add("Override errors: " + plugin.getQuestsConfig().getBoolean("options.error-checking.override-errors", false));
                 lines.add("Placeholder cache time: " + plugin.getQuestsConfig().getInt("options.placeholder-cache-time") + " seconds");
@@ -206,7 +252,7 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             for (QPlayer qPlayer : plugin.getPlayerManager().getQPlayers()) {
                 lines.add("QPlayer " + qPlayer.getPlayerUUID() + ":");
                 QPlayerPreferences preferences = qPlayer.getPlayerPreferences();
-                printMap(lines, 1, "Preferences", getFieldValues(preferences.getClass(), preferences));
+                printMap(lines, 1, "Preferences", getFieldValues(preferences.getClass(), preferences, "playerUUID", "debugSubscriptions"));
 
                 QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
                 try {
@@ -239,26 +285,6 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
                 lines.add("");
             }
 
-            if (plugin.getLogHistory().isEnabled()) {
-                lines.add("################################");
-                lines.add("#         Log History          #");
-                lines.add("################################");
-                lines.add("");
-                int timeMaxLength = 1;
-                int typeMaxLength = 1;
-                int threadMaxLength = 1;
-                for (LogHistory.LogEntry line : plugin.getLogHistory().getEntries()) {
-                    timeMaxLength = Math.max(timeMaxLength, String.valueOf(line.getTime()).length());
-                    typeMaxLength = Math.max(typeMaxLength, line.getType().toString().length());
-                    threadMaxLength = Math.max(threadMaxLength, line.getThread().length());
-                }
-                SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                for (LogHistory.LogEntry line : plugin.getLogHistory().getEntries()) {
-                    lines.add(String.format("%-" + timeMaxLength + "s %-" + typeMaxLength + "s %-" + threadMaxLength + "s | %s",
-                            dateFormat.format(new Date(line.getTime())), line.getType().toString(), line.getThread(), line.getEntry()));
-                }
-            }
-
             List<String> errors = new ArrayList<>();
             lines.add(0, "");
             lines.add(0, "Log history: " + plugin.getLogHistory().isEnabled());
@@ -270,8 +296,15 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
             lines.add(0, "################################");
             lines.add(0, "#      Report Information      #");
             lines.add(0, "################################");
-            try {
-                Files.write(path, lines, StandardCharsets.UTF_8);
+            // the log history is written straight from its buffer, as it may be large
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                if (plugin.getLogHistory().isEnabled()) {
+                    writeLogHistory(writer);
+                }
             } catch (IOException e) {
                 error("Failed to write report to " + path + "!");
                 e.printStackTrace();
@@ -285,6 +318,40 @@ public class AdminDebugReportCommandHandler implements CommandHandler {
         }
     }
 
+    private void writeLogHistory(BufferedWriter writer) throws IOException {
+        writer.write("################################");
+        writer.newLine();
+        writer.write("#         Log History          #");
+        writer.newLine();
+        writer.write("################################");
+        writer.newLine();
+        writer.newLine();
+
+        LogHistory logHistory = plugin.getLogHistory();
+        // time, type and thread
+        int[] maxLengths = {1, 1, 1};
+        logHistory.forEachEntry(line -> {
+            maxLengths[0] = Math.max(maxLengths[0], String.valueOf(line.getTime()).length());
+            maxLengths[1] = Math.max(maxLengths[1], line.getType().toString().length());
+            maxLengths[2] = Math.max(maxLengths[2], line.getThread().length());
+        });
+
+        String format = "%-" + maxLengths[0] + "s %-" + maxLengths[1] + "s %-" + maxLengths[2] + "s | %s";
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        try {
+            logHistory.forEachEntry(line -> {
+                try {
+                    writer.write(String.format(format, dateFormat.format(new Date(line.getTime())), line.getType().toString(), line.getThread(), line.getEntry()));
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
     private Map<String, Object> getFieldValues(Class<?> clazz, Object object, String... excludeFields) {
         Field[] fields = clazz.getDeclaredFields();
         Map<String, Object> values = new LinkedHashMap<>();
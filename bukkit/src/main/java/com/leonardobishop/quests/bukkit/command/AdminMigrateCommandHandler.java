@@ -1,7 +1,9 @@
 package com.leonardobishop.quests.bukkit.command;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.storage.BinaryStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.MySqlStorageProvider;
+import com.leonardobishop.quests.bukkit.storage.SqliteStorageProvider;
 import com.leonardobishop.quests.bukkit.storage.YamlStorageProvider;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.storage.StorageProvider;
@@ -13,12 +15,16 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class AdminMigrateCommandHandler implements CommandHandler {
 
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
     private final BukkitQuestsPlugin plugin;
 
     private final AtomicBoolean migrationInProgress;
@@ -86,16 +92,32 @@ public class AdminMigrateCommandHandler implements CommandHandler {
                     return;
                 }
 
-                sender.sendMessage(ChatColor.GRAY + "Loading quest progress files from '" + fromProvider.getName() + "'...");
-                List<QuestProgressFile> files = fromProvider.loadAllProgressFiles();
-                sender.sendMessage(ChatColor.GRAY.toString() + files.size() + " files loaded.");
-
-                for (QuestProgressFile file : files) {
+                sender.sendMessage(ChatColor.GRAY + "Copying quest progress files from '" + fromProvider.getName() + "' to '" + toProvider.getName() + "'...");
+                // files are written in batches as they are loaded, rather than loading every file first
+                List<QuestProgressFile> batch = new ArrayList<>(MIGRATION_BATCH_SIZE);
+                AtomicInteger count = new AtomicInteger();
+                AtomicInteger failed = new AtomicInteger();
+                fromProvider.loadAllProgressFiles(file -> {
                     file.setModified(true);
+                    batch.add(file);
+                    if (batch.size() >= MIGRATION_BATCH_SIZE) {
+                        if (!toProvider.saveAllProgressFiles(batch)) {
+                            failed.addAndGet(batch.size());
+                        }
+                        batch.clear();
+                        sender.sendMessage(ChatColor.GRAY.toString() + count.addAndGet(MIGRATION_BATCH_SIZE) + " files copied...");
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    if (!toProvider.saveAllProgressFiles(batch)) {
+                        failed.addAndGet(batch.size());
+                    }
+                    count.addAndGet(batch.size());
+                }
+                sender.sendMessage(ChatColor.GRAY.toString() + count.get() + " files copied.");
+                if (failed.get() > 0) {
+                    sender.sendMessage(ChatColor.RED.toString() + "Some files in batches totalling " + failed.get() + " files may not have been written. Please check the console for errors.");
                 }
-
-                sender.sendMessage(ChatColor.GRAY + "Writing quest progress files to '" + toProvider.getName() + "'...");
-                toProvider.saveAllProgressFiles(files);
                 sender.sendMessage(ChatColor.GRAY + "Done.");
 
                 shutdownProvider(sender, fromProvider);
@@ -156,6 +178,12 @@ public class AdminMigrateCommandHandler implements CommandHandler {
             case "mysql":
                 ConfigurationSection section = configurationSection.getConfigurationSection("database-settings");
                 storageProvider = new MySqlStorageProvider(plugin, section);
+                break;
+            case "sqlite":
+                storageProvider = new SqliteStorageProvider(plugin, configurationSection.getConfigurationSection("database-settings"));
+                break;
+            case "binary":
+                storageProvider = new BinaryStorageProvider(plugin);
         }
         return storageProvider;
     }
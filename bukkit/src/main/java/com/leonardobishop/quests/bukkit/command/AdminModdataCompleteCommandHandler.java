@@ -3,7 +3,6 @@ package com.leonardobishop.quests.bukkit.command;
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.CommandUtils;
 import com.leonardobishop.quests.bukkit.util.Messages;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.quest.Quest;
 import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
@@ -30,11 +29,8 @@ public class AdminModdataCompleteCommandHandler implements CommandHandler {
             }
 
             CommandUtils.useOtherPlayer(sender, args[3], plugin, (qPlayer) -> {
-                QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
                 qPlayer.completeQuest(quest);
                 Messages.COMMAND_QUEST_ADMIN_COMPLETE_SUCCESS.send(sender, "{player}", args[3], "{quest}", quest.getId());
-
-                CommandUtils.doSafeSave(qPlayer, questProgressFile, plugin);
             });
             return;
         }
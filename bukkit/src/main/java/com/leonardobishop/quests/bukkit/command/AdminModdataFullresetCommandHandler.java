@@ -26,8 +26,6 @@ public class AdminModdataFullresetCommandHandler implements CommandHandler {
                 QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
                 questProgressFile.reset();
                 Messages.COMMAND_QUEST_ADMIN_FULLRESET.send(sender, "{player}", args[3]);
-
-                CommandUtils.doSafeSave(qPlayer, questProgressFile, plugin);
             });
 
             return;
@@ -4,7 +4,6 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.CommandUtils;
 import com.leonardobishop.quests.bukkit.util.Messages;
 import com.leonardobishop.quests.common.enums.QuestStartResult;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import org.bukkit.ChatColor;
@@ -28,8 +27,6 @@ public class AdminModdataRandomCommandHandler implements CommandHandler {
     public void handle(CommandSender sender, String[] args) {
         if (args.length >= 4) {
             CommandUtils.useOtherPlayer(sender, args[3], plugin, (qPlayer) -> {
-                QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
-
                 List<Quest> validQuests = new ArrayList<>();
                 boolean fromCategory = args.length != 4;
                 if (!fromCategory) {
@@ -77,8 +74,6 @@ public class AdminModdataRandomCommandHandler implements CommandHandler {
                             "{player}", args[3],
                             "{quest}", quest.getId());
                 }
-
-                CommandUtils.doSafeSave(qPlayer, questProgressFile, plugin);
             });
         }
 
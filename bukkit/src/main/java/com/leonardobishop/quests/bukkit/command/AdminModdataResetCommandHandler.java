@@ -3,7 +3,6 @@ package com.leonardobishop.quests.bukkit.command;
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.CommandUtils;
 import com.leonardobishop.quests.bukkit.util.Messages;
-import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.quest.Quest;
 import org.bukkit.ChatColor;
@@ -24,18 +23,17 @@ public class AdminModdataResetCommandHandler implements CommandHandler {
     @Override
     public void handle(CommandSender sender, String[] args) {
         if (args.length > 4) {
-            QPlayer qPlayer = CommandUtils.getOtherPlayerSync(sender, args[3], plugin);
-            if (qPlayer == null) return;
             Quest quest = plugin.getQuestManager().getQuestById(args[4]);
             if (quest == null) {
                 Messages.COMMAND_QUEST_START_DOESNTEXIST.send(sender, "{quest}", args[4]);
                 return;
             }
-            QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
-            questProgressFile.generateBlankQuestProgress(quest, true);
-            Messages.COMMAND_QUEST_ADMIN_RESET_SUCCESS.send(sender, "{player}", args[3], "{quest}", quest.getId());
 
-            CommandUtils.doSafeSave(qPlayer, questProgressFile, plugin);
+            CommandUtils.useOtherPlayer(sender, args[3], plugin, (qPlayer) -> {
+                QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
+                questProgressFile.generateBlankQuestProgress(quest, true);
+                Messages.COMMAND_QUEST_ADMIN_RESET_SUCCESS.send(sender, "{player}", args[3], "{quest}", quest.getId());
+            });
             return;
         }
 
@@ -19,11 +19,21 @@ public class AdminReloadCommandHandler implements CommandHandler {
 
     @Override
     public void handle(CommandSender sender, String[] args) {
+        if (plugin.isReloadingQuests()) {
+            sender.sendMessage(ChatColor.RED + "Quests are already being reloaded.");
+            return;
+        }
         sender.sendMessage(ChatColor.GRAY + "Please note that some options, such as storage, require a full restart for chances to take effect.");
         plugin.reloadConfig();
-        plugin.reloadQuests();
-        if (!plugin.getConfigProblems().isEmpty()) CommandUtils.showProblems(sender, plugin.getConfigProblems());
-        sender.sendMessage(ChatColor.GREEN + "Quests successfully reloaded.");
+        plugin.reloadQuestsAsync().whenComplete((v, throwable) -> {
+            if (throwable != null) {
+                throwable.printStackTrace();
+                sender.sendMessage(ChatColor.RED + "Quests could not be reloaded, see the console for details.");
+                return;
+            }
+            if (!plugin.getConfigProblems().isEmpty()) CommandUtils.showProblems(sender, plugin.getConfigProblems());
+            sender.sendMessage(ChatColor.GREEN + "Quests successfully reloaded.");
+        });
     }
 
     @Override
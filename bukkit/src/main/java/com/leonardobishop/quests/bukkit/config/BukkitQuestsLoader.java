@@ -14,6 +14,7 @@ import com.leonardobishop.quests.common.logger.QuestsLogger;
 import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.QuestManager;
+import com.leonardobishop.quests.common.quest.QuestRequirementGraph;
 import com.leonardobishop.quests.common.quest.Task;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
 import com.leonardobishop.quests.common.tasktype.TaskType;
@@ -27,15 +28,23 @@ import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class BukkitQuestsLoader implements QuestsLoader {
 
+    // <\$m\s*([^ ]+)\s*\$>
+    private static final Pattern MACRO_PATTERN = Pattern.compile("<\\$m\\s*([^ ]+)\\s*\\$>");
+    private static final Pattern TASK_REFERENCE_PATTERN = Pattern.compile("\\{([^}]+)}");
+
     private final BukkitQuestsPlugin plugin;
     private final BukkitQuestsConfig questsConfig;
     private final QuestManager questManager;
@@ -58,21 +67,57 @@ public class BukkitQuestsLoader implements QuestsLoader {
 
     /**
      * Load quests and categories into the respective {@link QuestManager} and register
-     * them with tasks in the respective {@link TaskTypeManager}.
+     * them with tasks in the respective {@link TaskTypeManager}. Quest files are read and
+     * parsed in parallel, but this method blocks until all of them have been loaded.
      *
      * @param root the directory to load from
      * @return map of configuration issues
      */
     @Override
     public Map<String, List<ConfigProblem>> loadQuests(File root) {
-        qItemStackRegistry.clearRegistry();
-        questManager.clear();
-        taskTypeManager.resetTaskTypes();
+        return loadQuestsAsync(root).join().apply();
+    }
 
-        Map<String, List<ConfigProblem>> configProblems = new HashMap<>();
-        HashMap<String, Quest> pathToQuest = new HashMap<>();
-        HashMap<String, Map<String, Object>> globalTaskConfig = new HashMap<>();
+    /**
+     * Read, parse and validate quests and categories on a pool of worker threads. No registry
+     * is modified until {@link LoadedQuests#apply()} is called on the returned quests, which
+     * must be done on the main thread.
+     *
+     * @param root the directory to load from
+     * @return future which completes with the loaded quests
+     */
+    public CompletableFuture<LoadedQuests> loadQuestsAsync(File root) {
+        int threads = questsConfig.getInt("options.performance-tweaking.quest-load-threads", 0);
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "Quests-Loader-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<LoadedQuests> future = CompletableFuture.supplyAsync(() -> {
+            Map<String, Map<String, Object>> globalTaskConfig = loadGlobalTaskConfig();
+            Map<String, LoadedCategory> categories = loadCategories();
+            List<Path> paths = findQuestFiles(root);
+
+            List<CompletableFuture<LoadedQuest>> quests = new ArrayList<>(paths.size());
+            for (Path path : paths) {
+                quests.add(CompletableFuture.supplyAsync(() -> loadQuest(root, path, categories, globalTaskConfig), executor));
+            }
+            // quests are kept in the order they were found, so they are registered in the same order each time
+            return CompletableFuture.allOf(quests.toArray(new CompletableFuture[0]))
+                    .thenApply(v -> new LoadedQuests(categories, quests.stream().map(CompletableFuture::join).toList()));
+        }, executor).thenCompose(Function.identity());
 
+        future.whenComplete((loadedQuests, throwable) -> executor.shutdown());
+        return future;
+    }
+
+    private Map<String, Map<String, Object>> loadGlobalTaskConfig() {
+        Map<String, Map<String, Object>> globalTaskConfig = new HashMap<>();
         if (questsConfig.getConfig().isConfigurationSection("global-task-configuration.types")) {
             for (String type : questsConfig.getConfig().getConfigurationSection("global-task-configuration.types").getKeys(false)) {
                 HashMap<String, Object> configValues = new HashMap<>();
@@ -82,7 +127,10 @@ public class BukkitQuestsLoader implements QuestsLoader {
                 globalTaskConfig.putIfAbsent(type, configValues);
             }
         }
+        return globalTaskConfig;
+    }
 
+    private Map<String, LoadedCategory> loadCategories() {
         ConfigurationSection categories;
         File categoriesFile = new File(plugin.getDataFolder() + File.separator + "categories.yml");
         if (plugin.getConfig().isConfigurationSection("categories")) {
@@ -100,312 +148,296 @@ public class BukkitQuestsLoader implements QuestsLoader {
             }
         }
 
+        Map<String, LoadedCategory> loadedCategories = new LinkedHashMap<>();
         for (String id : categories.getKeys(false)) {
             ItemStack displayItem = plugin.getConfiguredItemStack(id + ".display", categories);
             boolean permissionRequired = categories.getBoolean(id + ".permission-required", false);
             boolean hidden = categories.getBoolean(id + ".hidden", false);
 
             Category category = new Category(id, permissionRequired, hidden);
-            questManager.registerCategory(category);
-            qItemStackRegistry.register(category, displayItem);
+            loadedCategories.put(id, new LoadedCategory(category, displayItem));
         }
+        return loadedCategories;
+    }
 
-        // <\$m\s*([^ ]+)\s*\$>
-        Pattern macroPattern = Pattern.compile("<\\$m\\s*([^ ]+)\\s*\\$>");
-
+    private List<Path> findQuestFiles(File root) {
+        List<Path> paths = new ArrayList<>();
         FileVisitor<Path> fileVisitor = new SimpleFileVisitor<Path>() {
             @Override
             public FileVisitResult visitFile(Path path, BasicFileAttributes attributes) {
-                try {
-                    File questFile = new File(path.toUri());
-                    URI relativeLocation = root.toURI().relativize(path.toUri());
+                if (path.getFileName().toString().toLowerCase().endsWith(".yml")) {
+                    paths.add(path);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        };
 
-                    if (!questFile.getName().toLowerCase().endsWith(".yml")) {
-                        return FileVisitResult.CONTINUE;
-                    }
+        try {
+            Files.walkFileTree(root.toPath(), fileVisitor);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return paths;
+    }
 
-                    // process macros -- start
-                    String data = Files.readAllLines(path).stream().reduce("", (a, b) -> a + "\n" + b);
-                    StringBuilder processed = new StringBuilder();
-                    Matcher matcher = macroPattern.matcher(data);
-
-                    int end = 0;
-                    while (matcher.find()) {
-                        String macro = matcher.group(1);
-                        String replacement = questsConfig.getString("global-macros." + macro, null);
-                        if (replacement == null) {
-                            replacement = matcher.group(0);
-                        }
-                        processed.append(data, end, matcher.start()).append(replacement);
-                        end = matcher.end();
-                    }
+    /**
+     * Load a single quest file. This is called concurrently for different files, so must only read
+     * shared state.
+     */
+    private LoadedQuest loadQuest(File root, Path path, Map<String, LoadedCategory> categories, Map<String, Map<String, Object>> globalTaskConfig) {
+        File questFile = new File(path.toUri());
+        String relativePath = root.toURI().relativize(path.toUri()).getPath();
+        try {
+            // process macros -- start
+            String data = Files.readString(path);
+            StringBuilder processed = new StringBuilder(data.length());
+            Matcher matcher = MACRO_PATTERN.matcher(data);
+
+            int end = 0;
+            while (matcher.find()) {
+                String macro = matcher.group(1);
+                String replacement = questsConfig.getString("global-macros." + macro, null);
+                if (replacement == null) {
+                    replacement = matcher.group(0);
+                }
+                processed.append(data, end, matcher.start()).append(replacement);
+                end = matcher.end();
+            }
 
-                    if (end < data.length()) {
-                        processed.append(data, end, data.length());
-                    }
-                    // process macros -- end
+            if (end < data.length()) {
+                processed.append(data, end, data.length());
+            }
+            // process macros -- end
+
+            YamlConfiguration config = new YamlConfiguration();
+            // test QUEST file integrity
+            try {
+                config.loadFromString(processed.toString());
+            } catch (InvalidConfigurationException ex) {
+                return new LoadedQuest(relativePath, null, Collections.singletonList(new ConfigProblem(
+                        ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.MALFORMED_YAML.getDescription(),
+                        ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription(ex.getMessage())
+                )));
+            }
 
-                    YamlConfiguration config = new YamlConfiguration();
-                    // test QUEST file integrity
-                    try {
-                        config.loadFromString(processed.toString());
-                    } catch (InvalidConfigurationException ex) {
-                        configProblems.put(relativeLocation.getPath(), Collections.singletonList(new ConfigProblem(
-                                ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.MALFORMED_YAML.getDescription(),
-                                ConfigProblemDescriptions.MALFORMED_YAML.getExtendedDescription(ex.getMessage())
-                        )));
-                        return FileVisitResult.CONTINUE;
-                    }
+            String id = questFile.getName().replace(".yml", "");
 
-                    String id = questFile.getName().replace(".yml", "");
+            List<ConfigProblem> problems = new ArrayList<>();
 
-                    List<ConfigProblem> problems = new ArrayList<>();
+            if (!StringUtils.isAlphanumeric(id)) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.INVALID_QUEST_ID.getDescription(id),
+                        ConfigProblemDescriptions.INVALID_QUEST_ID.getExtendedDescription(id)));
+            }
 
-                    if (!StringUtils.isAlphanumeric(id)) {
-                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.INVALID_QUEST_ID.getDescription(id),
-                                ConfigProblemDescriptions.INVALID_QUEST_ID.getExtendedDescription(id)));
+            // CHECK EVERYTHING WRONG WITH THE QUEST FILE BEFORE ACTUALLY LOADING THE QUEST
+
+            if (!config.isConfigurationSection("tasks")) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                        ConfigProblemDescriptions.NO_TASKS.getDescription(),
+                        ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
+                        "tasks"));
+            } else { //continue
+                int validTasks = 0;
+                for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
+                    boolean isValid = true;
+                    String taskRoot = "tasks." + taskId;
+                    String taskType = config.getString(taskRoot + ".type");
+
+                    if (!config.isConfigurationSection(taskRoot)) {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getDescription(taskId),
+                                ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getExtendedDescription(taskId),
+                                taskRoot));
+                        continue;
                     }
 
-                    // CHECK EVERYTHING WRONG WITH THE QUEST FILE BEFORE ACTUALLY LOADING THE QUEST
-
-                    if (!config.isConfigurationSection("tasks")) {
-                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                ConfigProblemDescriptions.NO_TASKS.getDescription(),
-                                ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
-                                "tasks"));
-                    } else { //continue
-                        int validTasks = 0;
-                        for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
-                            boolean isValid = true;
-                            String taskRoot = "tasks." + taskId;
-                            String taskType = config.getString(taskRoot + ".type");
-
-                            if (!config.isConfigurationSection(taskRoot)) {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getDescription(taskId),
-                                        ConfigProblemDescriptions.TASK_MALFORMED_NOT_SECTION.getExtendedDescription(taskId),
-                                        taskRoot));
-                                continue;
-                            }
-
-                            if (taskType == null) {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.NO_TASK_TYPE.getDescription(),
-                                        ConfigProblemDescriptions.NO_TASK_TYPE.getExtendedDescription(),
-                                        taskRoot));
-                                continue;
-                            }
-
-                            // check the tasks
-                            String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
-                            if (resolvedTaskTypeName != null) {
-                                TaskType t = taskTypeManager.getTaskType(resolvedTaskTypeName);
-                                HashMap<String, Object> configValues = new HashMap<>();
-                                for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
-                                    configValues.put(key, config.get(taskRoot + "." + key));
-                                }
-
-                                List<ConfigProblem> taskProblems = new ArrayList<>();
-                                for (TaskType.ConfigValidator validator : t.getConfigValidators()) {
-                                    validator.validateConfig(configValues, taskProblems);
-                                }
-
-                                // pre-pend task root to locations
-                                for (ConfigProblem problem : taskProblems) {
-                                    problems.add(new ConfigProblem(problem.getType(), problem.getDescription(),
-                                            problem.getExtendedDescription(), taskRoot + "." + problem.getLocation()));
-                                }
-                            } else {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getDescription(taskType),
-                                        ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getExtendedDescription(taskType),
-                                        taskRoot));
-                                isValid = false;
-                            }
-
-                            if (isValid) {
-                                validTasks++;
-                            }
-                        }
-                        if (validTasks == 0) {
-                            problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
-                                    ConfigProblemDescriptions.NO_TASKS.getDescription(),
-                                    ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
-                                    "tasks"));
-                        }
+                    if (taskType == null) {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.NO_TASK_TYPE.getDescription(),
+                                ConfigProblemDescriptions.NO_TASK_TYPE.getExtendedDescription(),
+                                taskRoot));
+                        continue;
                     }
 
-                    boolean error = false;
-                    for (ConfigProblem problem : problems) {
-                        if (problem.getType() == ConfigProblem.ConfigProblemType.ERROR) {
-                            error = true;
-                            break;
+                    // check the tasks
+                    String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
+                    if (resolvedTaskTypeName != null) {
+                        TaskType t = taskTypeManager.getTaskType(resolvedTaskTypeName);
+                        HashMap<String, Object> configValues = new HashMap<>();
+                        for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
+                            configValues.put(key, config.get(taskRoot + "." + key));
                         }
-                    }
 
-                    // END OF THE CHECKING
-                    if (!error && !questsConfig.getBoolean("options.error-checking.override-errors", false)) {
-                        QItemStack displayItem = getQItemStack("display", config);
-                        List<String> rewards = config.getStringList("rewards");
-                        List<String> requirements = config.getStringList("options.requires");
-                        List<String> rewardString = config.getStringList("rewardstring");
-                        List<String> startString = config.getStringList("startstring");
-                        List<String> startCommands = config.getStringList("startcommands");
-                        boolean repeatable = config.getBoolean("options.repeatable", false);
-                        boolean cooldown = config.getBoolean("options.cooldown.enabled", false);
-                        boolean timeLimit = config.getBoolean("options.time-limit.enabled", false);
-                        boolean permissionRequired = config.getBoolean("options.permission-required", false);
-                        boolean autostart = config.getBoolean("options.autostart", false);
-                        boolean cancellable = config.getBoolean("options.cancellable", true);
-                        boolean countsTowardsLimit = config.getBoolean("options.counts-towards-limit", true);
-                        int cooldownTime = config.getInt("options.cooldown.time", 10);
-                        int timeLimtTime = config.getInt("options.time-limit.time", 10);
-                        int sortOrder = config.getInt("options.sort-order", 1);
-                        String category = config.getString("options.category");
-                        Map<String, String> placeholders = new HashMap<>();
-
-                        if (category != null && category.equals("")) category = null;
-
-                        if (questController.getName().equals("daily")) {
-                            repeatable = true;
-                            cooldown = true;
-                            cooldownTime = 0;
-                            requirements = Collections.emptyList();
-                            permissionRequired = false;
+                        List<ConfigProblem> taskProblems = new ArrayList<>();
+                        for (TaskType.ConfigValidator validator : t.getConfigValidators()) {
+                            validator.validateConfig(configValues, taskProblems);
                         }
 
-                        Quest quest = new Quest.Builder(id)
-                                .withRewards(rewards)
-                                .withRequirements(requirements)
-                                .withRewardString(rewardString)
-                                .withStartString(startString)
-                                .withStartCommands(startCommands)
-                                .withPlaceholders(placeholders)
-                                .withCooldown(cooldownTime)
-                                .withTimeLimit(timeLimtTime)
-                                .withSortOrder(sortOrder)
-                                .withCooldownEnabled(cooldown)
-                                .withTimeLimitEnabled(timeLimit)
-                                .withPermissionRequired(permissionRequired)
-                                .withRepeatEnabled(repeatable)
-                                .withCancellable(cancellable)
-                                .withCountsTowardsLimit(countsTowardsLimit)
-                                .withAutoStartEnabled(autostart)
-                                .inCategory(category)
-                                .build();
-
-                        if (category != null) {
-                            Category c = questManager.getCategoryById(category);
-                            if (c != null) {
-                                c.registerQuestId(id);
-                            } else {
-                                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getDescription(category),
-                                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getExtendedDescription(category),
-                                        "options.category"));
-                            }
+                        // pre-pend task root to locations
+                        for (ConfigProblem problem : taskProblems) {
+                            problems.add(new ConfigProblem(problem.getType(), problem.getDescription(),
+                                    problem.getExtendedDescription(), taskRoot + "." + problem.getLocation()));
                         }
+                    } else {
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getDescription(taskType),
+                                ConfigProblemDescriptions.UNKNOWN_TASK_TYPE.getExtendedDescription(taskType),
+                                taskRoot));
+                        isValid = false;
+                    }
 
-                        for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
-                            String taskRoot = "tasks." + taskId;
-                            String taskType = config.getString(taskRoot + ".type");
-                            String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
+                    if (isValid) {
+                        validTasks++;
+                    }
+                }
+                if (validTasks == 0) {
+                    problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.ERROR,
+                            ConfigProblemDescriptions.NO_TASKS.getDescription(),
+                            ConfigProblemDescriptions.NO_TASKS.getExtendedDescription(),
+                            "tasks"));
+                }
+            }
 
-                            Task task = new Task(taskId, resolvedTaskTypeName);
+            boolean error = false;
+            for (ConfigProblem problem : problems) {
+                if (problem.getType() == ConfigProblem.ConfigProblemType.ERROR) {
+                    error = true;
+                    break;
+                }
+            }
 
-                            for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
-                                task.addConfigValue(key, config.get(taskRoot + "." + key));
-                            }
+            // END OF THE CHECKING
+            if (error || questsConfig.getBoolean("options.error-checking.override-errors", false)) {
+                return new LoadedQuest(relativePath, null, problems);
+            }
 
-                            if (globalTaskConfig.containsKey(taskType)) {
-                                for (Map.Entry<String, Object> entry : globalTaskConfig.get(taskType).entrySet()) {
-                                    if (questsConfig.getBoolean("options.global-task-configuration-override") && task.getConfigValue(entry.getKey()) != null)
-                                        continue;
-                                    task.addConfigValue(entry.getKey(), entry.getValue());
-                                }
-                            }
+            QItemStack displayItem = getQItemStack("display", config);
+            List<String> rewards = config.getStringList("rewards");
+            List<String> requirements = config.getStringList("options.requires");
+            List<String> rewardString = config.getStringList("rewardstring");
+            List<String> startString = config.getStringList("startstring");
+            List<String> startCommands = config.getStringList("startcommands");
+            boolean repeatable = config.getBoolean("options.repeatable", false);
+            boolean cooldown = config.getBoolean("options.cooldown.enabled", false);
+            boolean timeLimit = config.getBoolean("options.time-limit.enabled", false);
+            boolean permissionRequired = config.getBoolean("options.permission-required", false);
+            boolean autostart = config.getBoolean("options.autostart", false);
+            boolean cancellable = config.getBoolean("options.cancellable", true);
+            boolean countsTowardsLimit = config.getBoolean("options.counts-towards-limit", true);
+            int cooldownTime = config.getInt("options.cooldown.time", 10);
+            int timeLimtTime = config.getInt("options.time-limit.time", 10);
+            int sortOrder = config.getInt("options.sort-order", 1);
+            String category = config.getString("options.category");
+            Map<String, String> placeholders = new HashMap<>();
+
+            if (category != null && category.equals("")) category = null;
+
+            if (questController.getName().equals("daily")) {
+                repeatable = true;
+                cooldown = true;
+                cooldownTime = 0;
+                requirements = Collections.emptyList();
+                permissionRequired = false;
+            }
 
-                            quest.registerTask(task);
-                        }
+            Quest quest = new Quest.Builder(id)
+                    .withRewards(rewards)
+                    .withRequirements(requirements)
+                    .withRewardString(rewardString)
+                    .withStartString(startString)
+                    .withStartCommands(startCommands)
+                    .withPlaceholders(placeholders)
+                    .withCooldown(cooldownTime)
+                    .withTimeLimit(timeLimtTime)
+                    .withSortOrder(sortOrder)
+                    .withCooldownEnabled(cooldown)
+                    .withTimeLimitEnabled(timeLimit)
+                    .withPermissionRequired(permissionRequired)
+                    .withRepeatEnabled(repeatable)
+                    .withCancellable(cancellable)
+                    .withCountsTowardsLimit(countsTowardsLimit)
+                    .withAutoStartEnabled(autostart)
+                    .inCategory(category)
+                    .build();
+
+            if (category != null && !categories.containsKey(category)) {
+                problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getDescription(category),
+                        ConfigProblemDescriptions.UNKNOWN_CATEGORY.getExtendedDescription(category),
+                        "options.category"));
+            }
 
+            for (String taskId : config.getConfigurationSection("tasks").getKeys(false)) {
+                String taskRoot = "tasks." + taskId;
+                String taskType = config.getString(taskRoot + ".type");
+                String resolvedTaskTypeName = taskTypeManager.resolveTaskTypeName(taskType);
 
-                        for (String line : displayItem.getLoreNormal()) {
-                            findInvalidTaskReferences(quest, line, problems, "display.lore-normal");
-                        }
-                        for (String line : displayItem.getLoreStarted()) {
-                            findInvalidTaskReferences(quest, line, problems, "display.lore-started");
-                        }
+                Task task = new Task(taskId, resolvedTaskTypeName);
 
-                        if (config.isConfigurationSection("placeholders")) {
-                            for (String p : config.getConfigurationSection("placeholders").getKeys(false)) {
-                                placeholders.put(p, config.getString("placeholders." + p));
-                                findInvalidTaskReferences(quest, config.getString("placeholders." + p), problems, "placeholders." + p);
-                            }
-                        }
-                        questManager.registerQuest(quest);
-                        taskTypeManager.registerQuestTasksWithTaskTypes(quest);
-                        qItemStackRegistry.register(quest, displayItem);
-                        if (config.isConfigurationSection("options.started-display")) {
-                            qItemStackRegistry.registerQuestLocked(quest,
-                                    plugin.getItemGetter().getItem("options.locked-display", config));
-                        }
-                        if (config.isConfigurationSection("options.completed-display")) {
-                            qItemStackRegistry.registerQuestCompleted(quest,
-                                    plugin.getItemGetter().getItem("options.completed-display", config));
-                        }
-                        if (config.isConfigurationSection("options.cooldown-display")) {
-                            qItemStackRegistry.registerQuestCooldown(quest,
-                                    plugin.getItemGetter().getItem("options.cooldown-display", config));
-                        }
-                        if (config.isConfigurationSection("options.permission-display")) {
-                            qItemStackRegistry.registerQuestPermission(quest,
-                                    plugin.getItemGetter().getItem("options.permission-display", config));
-                        }
-                        pathToQuest.put(relativeLocation.getPath(), quest);
-                    }
-                    if (!problems.isEmpty()) {
-                        configProblems.put(relativeLocation.getPath(), problems);
+                for (String key : config.getConfigurationSection(taskRoot).getKeys(false)) {
+                    task.addConfigValue(key, config.get(taskRoot + "." + key));
+                }
+
+                if (globalTaskConfig.containsKey(taskType)) {
+                    for (Map.Entry<String, Object> entry : globalTaskConfig.get(taskType).entrySet()) {
+                        if (questsConfig.getBoolean("options.global-task-configuration-override") && task.getConfigValue(entry.getKey()) != null)
+                            continue;
+                        task.addConfigValue(entry.getKey(), entry.getValue());
                     }
+                }
+
+                quest.registerTask(task);
+            }
+
+            // compile task configurations
+            for (Task task : quest.getTasks()) {
+                TaskType taskType = taskTypeManager.getTaskType(task.getType());
+                if (taskType == null) continue;
+
+                try {
+                    task.setCompiledConfig(taskType.compileTask(task));
                 } catch (Exception e) {
-                    questsLogger.severe("An exception occurred when attempting to load quest '" + path + "' (will be ignored)");
+                    questsLogger.severe("An exception occurred when attempting to compile task '" + task.getId() + "' in quest '" + quest.getId() + "'");
                     e.printStackTrace();
                 }
-                return FileVisitResult.CONTINUE;
             }
-        };
 
-        try {
-            Files.walkFileTree(root.toPath(), fileVisitor);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        questsLogger.info(questManager.getQuests().size() + " quests have been registered.");
+            for (String line : displayItem.getLoreNormal()) {
+                findInvalidTaskReferences(quest, line, problems, "display.lore-normal");
+            }
+            for (String line : displayItem.getLoreStarted()) {
+                findInvalidTaskReferences(quest, line, problems, "display.lore-started");
+            }
 
-        // post-load checks
-        for (Map.Entry<String, Quest> loadedQuest : pathToQuest.entrySet()) {
-            List<ConfigProblem> problems = new ArrayList<>();
-            for (String req : loadedQuest.getValue().getRequirements()) {
-                if (questManager.getQuestById(req) == null) {
-                    problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
-                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getDescription(req),
-                            ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getExtendedDescription(req),
-                            "options.requires"));
+            if (config.isConfigurationSection("placeholders")) {
+                for (String p : config.getConfigurationSection("placeholders").getKeys(false)) {
+                    placeholders.put(p, config.getString("placeholders." + p));
+                    findInvalidTaskReferences(quest, config.getString("placeholders." + p), problems, "placeholders." + p);
                 }
             }
 
-            if (!problems.isEmpty()) {
-                if (configProblems.containsKey(loadedQuest.getKey())) {
-                    configProblems.get(loadedQuest.getKey()).addAll(problems);
-                } else {
-                    configProblems.put(loadedQuest.getKey(), problems);
-                }
+            LoadedQuest loadedQuest = new LoadedQuest(relativePath, quest, problems);
+            loadedQuest.displayItem = displayItem;
+            if (config.isConfigurationSection("options.started-display")) {
+                loadedQuest.lockedItem = plugin.getItemGetter().getItem("options.locked-display", config);
+            }
+            if (config.isConfigurationSection("options.completed-display")) {
+                loadedQuest.completedItem = plugin.getItemGetter().getItem("options.completed-display", config);
+            }
+            if (config.isConfigurationSection("options.cooldown-display")) {
+                loadedQuest.cooldownItem = plugin.getItemGetter().getItem("options.cooldown-display", config);
             }
+            if (config.isConfigurationSection("options.permission-display")) {
+                loadedQuest.permissionItem = plugin.getItemGetter().getItem("options.permission-display", config);
+            }
+            return loadedQuest;
+        } catch (Exception e) {
+            questsLogger.severe("An exception occurred when attempting to load quest '" + path + "' (will be ignored)");
+            e.printStackTrace();
+            return new LoadedQuest(relativePath, null, Collections.emptyList());
         }
-
-        return configProblems;
     }
 
     /**
@@ -474,9 +506,7 @@ public class BukkitQuestsLoader implements QuestsLoader {
     }
 
     private void findInvalidTaskReferences(Quest quest, String s, List<ConfigProblem> configProblems, String location) {
-        Pattern pattern = Pattern.compile("\\{([^}]+)}");
-
-        Matcher matcher = pattern.matcher(s);
+        Matcher matcher = TASK_REFERENCE_PATTERN.matcher(s);
         while (matcher.find()) {
             String[] parts = matcher.group(1).split(":");
             boolean match = false;
@@ -511,4 +541,128 @@ public class BukkitQuestsLoader implements QuestsLoader {
         return new QItemStack(plugin, name, loreNormal, loreStarted, is);
     }
 
+    /**
+     * Quests and categories which have been loaded, but not yet registered.
+     */
+    public final class LoadedQuests {
+
+        private final Collection<LoadedCategory> categories;
+        private final List<LoadedQuest> quests;
+        private final Map<String, List<ConfigProblem>> configProblems = new HashMap<>();
+
+        private LoadedQuests(Map<String, LoadedCategory> categories, List<LoadedQuest> quests) {
+            this.categories = categories.values();
+            this.quests = quests;
+
+            Set<String> questIds = new HashSet<>();
+            Map<String, List<String>> requirements = new LinkedHashMap<>();
+            for (LoadedQuest loadedQuest : quests) {
+                if (loadedQuest.quest != null) {
+                    questIds.add(loadedQuest.quest.getId());
+                    requirements.put(loadedQuest.quest.getId(), loadedQuest.quest.getRequirements());
+                }
+            }
+
+            Map<String, List<List<String>>> cycles = new HashMap<>();
+            for (List<String> cycle : QuestRequirementGraph.findCycles(requirements)) {
+                for (String id : cycle.subList(0, cycle.size() - 1)) {
+                    cycles.computeIfAbsent(id, k -> new ArrayList<>()).add(cycle);
+                }
+            }
+
+            for (LoadedQuest loadedQuest : quests) {
+                List<ConfigProblem> problems = new ArrayList<>(loadedQuest.problems);
+                Quest quest = loadedQuest.quest;
+                if (quest != null) {
+                    String categoryId = quest.getCategoryId();
+                    LoadedCategory category = categoryId == null ? null : categories.get(categoryId);
+                    if (category != null) {
+                        category.category.registerQuestId(quest.getId());
+                    }
+
+                    // post-load checks
+                    for (String req : quest.getRequirements()) {
+                        if (!questIds.contains(req)) {
+                            problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                    ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getDescription(req),
+                                    ConfigProblemDescriptions.UNKNOWN_REQUIREMENT.getExtendedDescription(req),
+                                    "options.requires"));
+                        }
+                    }
+                    for (List<String> cycle : cycles.getOrDefault(quest.getId(), Collections.emptyList())) {
+                        String path = String.join(" -> ", cycle);
+                        problems.add(new ConfigProblem(ConfigProblem.ConfigProblemType.WARNING,
+                                ConfigProblemDescriptions.CYCLIC_REQUIREMENT.getDescription(path),
+                                ConfigProblemDescriptions.CYCLIC_REQUIREMENT.getExtendedDescription(path),
+                                "options.requires"));
+                    }
+                }
+
+                if (!problems.isEmpty()) {
+                    configProblems.computeIfAbsent(loadedQuest.path, k -> new ArrayList<>()).addAll(problems);
+                }
+            }
+        }
+
+        /**
+         * Replace all registered quests and categories with these ones. This must be called on the
+         * main thread, and does no more than update the registries.
+         *
+         * @return map of configuration issues
+         */
+        public Map<String, List<ConfigProblem>> apply() {
+            qItemStackRegistry.clearRegistry();
+            questManager.clear();
+            taskTypeManager.resetTaskTypes();
+
+            for (LoadedCategory loadedCategory : categories) {
+                questManager.registerCategory(loadedCategory.category);
+                qItemStackRegistry.register(loadedCategory.category, loadedCategory.displayItem);
+            }
+
+            for (LoadedQuest loadedQuest : quests) {
+                Quest quest = loadedQuest.quest;
+                if (quest == null) continue;
+
+                questManager.registerQuest(quest);
+                taskTypeManager.registerQuestTasksWithTaskTypes(quest);
+                qItemStackRegistry.register(quest, loadedQuest.displayItem);
+                if (loadedQuest.lockedItem != null) {
+                    qItemStackRegistry.registerQuestLocked(quest, loadedQuest.lockedItem);
+                }
+                if (loadedQuest.completedItem != null) {
+                    qItemStackRegistry.registerQuestCompleted(quest, loadedQuest.completedItem);
+                }
+                if (loadedQuest.cooldownItem != null) {
+                    qItemStackRegistry.registerQuestCooldown(quest, loadedQuest.cooldownItem);
+                }
+                if (loadedQuest.permissionItem != null) {
+                    qItemStackRegistry.registerQuestPermission(quest, loadedQuest.permissionItem);
+                }
+            }
+
+            questsLogger.info(questManager.getQuests().size() + " quests have been registered.");
+            return configProblems;
+        }
+    }
+
+    private record LoadedCategory(Category category, ItemStack displayItem) { }
+
+    private static final class LoadedQuest {
+
+        private final String path;
+        private final Quest quest;
+        private final List<ConfigProblem> problems;
+        private QItemStack displayItem;
+        private ItemStack lockedItem;
+        private ItemStack completedItem;
+        private ItemStack cooldownItem;
+        private ItemStack permissionItem;
+
+        private LoadedQuest(String path, Quest quest, List<ConfigProblem> problems) {
+            this.path = path;
+            this.quest = quest;
+            this.problems = problems;
+        }
+    }
 }
@@ -2,6 +2,8 @@ package com.leonardobishop.quests.bukkit.hook.essentials;
 
 import org.bukkit.entity.Player;
 
+import java.util.function.BiConsumer;
+
 public interface AbstractEssentialsHook {
     /**
      * Check whether or not the passed player is marked AFK by Essentials
@@ -10,4 +12,12 @@ public interface AbstractEssentialsHook {
      * @return true if afk, false otherwise
      */
     boolean isAfk(Player player);
+
+    /**
+     * Register a listener which is called whenever Essentials marks a player as AFK or no longer AFK.
+     * The listener may be called from any thread.
+     *
+     * @param listener the listener, which accepts the player and whether they are now AFK
+     */
+    void addAfkStatusListener(BiConsumer<Player, Boolean> listener);
 }
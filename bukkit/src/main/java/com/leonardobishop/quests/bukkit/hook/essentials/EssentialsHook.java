@@ -1,19 +1,43 @@
 package com.leonardobishop.quests.bukkit.hook.essentials;
 
 import com.earth2me.essentials.Essentials;
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import net.ess3.api.events.AfkStatusChangeEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
 
-public class EssentialsHook implements AbstractEssentialsHook {
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+public class EssentialsHook implements AbstractEssentialsHook, Listener {
 
     private final Essentials ess;
+    private final List<BiConsumer<Player, Boolean>> afkStatusListeners = new CopyOnWriteArrayList<>();
 
-    public EssentialsHook() {
+    public EssentialsHook(BukkitQuestsPlugin plugin) {
         ess = ((Essentials) Bukkit.getPluginManager().getPlugin("Essentials"));
+        Bukkit.getPluginManager().registerEvents(this, plugin);
     }
 
     @Override
     public boolean isAfk(Player player) {
         return ess.getUser(player).isAfk();
     }
+
+    @Override
+    public void addAfkStatusListener(BiConsumer<Player, Boolean> listener) {
+        afkStatusListeners.add(listener);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onAfkStatusChange(AfkStatusChangeEvent event) {
+        Player player = event.getAffected().getBase();
+        for (BiConsumer<Player, Boolean> listener : afkStatusListeners) {
+            listener.accept(player, event.getValue());
+        }
+    }
 }
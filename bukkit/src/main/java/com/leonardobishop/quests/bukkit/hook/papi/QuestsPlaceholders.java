@@ -15,23 +15,34 @@ import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 
-import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheable {
 
+    private static final int MAX_CACHE_SIZE = 10000;
+
     private final BukkitQuestsPlugin plugin;
-    private final Map<String, Map<String, String>> cache = new HashMap<>();
-    private final Map<String, SimpleDateFormat> formats = new HashMap<>();
+    private final Map<CacheKey, CachedResult> cache = new ConcurrentHashMap<>();
+    private final Map<String, DateTimeFormatter> formats = new ConcurrentHashMap<>();
+    private BukkitTask cacheSweeper;
 
     public QuestsPlaceholders(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
     }
 
     @Override
-    public void clear() {
+    public synchronized void clear() {
+        if (cacheSweeper != null) {
+            cacheSweeper.cancel();
+            cacheSweeper = null;
+        }
         cache.clear();
         formats.clear();
     }
@@ -59,8 +70,10 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
     @Override
     public String onPlaceholderRequest(Player p, String params) {
         if (p == null || !p.isOnline()) return null;
-        if (cache.containsKey(p.getName()) && cache.get(p.getName()).containsKey(params))
-            return cache.get(p.getName()).get(params);
+        final CacheKey cacheKey = new CacheKey(p.getUniqueId(), params);
+        final CachedResult cachedResult = cache.get(cacheKey);
+        if (cachedResult != null && !cachedResult.isExpired(System.currentTimeMillis()))
+            return cachedResult.result();
 
         String[] args = params.split("_", 4);
         if (args.length < 1) return "Invalid Placeholder";
@@ -84,19 +97,30 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
                     break;
                 case "completed":
                 case "c":
-                    final List<Quest> listCompleted = qPlayer.getQuestProgressFile().getAllQuestsFromProgress(QuestProgressFile.QuestsProgressFilter.COMPLETED);
-                    result = (args.length == 1 ? String.valueOf(listCompleted.size()) : parseList(listCompleted, args[1], split));
+                    if (args.length == 1) {
+                        result = String.valueOf(qPlayer.getQuestProgressFile().getQuestCounts().getCount(QuestProgressFile.QuestsProgressFilter.COMPLETED));
+                    } else {
+                        final List<Quest> listCompleted = qPlayer.getQuestProgressFile().getAllQuestsFromProgress(QuestProgressFile.QuestsProgressFilter.COMPLETED);
+                        result = parseList(listCompleted, args[1], split);
+                    }
                     break;
                 case "completedbefore":
                 case "cb":
-                    final List<Quest> listCompletedB = qPlayer.getQuestProgressFile().getAllQuestsFromProgress(QuestProgressFile.QuestsProgressFilter.COMPLETED_BEFORE);
-                    result = (args.length == 1 ? String.valueOf(listCompletedB.size()) : parseList(listCompletedB, args[1], split));
+                    if (args.length == 1) {
+                        result = String.valueOf(qPlayer.getQuestProgressFile().getQuestCounts().getCount(QuestProgressFile.QuestsProgressFilter.COMPLETED_BEFORE));
+                    } else {
+                        final List<Quest> listCompletedB = qPlayer.getQuestProgressFile().getAllQuestsFromProgress(QuestProgressFile.QuestsProgressFilter.COMPLETED_BEFORE);
+                        result = parseList(listCompletedB, args[1], split);
+                    }
                     break;
                 case "started":
                 case "s":
-                    //TODO cache started quests somewhere, or make a effective started method
-                    final List<Quest> listStarted = qPlayer.getEffectiveStartedQuests();
-                    result = (args.length == 1 ? String.valueOf(listStarted.size()) : parseList(listStarted, args[1], split));
+                    if (args.length == 1 && !plugin.getQuestsConfig().getBoolean("options.quest-autostart")) {
+                        result = String.valueOf(getEffectiveStartedCount(qPlayer));
+                    } else {
+                        final List<Quest> listStarted = qPlayer.getEffectiveStartedQuests();
+                        result = (args.length == 1 ? String.valueOf(listStarted.size()) : parseList(listStarted, args[1], split));
+                    }
                     break;
                 case "categories":
                     if (args.length == 1) {
@@ -277,29 +301,47 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
                     return args[0] + " is not a valid placeholder";
             }
         }
-        return (save ? cache(p.getName(), params, result) : result);
+        return (save ? cache(cacheKey, result) : result);
     }
 
-    private String cache(String player, String params, String result) {
-        if (!cache.containsKey(player) || !cache.get(player).containsKey(params)) {
-            final Map<String, String> map = new HashMap<>();
-            map.put(params, result);
-            cache.put(player, map);
-            Bukkit.getScheduler().runTaskLaterAsynchronously(plugin, () -> cache.get(player).remove(params), plugin.getConfig().getInt("options.placeholder-cache-time", 10) * 20L);
+    private String cache(CacheKey cacheKey, String result) {
+        final long cacheTime = plugin.getConfig().getInt("options.placeholder-cache-time", 10) * 1000L;
+        if (cache.size() >= MAX_CACHE_SIZE) {
+            removeExpired();
+            if (cache.size() >= MAX_CACHE_SIZE) return result;
         }
+        cache.put(cacheKey, new CachedResult(result, System.currentTimeMillis() + cacheTime));
+        startCacheSweeper(cacheTime);
         return result;
     }
 
+    private synchronized void startCacheSweeper(long cacheTime) {
+        if (cacheSweeper != null) return;
+        final long period = Math.max(20L, cacheTime / 50L);
+        cacheSweeper = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::removeExpired, period, period);
+    }
+
+    private void removeExpired() {
+        final long now = System.currentTimeMillis();
+        cache.values().removeIf(cachedResult -> cachedResult.isExpired(now));
+    }
+
     private String parseDate(String[] args, Long date) {
         final String format = (args[args.length - 1].equals(args[1]) ? "dd/MM/yyyy" : args[args.length - 1]);
-        SimpleDateFormat sdf;
-        if (formats.containsKey(format)) {
-            sdf = formats.get(format);
-        } else {
-            sdf = new SimpleDateFormat(format);
-            formats.put(format, sdf);
+        final DateTimeFormatter formatter = formats.computeIfAbsent(format, pattern -> DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault()));
+        return formatter.format(Instant.ofEpochMilli(date));
+    }
+
+    /**
+     * Counts the quests the player has effectively started from the counts kept by their progress file, so that
+     * only quests which are started automatically need to be tested.
+     */
+    private int getEffectiveStartedCount(QPlayer qPlayer) {
+        int started = qPlayer.getQuestProgressFile().getQuestCounts().getCount(QuestProgressFile.QuestsProgressFilter.STARTED);
+        for (Quest quest : plugin.getQuestManager().getAutoStartQuests()) {
+            if (qPlayer.hasStartedQuest(quest)) started++;
         }
-        return sdf.format(date);
+        return started;
     }
 
     private String parseList(List<Quest> list, String type, String separator) {
@@ -350,4 +392,12 @@ public class QuestsPlaceholders extends PlaceholderExpansion implements Cacheabl
         });
         return categoryQuests;
     }
+
+    private record CacheKey(UUID player, String params) { }
+
+    private record CachedResult(String result, long expiresAt) {
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
 }
@@ -1,11 +1,15 @@
 package com.leonardobishop.quests.bukkit.listener;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.bukkit.util.Messages;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.quest.Quest;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
 
@@ -17,7 +21,7 @@ public class PlayerJoinListener implements Listener {
         this.plugin = plugin;
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.LOWEST)
     public void onEvent(PlayerJoinEvent event) {
         if (plugin.getDescription().getVersion().contains("beta") && event.getPlayer().hasPermission("quests.admin")) {
             Messages.BETA_REMINDER.send(event.getPlayer());
@@ -32,27 +36,63 @@ public class PlayerJoinListener implements Listener {
         }
 
         final Player player = event.getPlayer();
-        plugin.getQuestsLogger().debug("PlayerJoinListener: " + player.getUniqueId() + " (" + player.getName() + ")");
-        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
-            if (!player.isOnline()) return;
-            plugin.getPlayerManager().loadPlayer(player.getUniqueId()).thenAccept(qPlayer -> {
-                if (qPlayer == null) return;
-                plugin.getScheduler().doSync(() -> {
-                    // run a full check to check for any missed quest completions
-                    plugin.getQuestCompleter().queueFullCheck(qPlayer.getQuestProgressFile());
-
-                    // track first quest
-                    if (plugin.getConfig().getBoolean("options.allow-quest-track") && plugin.getConfig().getBoolean("options.quest-autotrack")) {
-                        for (Quest quest : plugin.getQuestManager().getQuests().values()) {
-                            if (qPlayer.hasStartedQuest(quest)) {
-                                qPlayer.trackQuest(quest);
-                                break;
-                            }
-                        }
-                    }
-                });
-            });
-        }, plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0));
+        plugin.getQuestsLogger().debug(() -> "PlayerJoinListener: " + player.getUniqueId() + " (" + player.getName() + ")");
+
+        PlayerPrefetchListener.Prefetch prefetch = plugin.getPlayerPrefetchListener().takePrefetch(player.getUniqueId());
+        if (prefetch != null) {
+            // registered now if possible, so that the player is loaded for other listeners of this event
+            if (prefetch.future().isDone()) {
+                onProgressLoaded(player, prefetch.future().getNow(null), prefetch.startTime(), true);
+            } else {
+                prefetch.future().thenAccept(questProgressFile -> plugin.getScheduler().doSync(() -> {
+                    if (!player.isOnline()) return;
+                    onProgressLoaded(player, questProgressFile, prefetch.startTime(), false);
+                }));
+            }
+            return;
+        }
+
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> loadPlayer(player), plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0));
+    }
+
+    private void loadPlayer(Player player) {
+        if (!player.isOnline()) return;
+        long startTime = System.nanoTime();
+        plugin.getPlayerManager().loadPlayer(player.getUniqueId()).thenAccept(qPlayer -> {
+            if (qPlayer == null) return;
+            plugin.getScheduler().doSync(() -> onPlayerLoaded(qPlayer, startTime, false, false));
+        });
+    }
+
+    private void onProgressLoaded(Player player, QuestProgressFile questProgressFile, long startTime, boolean readyOnJoin) {
+        if (questProgressFile == null) {
+            // the load failed, so try again as if it was never started
+            loadPlayer(player);
+            return;
+        }
+
+        QPlayer qPlayer = plugin.getPlayerManager().registerPlayer(player.getUniqueId(), questProgressFile);
+        onPlayerLoaded(qPlayer, startTime, true, readyOnJoin);
+    }
+
+    private void onPlayerLoaded(QPlayer qPlayer, long startTime, boolean prefetched, boolean readyOnJoin) {
+        plugin.getPlayerPrefetchListener().getStatistics().recordReady(System.nanoTime() - startTime, prefetched, readyOnJoin);
+
+        // run a full check to check for any missed quest completions
+        plugin.getQuestCompleter().queueFullCheck(qPlayer.getQuestProgressFile());
+
+        // schedule the expiry of started quests, as none are scheduled while the player is offline
+        ((BukkitQuestCompleter) plugin.getQuestCompleter()).scheduleExpiries(qPlayer.getQuestProgressFile());
+
+        // track first quest
+        if (plugin.getConfig().getBoolean("options.allow-quest-track") && plugin.getConfig().getBoolean("options.quest-autotrack")) {
+            for (Quest quest : plugin.getQuestManager().getQuests().values()) {
+                if (qPlayer.hasStartedQuest(quest)) {
+                    qPlayer.trackQuest(quest);
+                    break;
+                }
+            }
+        }
     }
 
 }
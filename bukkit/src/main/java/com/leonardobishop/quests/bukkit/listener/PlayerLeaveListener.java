@@ -1,6 +1,7 @@
 package com.leonardobishop.quests.bukkit.listener;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.questcompleter.BukkitQuestCompleter;
 import com.leonardobishop.quests.common.player.QPlayer;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -20,7 +21,8 @@ public class PlayerLeaveListener implements Listener {
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(event.getPlayer().getUniqueId());
         if (qPlayer == null) return;
         Player player = event.getPlayer();
-        plugin.getQuestsLogger().debug("PlayerLeaveListener: " + player.getUniqueId() + " (" + player.getName() + ")");
+        plugin.getQuestsLogger().debug(() -> "PlayerLeaveListener: " + player.getUniqueId() + " (" + player.getName() + ")");
+        ((BukkitQuestCompleter) plugin.getQuestCompleter()).cancelExpiries(qPlayer.getPlayerUUID());
         plugin.getPlayerManager().removePlayer(qPlayer.getPlayerUUID());
     }
 
@@ -0,0 +1,160 @@
+package com.leonardobishop.quests.bukkit.listener;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts loading the progress of players while they are logging in, so that it is usually ready by the time
+ * they join. The login waits a bounded time for the load to complete, and the loaded progress is kept until
+ * {@link PlayerJoinListener} takes it. Progress loaded for a login which is then denied is discarded.
+ * <p>
+ * Progress is not loaded early if loading is delayed to allow another server to save the player first. If the
+ * player is still loaded or retained from their last session, that progress is used rather than loading it again.
+ */
+public class PlayerPrefetchListener implements Listener {
+
+    // prefetches for players who never join, such as if they disconnect while logging in, are discarded after this
+    private static final long PREFETCH_EXPIRY = TimeUnit.MINUTES.toNanos(1);
+
+    private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, Prefetch> prefetches = new ConcurrentHashMap<>();
+    private final Statistics statistics = new Statistics();
+
+    public PlayerPrefetchListener(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        if (plugin.getQuestsConfig().getInt("options.storage.synchronisation.delay-loading", 0) > 0) return;
+
+        UUID uuid = event.getUniqueId();
+        long time = System.nanoTime();
+        prefetches.values().removeIf(prefetch -> time - prefetch.startTime() > PREFETCH_EXPIRY);
+
+        CompletableFuture<QuestProgressFile> future = plugin.getPlayerManager().loadProgressFile(uuid);
+        prefetches.put(uuid, new Prefetch(future, time));
+
+        long timeout = plugin.getQuestsConfig().getInt("options.storage.synchronisation.prefetch-timeout", 1000);
+        try {
+            future.get(Math.max(0, timeout), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            plugin.getQuestsLogger().debug(() -> "Player " + uuid + " was not loaded within " + timeout + "ms of logging in.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ignored) {
+            // handled when the player joins
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() == PlayerLoginEvent.Result.ALLOWED) return;
+
+        if (prefetches.remove(event.getPlayer().getUniqueId()) != null) {
+            plugin.getQuestsLogger().debug(() -> "Discarding progress loaded for " + event.getPlayer().getUniqueId() + " as their login was denied.");
+            statistics.discarded.increment();
+        }
+    }
+
+    /**
+     * Take the progress loaded for a player while they were logging in.
+     *
+     * @param uuid the uuid of the player
+     * @return the prefetch, or null if the player's progress was not loaded while logging in
+     */
+    public @Nullable Prefetch takePrefetch(@NotNull UUID uuid) {
+        return prefetches.remove(uuid);
+    }
+
+    public int getPendingCount() {
+        return prefetches.size();
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @param future the progress file being loaded, which completes with null if there was an error
+     * @param startTime the value of {@link System#nanoTime()} when loading started
+     */
+    public record Prefetch(CompletableFuture<QuestProgressFile> future, long startTime) { }
+
+    /**
+     * Counters describing how long players wait for their progress to be loaded. The time to ready is measured
+     * from when loading started, or when the player joined if it was not started while they were logging in,
+     * until the player is registered.
+     */
+    public static class Statistics {
+
+        private final LongAdder readyOnJoin = new LongAdder();
+        private final LongAdder readyAfterJoin = new LongAdder();
+        private final LongAdder loadedOnJoin = new LongAdder();
+        private final LongAdder discarded = new LongAdder();
+        private final LongAdder totalTimeToReady = new LongAdder();
+        private final AtomicLong maxTimeToReady = new AtomicLong();
+
+        /**
+         * Record a player being registered.
+         *
+         * @param timeToReady the time in nanoseconds from when loading started
+         * @param prefetched whether loading was started while the player was logging in
+         * @param readyOnJoin whether loading had completed by the time the player joined
+         */
+        public void recordReady(long timeToReady, boolean prefetched, boolean readyOnJoin) {
+            if (!prefetched) {
+                loadedOnJoin.increment();
+            } else if (readyOnJoin) {
+                this.readyOnJoin.increment();
+            } else {
+                readyAfterJoin.increment();
+            }
+            totalTimeToReady.add(timeToReady);
+            maxTimeToReady.accumulateAndGet(timeToReady, Math::max);
+        }
+
+        public long getReadyOnJoin() {
+            return readyOnJoin.sum();
+        }
+
+        public long getReadyAfterJoin() {
+            return readyAfterJoin.sum();
+        }
+
+        public long getLoadedOnJoin() {
+            return loadedOnJoin.sum();
+        }
+
+        public long getDiscarded() {
+            return discarded.sum();
+        }
+
+        public long getAverageTimeToReadyMillis() {
+            long ready = readyOnJoin.sum() + readyAfterJoin.sum() + loadedOnJoin.sum();
+            return ready == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalTimeToReady.sum() / ready);
+        }
+
+        public long getMaxTimeToReadyMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxTimeToReady.get());
+        }
+    }
+}
@@ -76,13 +76,8 @@ public class QuestMenuElement extends MenuElement {
         ItemStack display;
         if (status == QuestStartResult.QUEST_LOCKED) {
             List<String> quests = new ArrayList<>();
-            for (String requirement : quest.getRequirements()) {
-                Quest requirementQuest = plugin.getQuestManager().getQuestById(requirement);
-                if (requirementQuest == null) continue;
-                if (!owner.getQuestProgressFile().hasQuestProgress(requirementQuest) ||
-                        !owner.getQuestProgressFile().getQuestProgress(requirementQuest).isCompletedBefore()) {
-                    quests.add(Chat.legacyStrip(plugin.getQItemStackRegistry().getQuestItemStack(requirementQuest).getName()));
-                }
+            for (Quest requirementQuest : owner.getQuestProgressFile().getUnmetRequirements(quest)) {
+                quests.add(Chat.legacyStrip(plugin.getQItemStackRegistry().getQuestItemStack(requirementQuest).getName()));
             }
             placeholders.put("{quest}", Chat.legacyStrip(qItemStack.getName()));
             placeholders.put("{questid}", quest.getId());
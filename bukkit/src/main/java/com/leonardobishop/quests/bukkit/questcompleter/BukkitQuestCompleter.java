@@ -14,108 +14,266 @@ import org.bukkit.entity.Player;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 //TODO move complete effects here ?
 public class BukkitQuestCompleter implements QuestCompleter, Runnable {
 
-    private final LinkedList<QuestProgress> completionQueue = new LinkedList<>();
-    private final LinkedList<QuestProgressFile> fullCheckQueue = new LinkedList<>();
-    private final LinkedList<UUID> expiredCheckQueue = new LinkedList<>();
+    // queues only hold keys; the pending maps de-duplicate entries so that repeated
+    // completions of the same quest (or full checks of the same player) are coalesced
+    private final Queue<CompletionKey> completionQueue = new ConcurrentLinkedQueue<>();
+    private final Map<CompletionKey, PendingEntry<QuestProgress>> pendingCompletions = new ConcurrentHashMap<>();
+    private final Queue<UUID> fullCheckQueue = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, PendingEntry<QuestProgressFile>> pendingFullChecks = new ConcurrentHashMap<>();
+    // deadlines are not removed from the queue when they are rescheduled or cancelled, instead they are skipped
+    // if they no longer match the deadline in the map when they are reached
+    private final PriorityQueue<ScheduledExpiry> expiryQueue = new PriorityQueue<>(Comparator.comparingLong(ScheduledExpiry::deadline));
+    private final Map<UUID, Map<String, Long>> expiryDeadlines = new HashMap<>();
+    private int scheduledExpiries;
     private final BukkitQuestsPlugin plugin;
-    private int expiredQuestsCheckCountdown;
+    private final Statistics statistics = new Statistics();
+    private volatile long budgetNanos = TimeUnit.MICROSECONDS.toNanos(500);
 
     public BukkitQuestCompleter(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
     }
 
+    /**
+     * Set the maximum amount of time the completer may spend draining its queues each time it is run.
+     * At least one entry from each queue is always processed, regardless of the budget.
+     *
+     * @param budgetMicros the budget in microseconds
+     */
+    public void setBudget(long budgetMicros) {
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, budgetMicros));
+    }
+
+    public long getBudget() {
+        return TimeUnit.NANOSECONDS.toMicros(budgetNanos);
+    }
+
     @Override
     public void run() {
-        this.processExpiredCheckQueue();
-        this.processCompletionQueue();
-        this.processFullCheckQueue();
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        long now = System.currentTimeMillis();
+        while (this.processExpiryQueue(now) && System.nanoTime() - deadline < 0);
+        while (this.processCompletionQueue() && System.nanoTime() - deadline < 0);
+        while (this.processFullCheckQueue() && System.nanoTime() - deadline < 0);
+
+        statistics.recordRun(System.nanoTime() - start);
     }
 
-    private void checkExpiredQuests(QPlayer qPlayer) {
-        QuestProgressFile questProgressFile = qPlayer.getQuestProgressFile();
-        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
-            if (!questProgress.isStarted()) {
-                continue;
+    /**
+     * @return whether a deadline was taken from the queue
+     */
+    private boolean processExpiryQueue(long now) {
+        ScheduledExpiry expiry;
+        synchronized (expiryQueue) {
+            expiry = expiryQueue.peek();
+            if (expiry == null || expiry.deadline() > now) return false;
+
+            expiryQueue.poll();
+            Map<String, Long> deadlines = expiryDeadlines.get(expiry.player());
+            Long deadline = deadlines == null ? null : deadlines.get(expiry.questId());
+            if (deadline == null || deadline != expiry.deadline()) return true;
+
+            removeExpiry(deadlines, expiry.player(), expiry.questId());
+        }
+
+        // players who are not online are rescheduled when they are next loaded
+        Player player = Bukkit.getPlayer(expiry.player());
+        if (player == null || !player.isOnline()) return true;
+
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
+        if (qPlayer == null) return true;
+
+        Quest quest = plugin.getQuestManager().getQuestById(expiry.questId());
+        if (quest == null) return true;
+
+        if (qPlayer.getQuestProgressFile().getTimeRemainingFor(quest) == 0) {
+            plugin.getQuestsLogger().debug(() -> "Expiring quest " + quest.getId() + " for player " + qPlayer.getPlayerUUID());
+            qPlayer.expireQuest(quest);
+            statistics.expired.increment();
+        }
+        return true;
+    }
+
+    private void removeExpiry(Map<String, Long> deadlines, UUID player, String questId) {
+        if (deadlines.remove(questId) != null) {
+            scheduledExpiries--;
+        }
+        if (deadlines.isEmpty()) {
+            expiryDeadlines.remove(player);
+        }
+    }
+
+    @Override
+    public void scheduleExpiry(@NotNull QuestProgress questProgress) {
+        Objects.requireNonNull(questProgress, "questProgress cannot be null");
+
+        Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        UUID player = questProgress.getPlayer();
+        synchronized (expiryQueue) {
+            if (quest == null || !quest.isTimeLimitEnabled() || !questProgress.isStarted()) {
+                Map<String, Long> deadlines = expiryDeadlines.get(player);
+                if (deadlines != null) {
+                    removeExpiry(deadlines, player, questProgress.getQuestId());
+                }
+                return;
             }
 
-            Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
-            if (quest == null) {
-                continue;
+            // only the progress of online players is scheduled, and it is scheduled again when they join
+            if (!isLive(questProgress)) return;
+
+            long deadline = questProgress.getStartedDate() + TimeUnit.MINUTES.toMillis(quest.getTimeLimit());
+            Long previous = expiryDeadlines.computeIfAbsent(player, k -> new HashMap<>()).put(questProgress.getQuestId(), deadline);
+            if (previous != null && previous == deadline) return;
+            if (previous == null) {
+                scheduledExpiries++;
             }
 
-            if (questProgressFile.getTimeRemainingFor(quest) == 0) {
-                qPlayer.expireQuest(quest);
+            expiryQueue.add(new ScheduledExpiry(player, questProgress.getQuestId(), deadline));
+            // rebuild the queue if it is mostly deadlines which have been rescheduled or cancelled
+            if (expiryQueue.size() > scheduledExpiries * 2 + 64) {
+                expiryQueue.clear();
+                for (Map.Entry<UUID, Map<String, Long>> playerEntry : expiryDeadlines.entrySet()) {
+                    for (Map.Entry<String, Long> entry : playerEntry.getValue().entrySet()) {
+                        expiryQueue.add(new ScheduledExpiry(playerEntry.getKey(), entry.getKey(), entry.getValue()));
+                    }
+                }
             }
         }
     }
 
-    private void processExpiredCheckQueue() {
-        UUID who = expiredCheckQueue.poll();
-        if (who == null) {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                expiredCheckQueue.add(player.getUniqueId());
+    // whether the progress belongs to the progress file of a registered player who is online, rather than a
+    // progress file which is being loaded, migrated or changed while the player is offline
+    private boolean isLive(QuestProgress questProgress) {
+        QuestProgressFile questProgressFile = questProgress.getLinkedQuestProgressFile();
+        if (questProgressFile == null) return false;
+
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(questProgress.getPlayer());
+        return qPlayer != null && qPlayer.getQuestProgressFile() == questProgressFile && Bukkit.getPlayer(questProgress.getPlayer()) != null;
+    }
+
+    /**
+     * Schedule the expiry of all started quests in a progress file.
+     *
+     * @param questProgressFile the questprogressfile to schedule
+     */
+    public void scheduleExpiries(@NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.isStarted()) {
+                scheduleExpiry(questProgress);
             }
-            return;
         }
+    }
 
-        Player player = Bukkit.getPlayer(who);
-        if (player == null || !player.isOnline()) return;
-
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-        if (qPlayer == null) return;
+    /**
+     * Cancel the scheduled expiry of all quests for a player, such as when they are unloaded.
+     *
+     * @param player the uuid of the player
+     */
+    public void cancelExpiries(@NotNull UUID player) {
+        Objects.requireNonNull(player, "player cannot be null");
+
+        synchronized (expiryQueue) {
+            Map<String, Long> deadlines = expiryDeadlines.remove(player);
+            if (deadlines != null) {
+                scheduledExpiries -= deadlines.size();
+            }
+        }
+    }
 
-        checkExpiredQuests(qPlayer);
+    /**
+     * Cancel all scheduled expiries, such as before quests are reloaded and time limits may change.
+     */
+    public void cancelAllExpiries() {
+        synchronized (expiryQueue) {
+            expiryDeadlines.clear();
+            expiryQueue.clear();
+            scheduledExpiries = 0;
+        }
     }
 
-    private void processCompletionQueue() {
-        QuestProgress questProgress = completionQueue.poll();
-        if (questProgress == null) return;
+    /**
+     * @return whether an entry was taken from the queue
+     */
+    private boolean processCompletionQueue() {
+        CompletionKey key = completionQueue.poll();
+        if (key == null) return false;
+
+        // removed before processing, so that completions queued while processing are not lost
+        PendingEntry<QuestProgress> entry = pendingCompletions.remove(key);
+        if (entry == null) return true;
+        statistics.recordDrain(System.nanoTime() - entry.queuedAt());
 
+        QuestProgress questProgress = entry.value();
         Player player = Bukkit.getPlayer(questProgress.getPlayer());
         if (player != null && player.isOnline()) {
             QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-            if (qPlayer == null) return;
+            if (qPlayer == null) return true;
 
-            plugin.getQuestsLogger().debug("Processing player (singular: " + questProgress.getQuestId() + ") " + qPlayer.getPlayerUUID());
-
-            checkExpiredQuests(qPlayer);
+            plugin.getQuestsLogger().debug(() -> "Processing player (singular: " + questProgress.getQuestId() + ") " + qPlayer.getPlayerUUID());
 
             Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+            if (quest == null) return true;
+
+            if (!qPlayer.hasStartedQuest(quest)) return true;
 
-            if (!qPlayer.hasStartedQuest(quest)) return;
+            // the deadline may have passed since the expiry queue was last processed
+            if (qPlayer.getQuestProgressFile().getTimeRemainingFor(quest) == 0) {
+                qPlayer.expireQuest(quest);
+                return true;
+            }
 
             if (checkComplete(quest, questProgress)) {
                 qPlayer.completeQuest(quest);
             }
         }
+        return true;
     }
 
-    private void processFullCheckQueue() {
-        QuestProgressFile questProgressFile = fullCheckQueue.poll();
-        if (questProgressFile == null) return;
+    /**
+     * @return whether an entry was taken from the queue
+     */
+    private boolean processFullCheckQueue() {
+        UUID key = fullCheckQueue.poll();
+        if (key == null) return false;
+
+        PendingEntry<QuestProgressFile> entry = pendingFullChecks.remove(key);
+        if (entry == null) return true;
+        statistics.recordDrain(System.nanoTime() - entry.queuedAt());
 
+        QuestProgressFile questProgressFile = entry.value();
         Player player = Bukkit.getPlayer(questProgressFile.getPlayerUUID());
         if (player != null && player.isOnline()) {
             QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-            if (qPlayer == null) return;
-            plugin.getQuestsLogger().debug("Processing player (full check) " + qPlayer.getPlayerUUID());
-
-            checkExpiredQuests(qPlayer);
+            if (qPlayer == null) return true;
+            plugin.getQuestsLogger().debug(() -> "Processing player (full check) " + qPlayer.getPlayerUUID());
 
             for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
                 Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
                 if (quest == null) continue;
                 if (!qPlayer.hasStartedQuest(quest)) continue;
+                if (questProgressFile.getTimeRemainingFor(quest) == 0) {
+                    qPlayer.expireQuest(quest);
+                    continue;
+                }
 
                 if (checkComplete(quest, questProgress)) {
                     qPlayer.completeQuest(quest);
                 }
             }
         }
+        return true;
     }
 
     private boolean checkComplete(Quest quest, QuestProgress questProgress) {
@@ -135,25 +293,127 @@ public class BukkitQuestCompleter implements QuestCompleter, Runnable {
     public void queueSingular(@NotNull QuestProgress questProgress) {
         Objects.requireNonNull(questProgress, "questProgress cannot be null");
 
-        completionQueue.add(questProgress);
+        CompletionKey key = new CompletionKey(questProgress.getPlayer(), questProgress.getQuestId());
+        if (pendingCompletions.putIfAbsent(key, new PendingEntry<>(questProgress, System.nanoTime())) == null) {
+            completionQueue.add(key);
+            statistics.queued.increment();
+        } else {
+            statistics.coalesced.increment();
+        }
     }
 
     @Override
     public void queueFullCheck(@NotNull QuestProgressFile questProgressFile) {
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        fullCheckQueue.add(questProgressFile);
+        UUID key = questProgressFile.getPlayerUUID();
+        if (pendingFullChecks.putIfAbsent(key, new PendingEntry<>(questProgressFile, System.nanoTime())) == null) {
+            fullCheckQueue.add(key);
+            statistics.queued.increment();
+        } else {
+            statistics.coalesced.increment();
+        }
     }
 
     public List<QuestProgress> getCompletionQueue() {
-        return Collections.unmodifiableList(completionQueue);
+        List<QuestProgress> list = new ArrayList<>();
+        for (PendingEntry<QuestProgress> entry : pendingCompletions.values()) {
+            list.add(entry.value());
+        }
+        return Collections.unmodifiableList(list);
     }
 
     public List<QuestProgressFile> getFullCheckQueue() {
-        return Collections.unmodifiableList(fullCheckQueue);
+        List<QuestProgressFile> list = new ArrayList<>();
+        for (PendingEntry<QuestProgressFile> entry : pendingFullChecks.values()) {
+            list.add(entry.value());
+        }
+        return Collections.unmodifiableList(list);
     }
 
-    public List<UUID> getExpiredCheckQueue() {
-        return Collections.unmodifiableList(expiredCheckQueue);
+    /**
+     * @return immutable copy of the scheduled expiries, in the order they are due
+     */
+    public List<ScheduledExpiry> getScheduledExpiries() {
+        List<ScheduledExpiry> list = new ArrayList<>();
+        synchronized (expiryQueue) {
+            for (Map.Entry<UUID, Map<String, Long>> playerEntry : expiryDeadlines.entrySet()) {
+                for (Map.Entry<String, Long> entry : playerEntry.getValue().entrySet()) {
+                    list.add(new ScheduledExpiry(playerEntry.getKey(), entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        list.sort(Comparator.comparingLong(ScheduledExpiry::deadline));
+        return Collections.unmodifiableList(list);
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    private record CompletionKey(UUID player, String questId) { }
+
+    private record PendingEntry<T>(T value, long queuedAt) { }
+
+    public record ScheduledExpiry(UUID player, String questId, long deadline) { }
+
+    /**
+     * Counters describing the throughput and latency of the completion queues.
+     * Latencies are measured from the time an entry is first queued until it is taken off the queue.
+     */
+    public static class Statistics {
+
+        private final LongAdder queued = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder drained = new LongAdder();
+        private final LongAdder expired = new LongAdder();
+        private final LongAdder totalDrainLatency = new LongAdder();
+        private final AtomicLong maxDrainLatency = new AtomicLong();
+        private volatile long lastRunTime;
+        private final AtomicLong maxRunTime = new AtomicLong();
+
+        private void recordDrain(long latency) {
+            drained.increment();
+            totalDrainLatency.add(latency);
+            maxDrainLatency.accumulateAndGet(latency, Math::max);
+        }
+
+        private void recordRun(long time) {
+            lastRunTime = time;
+            maxRunTime.accumulateAndGet(time, Math::max);
+        }
+
+        public long getQueued() {
+            return queued.sum();
+        }
+
+        public long getCoalesced() {
+            return coalesced.sum();
+        }
+
+        public long getDrained() {
+            return drained.sum();
+        }
+
+        public long getExpired() {
+            return expired.sum();
+        }
+
+        public long getAverageDrainLatencyMicros() {
+            long drained = this.drained.sum();
+            return drained == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalDrainLatency.sum() / drained);
+        }
+
+        public long getMaxDrainLatencyMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxDrainLatency.get());
+        }
+
+        public long getLastRunTimeMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(lastRunTime);
+        }
+
+        public long getMaxRunTimeMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(maxRunTime.get());
+        }
     }
 }
@@ -12,16 +12,13 @@ import com.leonardobishop.quests.common.enums.QuestStartResult;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Category;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public class NormalQuestController implements QuestController {
@@ -29,17 +26,12 @@ public class NormalQuestController implements QuestController {
     private final BukkitQuestsPlugin plugin;
     private final BukkitQuestsConfig config;
 
-    private final List<Quest> autoStartQuestCache;
+    private final QuestStartResultCache startResultCache;
 
     public NormalQuestController(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
         this.config = (BukkitQuestsConfig) plugin.getQuestsConfig();
-
-        List<Quest> autoStartQuestCache = new ArrayList<>();
-        for (Quest quest : plugin.getQuestManager().getQuests().values()) {
-            if (quest.isAutoStartEnabled()) autoStartQuestCache.add(quest);
-        }
-        this.autoStartQuestCache = autoStartQuestCache;
+        this.startResultCache = plugin.getQuestStartResultCache();
     }
 
     @Override
@@ -139,6 +131,21 @@ public class NormalQuestController implements QuestController {
 
     @Override
     public QuestStartResult canPlayerStartQuest(QPlayer qPlayer, Quest quest) {
+        QuestStartResult cached = startResultCache.get(qPlayer, quest);
+        if (cached != null) {
+            return cached;
+        }
+
+        long statusVersion = qPlayer.getQuestProgressFile().getStatusVersion();
+        QuestStartResult result = computeQuestStartResult(qPlayer, quest);
+        long validUntil = result == QuestStartResult.QUEST_COOLDOWN
+                ? System.currentTimeMillis() + qPlayer.getQuestProgressFile().getCooldownFor(quest)
+                : Long.MAX_VALUE;
+        startResultCache.put(qPlayer, quest, result, statusVersion, validUntil);
+        return result;
+    }
+
+    private QuestStartResult computeQuestStartResult(QPlayer qPlayer, Quest quest) {
         Player p = Bukkit.getPlayer(qPlayer.getPlayerUUID());
         QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
         if (!quest.isRepeatable() && questProgress.isCompletedBefore()) {
@@ -160,8 +167,8 @@ public class NormalQuestController implements QuestController {
                 return QuestStartResult.QUEST_NO_PERMISSION;
             }
         }
-        if (quest.getCategoryId() != null && plugin.getQuestManager().getCategoryById(quest.getCategoryId()) != null && plugin.getQuestManager()
-                .getCategoryById(quest.getCategoryId()).isPermissionRequired()) {
+        Category category = quest.getCategoryId() == null ? null : plugin.getQuestManager().getCategoryById(quest.getCategoryId());
+        if (category != null && category.isPermissionRequired()) {
             if (p != null) {
                 if (!p.hasPermission("quests.category." + quest.getCategoryId())) {
                     return QuestStartResult.NO_PERMISSION_FOR_CATEGORY;
@@ -173,17 +180,8 @@ public class NormalQuestController implements QuestController {
         if (questProgress.isStarted() || quest.isAutoStartEnabled() || config.getBoolean("options.quest-autostart")) {
             return QuestStartResult.QUEST_ALREADY_STARTED;
         }
-        if (!config.getBoolean("options.quest-autostart")) {
-            Set<Quest> startedQuests = getStartedQuestsForPlayer(qPlayer);
-            int questLimitCount = 0;
-            for (Quest q : startedQuests) {
-                if (q.doesCountTowardsLimit()) {
-                    questLimitCount++;
-                }
-            }
-            if (questLimitCount >= config.getQuestLimit(p)) {
-                return QuestStartResult.QUEST_LIMIT_REACHED;
-            }
+        if (getQuestLimitCount(qPlayer) >= config.getQuestLimit(p)) {
+            return QuestStartResult.QUEST_LIMIT_REACHED;
         }
         return QuestStartResult.QUEST_SUCCESS;
     }
@@ -341,25 +339,24 @@ public class NormalQuestController implements QuestController {
         }
     }
 
-    private Set<Quest> getStartedQuestsForPlayer(QPlayer qPlayer) {
-        Set<Quest> startedQuests = new HashSet<>();
-        if (config.getBoolean("options.quest-autostart")) {
-            for (Quest quest : plugin.getQuestManager().getQuests().values()) {
-                QuestStartResult response = canPlayerStartQuest(qPlayer, quest);
-                if (response == QuestStartResult.QUEST_SUCCESS || response == QuestStartResult.QUEST_ALREADY_STARTED) {
-                    startedQuests.add(quest);
-                }
+    /**
+     * Count the quests which count towards the quest limit that the player has started, including quests started
+     * automatically. This is only used when quest autostart is disabled, as there is no limit otherwise.
+     */
+    private int getQuestLimitCount(QPlayer qPlayer) {
+        int count = 0;
+        for (Quest quest : qPlayer.getQuestProgressFile().getStartedQuests()) {
+            if (quest.doesCountTowardsLimit()) {
+                count++;
             }
-        } else {
-            startedQuests.addAll(qPlayer.getQuestProgressFile().getStartedQuests());
-            for (Quest quest : autoStartQuestCache) {
-                QuestStartResult response = canPlayerStartQuest(qPlayer, quest);
-                if (response == QuestStartResult.QUEST_SUCCESS || response == QuestStartResult.QUEST_ALREADY_STARTED) {
-                    startedQuests.add(quest);
-                }
+        }
+        for (Quest quest : plugin.getQuestManager().getAutoStartQuests()) {
+            if (quest.doesCountTowardsLimit() && !qPlayer.getQuestProgressFile().hasQuestStarted(quest)
+                    && canPlayerStartQuest(qPlayer, quest).hasPlayerStartedQuest()) {
+                count++;
             }
         }
-        return startedQuests;
+        return count;
     }
 
     private void trackNextQuest(QPlayer qPlayer, Quest previousQuest) {
@@ -0,0 +1,137 @@
+package com.leonardobishop.quests.bukkit.questcontroller;
+
+import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the result of {@link NormalQuestController#canPlayerStartQuest(QPlayer, Quest)} for each player, as
+ * it is checked for every quest whenever quests started automatically are tested.
+ * <p>
+ * The results for a player are discarded when:
+ * <ul>
+ *     <li>any quest in their progress file is started, completed or has its completion date changed
+ *     (see {@link com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile#getStatusVersion()}),
+ *     as the quest limit and requirements depend on other quests</li>
+ *     <li>the cooldown of a quest which was on cooldown ends</li>
+ *     <li>the results are older than the maximum age, as there is no event for permission changes</li>
+ *     <li>the player joins, quits or changes world, as permissions are commonly recalculated then</li>
+ *     <li>quests or the configuration are reloaded</li>
+ * </ul>
+ */
+public class QuestStartResultCache implements Listener {
+
+    private final Map<UUID, PlayerResults> players = new ConcurrentHashMap<>();
+    private long maxAge;
+
+    /**
+     * @param maxAge the time in milliseconds results are kept for, or 0 to not cache results
+     */
+    public QuestStartResultCache(long maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Get the cached result for a quest, if it is still valid.
+     *
+     * @param qPlayer the player
+     * @param quest the quest
+     * @return the result, or null if there is none
+     */
+    public @Nullable QuestStartResult get(@NotNull QPlayer qPlayer, @NotNull Quest quest) {
+        PlayerResults playerResults = players.get(qPlayer.getPlayerUUID());
+        if (playerResults == null) {
+            return null;
+        }
+        return playerResults.get(quest, qPlayer.getQuestProgressFile().getStatusVersion(), System.currentTimeMillis());
+    }
+
+    /**
+     * Cache a result for a quest. The result is not cached if the status of the player's quests changed while it
+     * was being computed.
+     *
+     * @param qPlayer the player
+     * @param quest the quest
+     * @param result the result
+     * @param statusVersion the status version of the player's progress file before the result was computed
+     * @param validUntil the time in milliseconds the result may change at, such as the end of a cooldown
+     */
+    public void put(@NotNull QPlayer qPlayer, @NotNull Quest quest, @NotNull QuestStartResult result, long statusVersion, long validUntil) {
+        if (maxAge <= 0 || qPlayer.getQuestProgressFile().getStatusVersion() != statusVersion) {
+            return;
+        }
+        players.computeIfAbsent(qPlayer.getPlayerUUID(), k -> new PlayerResults())
+                .put(quest, result, statusVersion, System.currentTimeMillis(), maxAge, validUntil);
+    }
+
+    public void invalidate(@NotNull UUID uuid) {
+        players.remove(uuid);
+    }
+
+    public void clear() {
+        players.clear();
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    public void setMaxAge(long maxAge) {
+        this.maxAge = maxAge;
+        players.clear();
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        invalidate(event.getPlayer().getUniqueId());
+    }
+
+    private static final class PlayerResults {
+
+        private final Map<Quest, QuestStartResult> results = new HashMap<>();
+        private long statusVersion;
+        private long expiresAt;
+
+        private synchronized @Nullable QuestStartResult get(Quest quest, long statusVersion, long time) {
+            if (this.statusVersion != statusVersion || time >= expiresAt) {
+                results.clear();
+                return null;
+            }
+            return results.get(quest);
+        }
+
+        private synchronized void put(Quest quest, QuestStartResult result, long statusVersion, long time, long maxAge, long validUntil) {
+            if (this.statusVersion != statusVersion || time >= expiresAt) {
+                results.clear();
+                this.statusVersion = statusVersion;
+                this.expiresAt = time + maxAge;
+            }
+            // results for other quests may depend on this one, so all are discarded once it may change
+            expiresAt = Math.min(expiresAt, validUntil);
+            results.put(quest, result);
+        }
+    }
+}
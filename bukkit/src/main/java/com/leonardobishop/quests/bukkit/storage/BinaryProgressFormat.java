@@ -0,0 +1,297 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes the binary quest progress format used by {@link BinaryStorageProvider}.
+ * <p>
+ * A file consists of a magic number and format version, followed by a table of every quest and task id
+ * used in the file. Quest and task records refer to ids by their index in this table. Integers are written as
+ * variable length integers (signed values are zigzag encoded), and task progress is written with a type tag
+ * so that it is read back as the same primitive type. Each quest record is prefixed by its length, so quests
+ * which are not wanted can be skipped without being decoded.
+ */
+final class BinaryProgressFormat {
+
+    static final int MAGIC = 0x51505246; // QPRF
+    static final int VERSION = 1;
+
+    private static final int QUEST_STARTED = 1;
+    private static final int QUEST_COMPLETED = 1 << 1;
+    private static final int QUEST_COMPLETED_BEFORE = 1 << 2;
+
+    private static final byte PROGRESS_NULL = 0;
+    private static final byte PROGRESS_INT = 1;
+    private static final byte PROGRESS_LONG = 2;
+    private static final byte PROGRESS_FLOAT = 3;
+    private static final byte PROGRESS_DOUBLE = 4;
+
+    private BinaryProgressFormat() { }
+
+    record QuestRecord(String questId, boolean started, long startedDate, boolean completed, boolean completedBefore,
+                       long completionDate, Map<String, TaskRecord> tasks) { }
+
+    record TaskRecord(String taskId, boolean completed, Object progress) { }
+
+    /**
+     * Checks whether a progress value can be written by this format.
+     *
+     * @param progress the progress value
+     * @return true if the value is null or a supported number type
+     */
+    static boolean isSupported(Object progress) {
+        return progress == null || progress instanceof Integer || progress instanceof Long
+                || progress instanceof Float || progress instanceof Double;
+    }
+
+    /**
+     * Reads a progress file.
+     *
+     * @param path the path to read
+     * @param questFilter quests which are not accepted are skipped without being decoded
+     * @param taskFilter tasks which are not accepted are omitted
+     * @return the quest records, in the order they were written
+     * @throws IOException if the file could not be read or is malformed
+     */
+    static Map<String, QuestRecord> read(Path path, Predicate<String> questFilter, BiPredicate<String, String> taskFilter) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("file is too large");
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("not a quest progress file");
+            }
+            int version = readVarInt(buffer);
+            if (version != VERSION) {
+                throw new IOException("unsupported format version " + version);
+            }
+
+            String[] ids = new String[readVarInt(buffer)];
+            for (int i = 0; i < ids.length; i++) {
+                byte[] bytes = new byte[readVarInt(buffer)];
+                buffer.get(bytes);
+                ids[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int questCount = readVarInt(buffer);
+            Map<String, QuestRecord> quests = new LinkedHashMap<>(questCount * 2);
+            for (int i = 0; i < questCount; i++) {
+                int length = readVarInt(buffer);
+                int end = buffer.position() + length;
+                String questId = ids[readVarInt(buffer)];
+                if (!questFilter.test(questId)) {
+                    buffer.position(end);
+                    continue;
+                }
+
+                int flags = buffer.get();
+                long startedDate = readVarLong(buffer);
+                long completionDate = readVarLong(buffer);
+                int taskCount = readVarInt(buffer);
+                Map<String, TaskRecord> tasks = new LinkedHashMap<>(taskCount * 2);
+                for (int j = 0; j < taskCount; j++) {
+                    String taskId = ids[readVarInt(buffer)];
+                    boolean completed = buffer.get() != 0;
+                    Object progress = readProgress(buffer);
+                    if (taskFilter.test(questId, taskId)) {
+                        tasks.put(taskId, new TaskRecord(taskId, completed, progress));
+                    }
+                }
+                buffer.position(end);
+
+                quests.put(questId, new QuestRecord(questId, (flags & QUEST_STARTED) != 0, startedDate,
+                        (flags & QUEST_COMPLETED) != 0, (flags & QUEST_COMPLETED_BEFORE) != 0, completionDate, tasks));
+            }
+            return quests;
+        } catch (RuntimeException e) {
+            // buffer underflows and bad indices from truncated or corrupt files
+            throw new IOException("malformed quest progress file", e);
+        }
+    }
+
+    /**
+     * Writes a progress file atomically, by writing to a temporary file and moving it over the target.
+     *
+     * @param path the path to write
+     * @param quests the quest records to write
+     * @throws IOException if the file could not be written
+     */
+    static void write(Path path, Collection<QuestRecord> quests) throws IOException {
+        Map<String, Integer> idIndex = new LinkedHashMap<>();
+        for (QuestRecord quest : quests) {
+            idIndex.putIfAbsent(quest.questId(), idIndex.size());
+            for (TaskRecord task : quest.tasks().values()) {
+                idIndex.putIfAbsent(task.taskId(), idIndex.size());
+            }
+        }
+
+        Output out = new Output(256);
+        out.writeInt(MAGIC);
+        out.writeVarInt(VERSION);
+        out.writeVarInt(idIndex.size());
+        for (String id : idIndex.keySet()) {
+            byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        out.writeVarInt(quests.size());
+        Output record = new Output(64);
+        for (QuestRecord quest : quests) {
+            record.reset();
+            record.writeVarInt(idIndex.get(quest.questId()));
+            record.write((quest.started() ? QUEST_STARTED : 0)
+                    | (quest.completed() ? QUEST_COMPLETED : 0)
+                    | (quest.completedBefore() ? QUEST_COMPLETED_BEFORE : 0));
+            record.writeVarLong(quest.startedDate());
+            record.writeVarLong(quest.completionDate());
+            record.writeVarInt(quest.tasks().size());
+            for (TaskRecord task : quest.tasks().values()) {
+                record.writeVarInt(idIndex.get(task.taskId()));
+                record.write(task.completed() ? 1 : 0);
+                writeProgress(record, task.progress());
+            }
+
+            out.writeVarInt(record.size());
+            record.copyTo(out);
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = out.toByteBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            // the data must reach the disk before the rename, otherwise a crash may leave an empty file
+            channel.force(false);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static Object readProgress(ByteBuffer buffer) throws IOException {
+        byte type = buffer.get();
+        return switch (type) {
+            case PROGRESS_NULL -> null;
+            case PROGRESS_INT -> Integer.valueOf(zigzagDecode(readVarInt(buffer)));
+            case PROGRESS_LONG -> Long.valueOf(zigzagDecode(readVarLong(buffer)));
+            case PROGRESS_FLOAT -> Float.valueOf(buffer.getFloat());
+            case PROGRESS_DOUBLE -> Double.valueOf(buffer.getDouble());
+            default -> throw new IOException("unknown progress type " + type);
+        };
+    }
+
+    private static void writeProgress(Output out, Object progress) {
+        if (progress instanceof Integer i) {
+            out.write(PROGRESS_INT);
+            out.writeVarInt((i << 1) ^ (i >> 31));
+        } else if (progress instanceof Long l) {
+            out.write(PROGRESS_LONG);
+            out.writeVarLong((l << 1) ^ (l >> 63));
+        } else if (progress instanceof Float f) {
+            out.write(PROGRESS_FLOAT);
+            out.writeInt(Float.floatToIntBits(f));
+        } else if (progress instanceof Double d) {
+            out.write(PROGRESS_DOUBLE);
+            out.writeLong(Double.doubleToLongBits(d));
+        } else {
+            out.write(PROGRESS_NULL);
+        }
+    }
+
+    private static int zigzagDecode(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long zigzagDecode(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint is too long");
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varlong is too long");
+    }
+
+    private static final class Output extends ByteArrayOutputStream {
+
+        private Output(int size) {
+            super(size);
+        }
+
+        private void writeVarInt(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        private void writeInt(int value) {
+            write(value >>> 24);
+            write(value >>> 16);
+            write(value >>> 8);
+            write(value);
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void copyTo(Output out) {
+            out.write(buf, 0, count);
+        }
+
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.bukkit.storage.BinaryProgressFormat.QuestRecord;
+import com.leonardobishop.quests.bukkit.storage.BinaryProgressFormat.TaskRecord;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stores quest progress in one binary file per player, in the format described by {@link BinaryProgressFormat}.
+ * Files are kept in the same folder as the YAML storage provider, so the two are treated as the same data source.
+ */
+public class BinaryStorageProvider implements StorageProvider {
+
+    private static final String EXTENSION = ".dat";
+
+    private final BukkitQuestsPlugin plugin;
+    private final Path directory;
+
+    public BinaryStorageProvider(BukkitQuestsPlugin plugin) {
+        this.plugin = plugin;
+        this.directory = new File(plugin.getDataFolder() + File.separator + "playerdata").toPath();
+    }
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public void init() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        // no impl
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
+        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+        try {
+            Path path = getPath(uuid);
+            if (!Files.exists(path)) {
+                plugin.getQuestsLogger().debug(() -> "Player " + uuid + " does not have a quest progress file.");
+                return questProgressFile;
+            }
+
+            plugin.getQuestsLogger().debug(() -> "Player " + uuid + " has a valid quest progress file.");
+            Map<String, QuestRecord> records = BinaryProgressFormat.read(path,
+                    questId -> !validateQuests || presentQuests.containsKey(questId),
+                    (questId, taskId) -> !validateQuests || presentQuests.get(questId).getTaskById(taskId) != null);
+
+            for (QuestRecord record : records.values()) {
+                QuestProgress questProgress = new QuestProgress(plugin, record.questId(), record.completed(), record.completedBefore(),
+                        record.completionDate(), uuid, record.started(), record.startedDate());
+                for (TaskRecord taskRecord : record.tasks().values()) {
+                    questProgress.addTaskProgress(new TaskProgress(questProgress, taskRecord.taskId(), taskRecord.progress(), uuid, taskRecord.completed()));
+                }
+                questProgressFile.addQuestProgress(questProgress);
+            }
+        } catch (IOException e) {
+            plugin.getQuestsLogger().severe("Failed to read quest progress file for player " + uuid + "!");
+            e.printStackTrace();
+            return null;
+        }
+
+        return questProgressFile;
+    }
+
+    /**
+     * Save the modified progress in a quest progress file. The existing file is read and the modified progress
+     * is applied over it, so that unmodified progress is kept.
+     */
+    @Override
+    public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        try {
+            Path path = getPath(uuid);
+            Map<String, QuestRecord> records;
+            if (Files.exists(path)) {
+                records = BinaryProgressFormat.read(path, questId -> true, (questId, taskId) -> true);
+            } else {
+                records = new LinkedHashMap<>();
+            }
+
+            for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+                if (!questProgress.isModified()) continue;
+
+                String questId = questProgress.getQuestId();
+                QuestRecord existing = records.get(questId);
+                Map<String, TaskRecord> tasks = existing == null ? new LinkedHashMap<>() : new LinkedHashMap<>(existing.tasks());
+                for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                    if (!taskProgress.isModified()) continue;
+
+                    Object progress = taskProgress.getProgress();
+                    if (!BinaryProgressFormat.isSupported(progress)) {
+                        plugin.getQuestsLogger().warning("Cannot store progress for task '"
+                                + taskProgress.getTaskId() + "' in quest '" + questId + "' for player " + uuid
+                                + " since type " + progress.getClass().getName() + " cannot be encoded!");
+                        continue;
+                    }
+                    tasks.put(taskProgress.getTaskId(), new TaskRecord(taskProgress.getTaskId(), taskProgress.isCompleted(), progress));
+                }
+
+                records.put(questId, new QuestRecord(questId, questProgress.isStarted(), questProgress.getStartedDate(),
+                        questProgress.isCompleted(), questProgress.isCompletedBefore(), questProgress.getCompletionDate(), tasks));
+            }
+
+            plugin.getQuestsLogger().debug(() -> "Writing player " + uuid + " to disk.");
+            BinaryProgressFormat.write(path, records.values());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
+        List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        for (UUID uuid : listPlayers(EXTENSION)) {
+            QuestProgressFile file = loadProgressFile(uuid);
+            if (file != null) {
+                consumer.accept(file);
+            }
+        }
+    }
+
+    @Override
+    public boolean saveAllProgressFiles(List<QuestProgressFile> files) {
+        boolean saved = true;
+        for (QuestProgressFile file : files) {
+            saved &= saveProgressFile(file.getPlayerUUID(), file);
+        }
+        return saved;
+    }
+
+    @Override
+    public boolean isSimilar(StorageProvider provider) {
+        return provider instanceof BinaryStorageProvider || provider instanceof YamlStorageProvider;
+    }
+
+    private Path getPath(UUID uuid) {
+        return directory.resolve(uuid + EXTENSION);
+    }
+
+    private List<UUID> listPlayers(String extension) {
+        List<UUID> uuids = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                String name = path.getFileName().toString();
+                if (!name.endsWith(extension)) return;
+                try {
+                    uuids.add(UUID.fromString(name.substring(0, name.length() - extension.length())));
+                } catch (IllegalArgumentException ignored) { }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return uuids;
+    }
+
+    /**
+     * Converts YAML progress files to binary, and moves them to a backup directory once written. If a binary file
+     * already exists, the YAML file is only converted if it is newer, and is otherwise left in place. Quests are not
+     * verified to exist, as quests are not yet loaded when storage providers are initialised.
+     * <p>
+     * This must only be called when this is the configured storage provider, as it moves the files of the YAML
+     * storage provider.
+     */
+    public void convertYamlFiles() {
+        List<UUID> uuids = listPlayers(".yml");
+        if (uuids.isEmpty()) return;
+
+        plugin.getQuestsLogger().info("Converting " + uuids.size() + " YAML quest progress files to binary...");
+        Path backupDirectory = directory.resolve("yaml-backup");
+        int converted = 0;
+        int skipped = 0;
+        for (UUID uuid : uuids) {
+            Path yamlPath = directory.resolve(uuid + ".yml");
+            Path path = getPath(uuid);
+            try {
+                Files.createDirectories(backupDirectory);
+                if (Files.exists(path)) {
+                    // such as if the storage provider was switched back from yaml, in which case the newer file wins
+                    if (Files.getLastModifiedTime(yamlPath).compareTo(Files.getLastModifiedTime(path)) <= 0) {
+                        plugin.getQuestsLogger().warning("Not converting quest progress file for player " + uuid
+                                + " as a newer binary file already exists. The YAML file has been left at " + yamlPath + ".");
+                        skipped++;
+                        continue;
+                    }
+                    Files.copy(path, backupDirectory.resolve(path.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+                BinaryProgressFormat.write(path, readYamlFile(uuid, yamlPath));
+                Files.move(yamlPath, backupDirectory.resolve(yamlPath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                converted++;
+            } catch (Exception e) {
+                plugin.getQuestsLogger().severe("Failed to convert quest progress file for player " + uuid + "!");
+                e.printStackTrace();
+            }
+        }
+        plugin.getQuestsLogger().info("Converted " + converted + " quest progress files. The original files have been moved to " + backupDirectory + ".");
+        if (skipped > 0) {
+            plugin.getQuestsLogger().warning(skipped + " YAML quest progress files were not converted as newer binary files exist. Please remove them once they are no longer needed.");
+        }
+    }
+
+    // a file which cannot be read is an error, rather than empty, so that it is not moved away unconverted
+    private List<QuestRecord> readYamlFile(UUID uuid, Path path) throws IOException, InvalidConfigurationException {
+        YamlConfiguration data = new YamlConfiguration();
+        data.load(path.toFile());
+        ConfigurationSection questSection = data.getConfigurationSection("quest-progress");
+        if (questSection == null) return Collections.emptyList();
+
+        List<QuestRecord> records = new ArrayList<>();
+        for (String questId : questSection.getKeys(false)) {
+            ConfigurationSection section = questSection.getConfigurationSection(questId);
+            if (section == null) continue;
+
+            Map<String, TaskRecord> tasks = new LinkedHashMap<>();
+            ConfigurationSection taskSection = section.getConfigurationSection("task-progress");
+            if (taskSection != null) {
+                for (String taskId : taskSection.getKeys(false)) {
+                    boolean completed = taskSection.getBoolean(taskId + ".completed");
+                    Object progress = taskSection.get(taskId + ".progress");
+                    if (!BinaryProgressFormat.isSupported(progress)) {
+                        plugin.getQuestsLogger().warning("Cannot convert progress for task '"
+                                + taskId + "' in quest '" + questId + "' for player " + uuid
+                                + " since type " + progress.getClass().getName() + " cannot be encoded!");
+                        progress = null;
+                    }
+                    tasks.put(taskId, new TaskRecord(taskId, completed, progress));
+                }
+            }
+
+            records.add(new QuestRecord(questId, section.getBoolean("started"), section.getLong("started-date"),
+                    section.getBoolean("completed"), section.getBoolean("completed-before"), section.getLong("completion-date"), tasks));
+        }
+        return records;
+    }
+}
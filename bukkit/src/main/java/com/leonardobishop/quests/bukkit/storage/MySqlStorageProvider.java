@@ -4,6 +4,7 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress.ProgressType;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.storage.StorageProvider;
 import com.zaxxer.hikari.HikariConfig;
@@ -34,9 +35,10 @@ public class MySqlStorageProvider implements StorageProvider {
                     " `uuid`       VARCHAR(36)  NOT NULL," +
                     " `quest_id`   VARCHAR(50)  NOT NULL," +
                     " `task_id`    VARCHAR(50)  NOT NULL," +
-                    " `completed`  BOOL         NOT NULL," +
-                    " `progress`   VARCHAR(64)  NULL," +
-                    " `data_type`  VARCHAR(10)  NULL," +
+                    " `completed`        BOOL         NOT NULL," +
+                    " `progress_type`    TINYINT      NULL," +
+                    " `progress_long`    BIGINT       NULL," +
+                    " `progress_double`  DOUBLE       NULL," +
                     " PRIMARY KEY (`uuid`, `quest_id`, `task_id`));";
     private static final String CREATE_TABLE_DATABASE_INFORMATION =
             "CREATE TABLE IF NOT EXISTS `{prefix}database_information` (" +
@@ -46,7 +48,7 @@ public class MySqlStorageProvider implements StorageProvider {
     private static final String SELECT_PLAYER_QUEST_PROGRESS =
             "SELECT quest_id, started, started_date, completed, completed_before, completion_date FROM `{prefix}quest_progress` WHERE uuid=?;";
     private static final String SELECT_PLAYER_TASK_PROGRESS =
-            "SELECT quest_id, task_id, completed, progress, data_type FROM `{prefix}task_progress` WHERE uuid=?;";
+            "SELECT quest_id, task_id, completed, progress_type, progress_long, progress_double FROM `{prefix}task_progress` WHERE uuid=?;";
     private static final String SELECT_UUID_LIST =
             "SELECT DISTINCT uuid FROM `{prefix}quest_progress`;";
     private static final String SELECT_KNOWN_PLAYER_QUEST_PROGRESS =
@@ -54,9 +56,9 @@ public class MySqlStorageProvider implements StorageProvider {
     private static final String SELECT_KNOWN_PLAYER_TASK_PROGRESS =
             "SELECT quest_id, task_id FROM `{prefix}task_progress` WHERE uuid=?;";
     private static final String WRITE_PLAYER_QUEST_PROGRESS =
-            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, started_date, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=?, started_date=?, completed=?, completed_before=?, completion_date=?";
+            "INSERT INTO `{prefix}quest_progress` (uuid, quest_id, started, started_date, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE started=VALUES(started), started_date=VALUES(started_date), completed=VALUES(completed), completed_before=VALUES(completed_before), completion_date=VALUES(completion_date)";
     private static final String WRITE_PLAYER_TASK_PROGRESS =
-            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress, data_type) VALUES (?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=?, progress=?, data_type=?";
+            "INSERT INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress_type, progress_long, progress_double) VALUES (?,?,?,?,?,?,?) ON DUPLICATE KEY UPDATE completed=VALUES(completed), progress_type=VALUES(progress_type), progress_long=VALUES(progress_long), progress_double=VALUES(progress_double)";
 
     private final ConfigurationSection configuration;
     private final BukkitQuestsPlugin plugin;
@@ -154,7 +156,7 @@ public class MySqlStorageProvider implements StorageProvider {
 
         QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
         try (Connection connection = hikari.getConnection()) {
-            plugin.getQuestsLogger().debug("Querying player " + uuid);
+            plugin.getQuestsLogger().debug(() -> "Querying player " + uuid);
             Map<String, QuestProgress> questProgressMap = new HashMap<>();
             try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_PLAYER_QUEST_PROGRESS))) {
                 ps.setString(1, uuid.toString());
@@ -182,35 +184,25 @@ public class MySqlStorageProvider implements StorageProvider {
                         String questId = rs.getString(1);
                         String taskId = rs.getString(2);
                         boolean completed = rs.getBoolean(3);
-                        String encodedProgress = rs.getString(4);
-                        String type = rs.getString(5);
                         Object progress;
-                        try {
+                        int typeId = rs.getInt(4);
+                        if (rs.wasNull()) {
+                            progress = null;
+                        } else {
+                            ProgressType type = ProgressType.fromId(typeId);
                             if (type == null) {
-                                progress = null;
-                            } else if (type.equals("double")) {
-                                progress = Double.valueOf(encodedProgress);
-                            } else if (type.equals("float")) {
-                                progress = Float.valueOf(encodedProgress);
-                            } else if (type.equals("int")) {
-                                progress = Integer.valueOf(encodedProgress);
-                            } else {
-                                throw new RuntimeException("unknown data type '" + type + "'");
-                            }
-                        } catch (NumberFormatException ex) {
-                            plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since data is malformed!");
-                            continue;
-                        } catch (RuntimeException ex) {
-                            if (ex.getMessage().startsWith("unknown data type ")) {
                                 plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
                                         + taskId + "' in quest '" + questId + "' for player " + uuid
-                                        + ": " + ex.getMessage());
+                                        + ": unknown progress type " + typeId);
                                 continue;
-                            } else {
-                                throw ex;
                             }
+                            progress = switch (type) {
+                                case INT -> Integer.valueOf((int) rs.getLong(5));
+                                case LONG -> Long.valueOf(rs.getLong(5));
+                                case FLOAT -> Float.valueOf((float) rs.getDouble(6));
+                                case DOUBLE -> Double.valueOf(rs.getDouble(6));
+                                default -> null;
+                            };
                         }
 
                         QuestProgress linkedQuestProgress = questProgressMap.get(questId);
@@ -244,61 +236,7 @@ public class MySqlStorageProvider implements StorageProvider {
             try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
                  PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
 
-                List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
-                for (QuestProgress questProgress : questProgressValues) {
-                    if (!questProgress.isModified()) continue;
-                    
-                    String questId = questProgress.getQuestId();
-                    writeQuestProgress.setString(1, uuid.toString());
-                    writeQuestProgress.setString(2, questProgress.getQuestId());
-                    writeQuestProgress.setBoolean(3, questProgress.isStarted());
-                    writeQuestProgress.setLong(4, questProgress.getStartedDate());
-                    writeQuestProgress.setBoolean(5, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(6, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(7, questProgress.getCompletionDate());
-                    writeQuestProgress.setBoolean(8, questProgress.isStarted());
-                    writeQuestProgress.setLong(9, questProgress.getStartedDate());
-                    writeQuestProgress.setBoolean(10, questProgress.isCompleted());
-                    writeQuestProgress.setBoolean(11, questProgress.isCompletedBefore());
-                    writeQuestProgress.setLong(12, questProgress.getCompletionDate());
-                    writeQuestProgress.addBatch();
-
-                    for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
-                        String taskId = taskProgress.getTaskId();
-
-                        String encodedProgress;
-                        Object progress = taskProgress.getProgress();
-                        String type;
-                        if (progress == null) {
-                            type = null;
-                            encodedProgress = null;
-                        } else if (progress instanceof Double) {
-                            type = "double";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Integer) {
-                            type = "int";
-                            encodedProgress = String.valueOf(progress);
-                        } else if (progress instanceof Float) {
-                            type = "float";
-                            encodedProgress = String.valueOf(progress);
-                        } else {
-                            plugin.getQuestsLogger().warning("Cannot store progress for task '"
-                                    + taskId + "' in quest '" + questId + "' for player " + uuid
-                                    + " since type " + progress.getClass().getName() + " cannot be encoded!");
-                            continue;
-                        }
-                        writeTaskProgress.setString(1, uuid.toString());
-                        writeTaskProgress.setString(2, questId);
-                        writeTaskProgress.setString(3, taskProgress.getTaskId());
-                        writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
-                        writeTaskProgress.setString(5, encodedProgress);
-                        writeTaskProgress.setString(6, type);
-                        writeTaskProgress.setBoolean(7, taskProgress.isCompleted());
-                        writeTaskProgress.setString(8, encodedProgress);
-                        writeTaskProgress.setString(9, type);
-                        writeTaskProgress.addBatch();
-                    }
-                }
+                addProgressFileBatch(uuid, questProgressFile, writeQuestProgress, writeTaskProgress);
 
                 writeQuestProgress.executeBatch();
                 writeTaskProgress.executeBatch();
@@ -310,6 +248,61 @@ public class MySqlStorageProvider implements StorageProvider {
         }
     }
 
+    private void addProgressFileBatch(UUID uuid, QuestProgressFile questProgressFile, PreparedStatement writeQuestProgress, PreparedStatement writeTaskProgress) throws SQLException {
+        List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
+        for (QuestProgress questProgress : questProgressValues) {
+            if (!questProgress.isModified()) continue;
+
+            String questId = questProgress.getQuestId();
+            writeQuestProgress.setString(1, uuid.toString());
+            writeQuestProgress.setString(2, questProgress.getQuestId());
+            writeQuestProgress.setBoolean(3, questProgress.isStarted());
+            writeQuestProgress.setLong(4, questProgress.getStartedDate());
+            writeQuestProgress.setBoolean(5, questProgress.isCompleted());
+            writeQuestProgress.setBoolean(6, questProgress.isCompletedBefore());
+            writeQuestProgress.setLong(7, questProgress.getCompletionDate());
+            writeQuestProgress.addBatch();
+
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                if (!taskProgress.isModified()) continue;
+                String taskId = taskProgress.getTaskId();
+
+                ProgressType type = taskProgress.getProgressType();
+                if (type == ProgressType.OBJECT) {
+                    plugin.getQuestsLogger().warning("Cannot store progress for task '"
+                            + taskId + "' in quest '" + questId + "' for player " + uuid
+                            + " since type " + taskProgress.getProgress().getClass().getName() + " cannot be encoded!");
+                    continue;
+                }
+                writeTaskProgress.setString(1, uuid.toString());
+                writeTaskProgress.setString(2, questId);
+                writeTaskProgress.setString(3, taskProgress.getTaskId());
+                writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
+                writeProgress(writeTaskProgress, 5, taskProgress);
+                writeTaskProgress.addBatch();
+            }
+        }
+    }
+
+    private void writeProgress(PreparedStatement ps, int offset, TaskProgress taskProgress) throws SQLException {
+        ProgressType type = taskProgress.getProgressType();
+        if (type == ProgressType.NONE) {
+            ps.setNull(offset, Types.TINYINT);
+        } else {
+            ps.setInt(offset, type.getId());
+        }
+        if (type.isIntegral()) {
+            ps.setLong(offset + 1, taskProgress.getLongProgress());
+        } else {
+            ps.setNull(offset + 1, Types.BIGINT);
+        }
+        if (type.isDecimal()) {
+            ps.setDouble(offset + 2, taskProgress.getDoubleProgress());
+        } else {
+            ps.setNull(offset + 2, Types.DOUBLE);
+        }
+    }
+
     @Override
     public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
         if (fault) return Collections.emptyList();
@@ -345,11 +338,34 @@ public class MySqlStorageProvider implements StorageProvider {
     }
 
     @Override
-    public void saveAllProgressFiles(List<QuestProgressFile> files) {
-        if (fault) return;
+    public boolean saveAllProgressFiles(List<QuestProgressFile> files) {
+        if (fault) return false;
 
-        for (QuestProgressFile file : files) {
-            saveProgressFile(file.getPlayerUUID(), file);
+        // all files are written as one batch per table, which the driver rewrites
+        // into multi-row inserts (see rewriteBatchedStatements)
+        try (Connection connection = hikari.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
+                 PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
+
+                for (QuestProgressFile file : files) {
+                    addProgressFileBatch(file.getPlayerUUID(), file, writeQuestProgress, writeTaskProgress);
+                }
+
+                writeQuestProgress.executeBatch();
+                writeTaskProgress.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
@@ -373,21 +389,48 @@ public class MySqlStorageProvider implements StorageProvider {
     private class DatabaseMigrator {
         private static final String GET_STARTED_DATE_COLUMN =
                 "SHOW COLUMNS from `{prefix}quest_progress` LIKE 'started_date';";
+        private static final String GET_PROGRESS_TYPE_COLUMN =
+                "SHOW COLUMNS from `{prefix}task_progress` LIKE 'progress_type';";
         private static final String SELECT_SCHEMA_VERSION =
                 "SELECT value FROM `{prefix}database_information` WHERE `key`='schema_version';";
+        private static final String GET_COLUMN =
+                "SHOW COLUMNS from `{prefix}%s` LIKE '%s';";
         private static final String UPDATE_DATABASE_INFORMATION =
                 "INSERT INTO `{prefix}database_information` (`key`, `value`) VALUES (?,?) ON DUPLICATE KEY UPDATE `value`=?;";
-        private static final int CURRENT_SCHEMA_VERSION = 2;
+        private static final int CURRENT_SCHEMA_VERSION = 3;
 
-        private final Map<Integer, String> migrationStatements = new HashMap<>();
+        private final Map<Integer, List<MigrationStatement>> migrationStatements = new HashMap<>();
 
         private final Connection connection;
 
         public DatabaseMigrator(Connection connection) {
             this.connection = connection;
 
-            this.migrationStatements.put(1,
-                    "ALTER TABLE `{prefix}quest_progress` ADD COLUMN `started_date` BIGINT NOT NULL AFTER `started`;");
+            // each statement only runs if the column it checks is (or is not) present, so that a migration which
+            // failed part way through can be run again
+            this.migrationStatements.put(1, List.of(
+                    new MigrationStatement("ALTER TABLE `{prefix}quest_progress` ADD COLUMN `started_date` BIGINT NOT NULL AFTER `started`;",
+                            "quest_progress", "started_date", false)));
+            // progress was stored as a string with a type name; the type ids are those of TaskProgress.ProgressType
+            this.migrationStatements.put(2, List.of(
+                    new MigrationStatement("ALTER TABLE `{prefix}task_progress` ADD COLUMN `progress_type` TINYINT NULL AFTER `completed`, " +
+                            "ADD COLUMN `progress_long` BIGINT NULL AFTER `progress_type`, " +
+                            "ADD COLUMN `progress_double` DOUBLE NULL AFTER `progress_long`;",
+                            "task_progress", "progress_type", false),
+                    new MigrationStatement("UPDATE `{prefix}task_progress` SET " +
+                            "progress_type = CASE data_type WHEN 'int' THEN 1 WHEN 'float' THEN 3 WHEN 'double' THEN 4 END, " +
+                            "progress_long = CASE WHEN data_type = 'int' THEN CAST(progress AS SIGNED) END, " +
+                            "progress_double = CASE WHEN data_type IN ('float', 'double') THEN progress + 0E0 END;",
+                            "task_progress", "data_type", true),
+                    new MigrationStatement("ALTER TABLE `{prefix}task_progress` DROP COLUMN `progress`, DROP COLUMN `data_type`;",
+                            "task_progress", "data_type", true)));
+        }
+
+        private boolean hasColumn(String table, String column) throws SQLException {
+            try (Statement statement = connection.createStatement()) {
+                ResultSet rs = statement.executeQuery(statementProcessor.apply(String.format(GET_COLUMN, table, column)));
+                return rs.next();
+            }
         }
 
         public int getInitialSchemaVersion() {
@@ -395,8 +438,12 @@ public class MySqlStorageProvider implements StorageProvider {
                 plugin.getQuestsLogger().debug("Getting initial schema version for new database");
                 ResultSet rs = statement.executeQuery(statementProcessor.apply(GET_STARTED_DATE_COLUMN));
                 boolean hasStartedDateColumn = rs.next();
+                if (!hasStartedDateColumn) return 1;
 
-                return hasStartedDateColumn ? CURRENT_SCHEMA_VERSION : 1;
+                rs = statement.executeQuery(statementProcessor.apply(GET_PROGRESS_TYPE_COLUMN));
+                boolean hasProgressTypeColumn = rs.next();
+
+                return hasProgressTypeColumn ? CURRENT_SCHEMA_VERSION : 2;
             } catch (SQLException e) {
                 throw new RuntimeException(e);
             }
@@ -408,7 +455,7 @@ public class MySqlStorageProvider implements StorageProvider {
                 ResultSet rs = statement.executeQuery(statementProcessor.apply(SELECT_SCHEMA_VERSION));
                 if (rs.next()) {
                     int version = Integer.parseInt(rs.getString(1));
-                    plugin.getQuestsLogger().debug("Current schema version: " + version);
+                    plugin.getQuestsLogger().debug(() -> "Current schema version: " + version);
                     return version;
                 } else {
                     int initialVersion = getInitialSchemaVersion();
@@ -421,24 +468,30 @@ public class MySqlStorageProvider implements StorageProvider {
         }
 
         public void upgrade(int initialSchemaVersion) {
-            plugin.getQuestsLogger().debug("Starting upgrade from version " + initialSchemaVersion + " to " + CURRENT_SCHEMA_VERSION);
+            plugin.getQuestsLogger().debug(() -> "Starting upgrade from version " + initialSchemaVersion + " to " + CURRENT_SCHEMA_VERSION);
             for (int i = initialSchemaVersion; i < CURRENT_SCHEMA_VERSION; i++) {
-                String statement = statementProcessor.apply(migrationStatements.get(i));
-                plugin.getQuestsLogger().debug("Running migration statement: " + statement);
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(statementProcessor.apply(statement));
-                } catch (SQLException e) {
-                    plugin.getQuestsLogger().severe("Failed to run migration statement (" + i + " -> " + (i + 1) + "): " + statement);
-                    plugin.getQuestsLogger().severe("Quests will attempt to save current migration progress to prevent database corruption, but may not be able to do so");
-                    updateSchemaVersion(i);
-                    throw new RuntimeException(e);
+                for (MigrationStatement migrationStatement : migrationStatements.get(i)) {
+                    String statement = statementProcessor.apply(migrationStatement.statement());
+                    try (Statement stmt = connection.createStatement()) {
+                        if (hasColumn(migrationStatement.table(), migrationStatement.column()) != migrationStatement.requiresColumn()) {
+                            plugin.getQuestsLogger().debug(() -> "Skipping migration statement which has already been run: " + statement);
+                            continue;
+                        }
+                        plugin.getQuestsLogger().debug(() -> "Running migration statement: " + statement);
+                        stmt.execute(statement);
+                    } catch (SQLException e) {
+                        plugin.getQuestsLogger().severe("Failed to run migration statement (" + i + " -> " + (i + 1) + "): " + statement);
+                        plugin.getQuestsLogger().severe("Quests will attempt to save current migration progress to prevent database corruption, but may not be able to do so");
+                        updateSchemaVersion(i);
+                        throw new RuntimeException(e);
+                    }
                 }
             }
             updateSchemaVersion(CURRENT_SCHEMA_VERSION);
         }
 
         public void updateSchemaVersion(int version) {
-            plugin.getQuestsLogger().debug("Updating schema version to " + version);
+            plugin.getQuestsLogger().debug(() -> "Updating schema version to " + version);
             try (PreparedStatement stmt = connection.prepareStatement(statementProcessor.apply(UPDATE_DATABASE_INFORMATION))) {
                 stmt.setString(1, "schema_version");
                 stmt.setString(2, String.valueOf(version));
@@ -449,5 +502,13 @@ public class MySqlStorageProvider implements StorageProvider {
                 throw new RuntimeException(e);
             }
         }
+
+        /**
+         * @param statement the statement to run
+         * @param table the table of the column to check, without the prefix
+         * @param column the column to check
+         * @param requiresColumn whether the statement runs only if the column is present, rather than only if it is not
+         */
+        private record MigrationStatement(String statement, String table, String column, boolean requiresColumn) { }
     }
 }
@@ -0,0 +1,483 @@
+package com.leonardobishop.quests.bukkit.storage;
+
+import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
+import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress.ProgressType;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.storage.StorageProvider;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Stores quest progress in a local SQLite database file, using the same tables as {@link MySqlStorageProvider}.
+ * The SQLite driver is provided by the server, so no external service or additional library is required.
+ */
+public class SqliteStorageProvider implements StorageProvider {
+
+    private static final String CREATE_TABLE_QUEST_PROGRESS =
+            "CREATE TABLE IF NOT EXISTS `{prefix}quest_progress` (" +
+                    " `uuid`              VARCHAR(36)  NOT NULL," +
+                    " `quest_id`          VARCHAR(50)  NOT NULL," +
+                    " `started`           BOOL         NOT NULL," +
+                    " `started_date`      BIGINT       NOT NULL," +
+                    " `completed`         BOOL         NOT NULL," +
+                    " `completed_before`  BOOL         NOT NULL," +
+                    " `completion_date`   BIGINT       NOT NULL," +
+                    " PRIMARY KEY (`uuid`, `quest_id`));";
+    private static final String CREATE_TABLE_TASK_PROGRESS =
+            "CREATE TABLE IF NOT EXISTS `{prefix}task_progress` (" +
+                    " `uuid`       VARCHAR(36)  NOT NULL," +
+                    " `quest_id`   VARCHAR(50)  NOT NULL," +
+                    " `task_id`    VARCHAR(50)  NOT NULL," +
+                    " `completed`        BOOL         NOT NULL," +
+                    " `progress_type`    TINYINT      NULL," +
+                    " `progress_long`    BIGINT       NULL," +
+                    " `progress_double`  DOUBLE       NULL," +
+                    " PRIMARY KEY (`uuid`, `quest_id`, `task_id`));";
+    private static final String CREATE_TABLE_DATABASE_INFORMATION =
+            "CREATE TABLE IF NOT EXISTS `{prefix}database_information` (" +
+                    " `key`   VARCHAR(255) NOT NULL," +
+                    " `value` VARCHAR(255) NOT NULL," +
+                    " PRIMARY KEY (`key`));";
+    private static final String SELECT_PLAYER_QUEST_PROGRESS =
+            "SELECT quest_id, started, started_date, completed, completed_before, completion_date FROM `{prefix}quest_progress` WHERE uuid=?;";
+    private static final String SELECT_PLAYER_TASK_PROGRESS =
+            "SELECT quest_id, task_id, completed, progress_type, progress_long, progress_double FROM `{prefix}task_progress` WHERE uuid=?;";
+    private static final String SELECT_ALL_QUEST_PROGRESS =
+            "SELECT uuid, quest_id, started, started_date, completed, completed_before, completion_date FROM `{prefix}quest_progress` ORDER BY uuid;";
+    private static final String SELECT_ALL_TASK_PROGRESS =
+            "SELECT uuid, quest_id, task_id, completed, progress_type, progress_long, progress_double FROM `{prefix}task_progress` ORDER BY uuid;";
+    // every column is written, so replacing a row is the same as updating it, and is supported by all SQLite versions
+    private static final String WRITE_PLAYER_QUEST_PROGRESS =
+            "INSERT OR REPLACE INTO `{prefix}quest_progress` (uuid, quest_id, started, started_date, completed, completed_before, completion_date) VALUES (?,?,?,?,?,?,?);";
+    private static final String WRITE_PLAYER_TASK_PROGRESS =
+            "INSERT OR REPLACE INTO `{prefix}task_progress` (uuid, quest_id, task_id, completed, progress_type, progress_long, progress_double) VALUES (?,?,?,?,?,?,?);";
+
+    private final ConfigurationSection configuration;
+    private final BukkitQuestsPlugin plugin;
+    private final File databaseFile;
+    private HikariDataSource hikari;
+    private String prefix;
+    private Function<String, String> statementProcessor;
+    private boolean fault;
+
+    public SqliteStorageProvider(BukkitQuestsPlugin plugin, ConfigurationSection configuration) {
+        this.plugin = plugin;
+        if (configuration == null) {
+            configuration = new YamlConfiguration();
+        }
+        this.configuration = configuration;
+        this.databaseFile = new File(plugin.getDataFolder(), configuration.getString("file", "quests.db"));
+        this.fault = true;
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    @Override
+    public void init() {
+        File parent = databaseFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("quests-hikari-sqlite");
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+        // writes are serialised by sqlite, so only a few connections are useful (for concurrent reads)
+        config.setMaximumPoolSize(configuration.getInt("connection-pool-settings.maximum-pool-size", 4));
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(configuration.getInt("connection-pool-settings.connection-timeout", 5000));
+
+        // passed to the driver as pragmas for each connection
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("synchronous", "NORMAL");
+        config.addDataSourceProperty("busy_timeout", "5000");
+
+        this.hikari = new HikariDataSource(config);
+        this.prefix = configuration.getString("table-prefix", "quests_");
+        this.statementProcessor = s -> s.replace("{prefix}", prefix);
+        try (Connection connection = hikari.getConnection()) {
+            try (Statement s = connection.createStatement()) {
+                plugin.getQuestsLogger().debug("Creating default tables");
+                s.execute("PRAGMA journal_mode=WAL;");
+                s.addBatch(this.statementProcessor.apply(CREATE_TABLE_QUEST_PROGRESS));
+                s.addBatch(this.statementProcessor.apply(CREATE_TABLE_TASK_PROGRESS));
+                s.addBatch(this.statementProcessor.apply(CREATE_TABLE_DATABASE_INFORMATION));
+
+                s.executeBatch();
+            }
+            DatabaseMigrator migrator = new DatabaseMigrator(connection);
+
+            int currentVersion = migrator.getCurrentSchemaVersion();
+            if (currentVersion < DatabaseMigrator.CURRENT_SCHEMA_VERSION) {
+                plugin.getQuestsLogger().info("Automatically upgrading database schema from version " + currentVersion + " to " + DatabaseMigrator.CURRENT_SCHEMA_VERSION);
+                migrator.upgrade(currentVersion);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        this.fault = false;
+    }
+
+    @Override
+    public void shutdown() {
+        if (hikari != null) hikari.close();
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        if (fault) return null;
+        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
+        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+        try (Connection connection = hikari.getConnection()) {
+            plugin.getQuestsLogger().debug(() -> "Querying player " + uuid);
+            Map<String, QuestProgress> questProgressMap = new HashMap<>();
+            try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_PLAYER_QUEST_PROGRESS))) {
+                ps.setString(1, uuid.toString());
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        String questId = rs.getString(1);
+                        if (validateQuests && !presentQuests.containsKey(questId)) continue;
+
+                        questProgressMap.put(questId, readQuestProgress(rs, 1, uuid));
+                    }
+                }
+            }
+            try (PreparedStatement ps = connection.prepareStatement(this.statementProcessor.apply(SELECT_PLAYER_TASK_PROGRESS))) {
+                ps.setString(1, uuid.toString());
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        readTaskProgress(rs, 1, uuid, questProgressMap, presentQuests, validateQuests);
+                    }
+                }
+            }
+            for (QuestProgress questProgress : questProgressMap.values()) {
+                questProgressFile.addQuestProgress(questProgress);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return questProgressFile;
+    }
+
+    @Override
+    public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        if (fault) return false;
+        try {
+            writeProgressFiles(Collections.singletonList(questProgressFile));
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
+        List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
+
+    /**
+     * Streams every quest progress file from the database. Both tables are read once, ordered by player,
+     * and only one player's progress is held in memory at a time.
+     *
+     * @param consumer the consumer to pass each file to
+     */
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        if (fault) return;
+        Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
+        boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
+
+        try (Connection connection = hikari.getConnection();
+             PreparedStatement questStatement = connection.prepareStatement(this.statementProcessor.apply(SELECT_ALL_QUEST_PROGRESS));
+             PreparedStatement taskStatement = connection.prepareStatement(this.statementProcessor.apply(SELECT_ALL_TASK_PROGRESS))) {
+            questStatement.setFetchSize(1000);
+            taskStatement.setFetchSize(1000);
+
+            try (ResultSet questResults = questStatement.executeQuery();
+                 ResultSet taskResults = taskStatement.executeQuery()) {
+                boolean hasQuestRow = questResults.next();
+                boolean hasTaskRow = taskResults.next();
+
+                while (hasQuestRow) {
+                    String uuidString = questResults.getString(1);
+                    UUID uuid;
+                    try {
+                        uuid = UUID.fromString(uuidString);
+                    } catch (IllegalArgumentException e) {
+                        uuid = null;
+                    }
+
+                    Map<String, QuestProgress> questProgressMap = new HashMap<>();
+                    while (hasQuestRow && questResults.getString(1).equals(uuidString)) {
+                        String questId = questResults.getString(2);
+                        if (uuid != null && (!validateQuests || presentQuests.containsKey(questId))) {
+                            questProgressMap.put(questId, readQuestProgress(questResults, 2, uuid));
+                        }
+                        hasQuestRow = questResults.next();
+                    }
+
+                    // task rows of players without any quest rows cannot be linked, so are skipped
+                    while (hasTaskRow && taskResults.getString(1).compareTo(uuidString) < 0) {
+                        hasTaskRow = taskResults.next();
+                    }
+                    while (hasTaskRow && taskResults.getString(1).equals(uuidString)) {
+                        if (uuid != null) {
+                            readTaskProgress(taskResults, 2, uuid, questProgressMap, presentQuests, validateQuests);
+                        }
+                        hasTaskRow = taskResults.next();
+                    }
+
+                    if (uuid == null) continue;
+                    QuestProgressFile questProgressFile = new QuestProgressFile(uuid, plugin);
+                    for (QuestProgress questProgress : questProgressMap.values()) {
+                        questProgressFile.addQuestProgress(questProgress);
+                    }
+                    consumer.accept(questProgressFile);
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public boolean saveAllProgressFiles(List<QuestProgressFile> files) {
+        if (fault) return false;
+
+        try {
+            writeProgressFiles(files);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void writeProgressFiles(List<QuestProgressFile> files) throws SQLException {
+        try (Connection connection = hikari.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement writeQuestProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_QUEST_PROGRESS));
+                 PreparedStatement writeTaskProgress = connection.prepareStatement(this.statementProcessor.apply(WRITE_PLAYER_TASK_PROGRESS))) {
+
+                for (QuestProgressFile file : files) {
+                    addProgressFileBatch(file.getPlayerUUID(), file, writeQuestProgress, writeTaskProgress);
+                }
+
+                writeQuestProgress.executeBatch();
+                writeTaskProgress.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private void addProgressFileBatch(UUID uuid, QuestProgressFile questProgressFile, PreparedStatement writeQuestProgress, PreparedStatement writeTaskProgress) throws SQLException {
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (!questProgress.isModified()) continue;
+
+            String questId = questProgress.getQuestId();
+            writeQuestProgress.setString(1, uuid.toString());
+            writeQuestProgress.setString(2, questId);
+            writeQuestProgress.setBoolean(3, questProgress.isStarted());
+            writeQuestProgress.setLong(4, questProgress.getStartedDate());
+            writeQuestProgress.setBoolean(5, questProgress.isCompleted());
+            writeQuestProgress.setBoolean(6, questProgress.isCompletedBefore());
+            writeQuestProgress.setLong(7, questProgress.getCompletionDate());
+            writeQuestProgress.addBatch();
+
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                if (!taskProgress.isModified()) continue;
+                String taskId = taskProgress.getTaskId();
+
+                ProgressType type = taskProgress.getProgressType();
+                if (type == ProgressType.OBJECT) {
+                    plugin.getQuestsLogger().warning("Cannot store progress for task '"
+                            + taskId + "' in quest '" + questId + "' for player " + uuid
+                            + " since type " + taskProgress.getProgress().getClass().getName() + " cannot be encoded!");
+                    continue;
+                }
+                writeTaskProgress.setString(1, uuid.toString());
+                writeTaskProgress.setString(2, questId);
+                writeTaskProgress.setString(3, taskId);
+                writeTaskProgress.setBoolean(4, taskProgress.isCompleted());
+                writeProgress(writeTaskProgress, 5, taskProgress);
+                writeTaskProgress.addBatch();
+            }
+        }
+    }
+
+    private QuestProgress readQuestProgress(ResultSet rs, int offset, UUID uuid) throws SQLException {
+        String questId = rs.getString(offset);
+        boolean started = rs.getBoolean(offset + 1);
+        long startedDate = rs.getLong(offset + 2);
+        boolean completed = rs.getBoolean(offset + 3);
+        boolean completedBefore = rs.getBoolean(offset + 4);
+        long completionDate = rs.getLong(offset + 5);
+
+        return new QuestProgress(plugin, questId, completed, completedBefore, completionDate, uuid, started, startedDate);
+    }
+
+    private void readTaskProgress(ResultSet rs, int offset, UUID uuid, Map<String, QuestProgress> questProgressMap,
+                                  Map<String, Quest> presentQuests, boolean validateQuests) throws SQLException {
+        String questId = rs.getString(offset);
+        String taskId = rs.getString(offset + 1);
+        boolean completed = rs.getBoolean(offset + 2);
+
+        QuestProgress linkedQuestProgress = questProgressMap.get(questId);
+        if (linkedQuestProgress == null) return;
+        if (validateQuests && presentQuests.get(questId).getTaskById(taskId) == null) return;
+
+        Object progress;
+        int typeId = rs.getInt(offset + 3);
+        if (rs.wasNull()) {
+            progress = null;
+        } else {
+            ProgressType type = ProgressType.fromId(typeId);
+            if (type == null) {
+                plugin.getQuestsLogger().warning("Cannot retrieve progress for task '"
+                        + taskId + "' in quest '" + questId + "' for player " + uuid
+                        + ": unknown progress type " + typeId);
+                return;
+            }
+            progress = switch (type) {
+                case INT -> Integer.valueOf((int) rs.getLong(offset + 4));
+                case LONG -> Long.valueOf(rs.getLong(offset + 4));
+                case FLOAT -> Float.valueOf((float) rs.getDouble(offset + 5));
+                case DOUBLE -> Double.valueOf(rs.getDouble(offset + 5));
+                default -> null;
+            };
+        }
+
+        linkedQuestProgress.addTaskProgress(new TaskProgress(linkedQuestProgress, taskId, progress, uuid, completed));
+    }
+
+    private void writeProgress(PreparedStatement ps, int offset, TaskProgress taskProgress) throws SQLException {
+        ProgressType type = taskProgress.getProgressType();
+        if (type == ProgressType.NONE) {
+            ps.setNull(offset, Types.TINYINT);
+        } else {
+            ps.setInt(offset, type.getId());
+        }
+        if (type.isIntegral()) {
+            ps.setLong(offset + 1, taskProgress.getLongProgress());
+        } else {
+            ps.setNull(offset + 1, Types.BIGINT);
+        }
+        if (type.isDecimal()) {
+            ps.setDouble(offset + 2, taskProgress.getDoubleProgress());
+        } else {
+            ps.setNull(offset + 2, Types.DOUBLE);
+        }
+    }
+
+    @Override
+    public boolean isSimilar(StorageProvider provider) {
+        if (!(provider instanceof SqliteStorageProvider other)) {
+            return false;
+        }
+
+        return databaseFile.getAbsoluteFile().equals(other.databaseFile.getAbsoluteFile());
+    }
+
+    private class DatabaseMigrator {
+        private static final String SELECT_SCHEMA_VERSION =
+                "SELECT value FROM `{prefix}database_information` WHERE `key`='schema_version';";
+        private static final String UPDATE_DATABASE_INFORMATION =
+                "INSERT OR REPLACE INTO `{prefix}database_information` (`key`, `value`) VALUES (?,?);";
+        // kept in step with the MySQL schema version; tables are always created at the current version
+        private static final int CURRENT_SCHEMA_VERSION = 3;
+
+        private final Map<Integer, List<String>> migrationStatements = new HashMap<>();
+
+        private final Connection connection;
+
+        public DatabaseMigrator(Connection connection) {
+            this.connection = connection;
+
+            // the sqlite provider was added at schema version 3, so there is nothing to migrate from yet
+        }
+
+        public int getCurrentSchemaVersion() {
+            try (Statement statement = connection.createStatement()) {
+                plugin.getQuestsLogger().debug("Getting current schema version");
+                ResultSet rs = statement.executeQuery(statementProcessor.apply(SELECT_SCHEMA_VERSION));
+                if (rs.next()) {
+                    int version = Integer.parseInt(rs.getString(1));
+                    plugin.getQuestsLogger().debug(() -> "Current schema version: " + version);
+                    return version;
+                } else {
+                    updateSchemaVersion(CURRENT_SCHEMA_VERSION);
+                    return CURRENT_SCHEMA_VERSION;
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        public void upgrade(int initialSchemaVersion) {
+            plugin.getQuestsLogger().debug(() -> "Starting upgrade from version " + initialSchemaVersion + " to " + CURRENT_SCHEMA_VERSION);
+            for (int i = initialSchemaVersion; i < CURRENT_SCHEMA_VERSION; i++) {
+                for (String migrationStatement : migrationStatements.getOrDefault(i, Collections.emptyList())) {
+                    String statement = statementProcessor.apply(migrationStatement);
+                    plugin.getQuestsLogger().debug(() -> "Running migration statement: " + statement);
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(statement);
+                    } catch (SQLException e) {
+                        plugin.getQuestsLogger().severe("Failed to run migration statement (" + i + " -> " + (i + 1) + "): " + statement);
+                        plugin.getQuestsLogger().severe("Quests will attempt to save current migration progress to prevent database corruption, but may not be able to do so");
+                        updateSchemaVersion(i);
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+            updateSchemaVersion(CURRENT_SCHEMA_VERSION);
+        }
+
+        public void updateSchemaVersion(int version) {
+            plugin.getQuestsLogger().debug(() -> "Updating schema version to " + version);
+            try (PreparedStatement stmt = connection.prepareStatement(statementProcessor.apply(UPDATE_DATABASE_INFORMATION))) {
+                stmt.setString(1, "schema_version");
+                stmt.setString(2, String.valueOf(version));
+
+                stmt.execute();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
@@ -15,25 +15,16 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class YamlStorageProvider implements StorageProvider {
 
-    private final Map<UUID, ReentrantLock> locks = new ConcurrentHashMap<>();
     private final BukkitQuestsPlugin plugin;
 
     public YamlStorageProvider(BukkitQuestsPlugin plugin) {
         this.plugin = plugin;
     }
 
-    private ReentrantLock lock(UUID uuid) {
-        locks.putIfAbsent(uuid, new ReentrantLock());
-        ReentrantLock lock = locks.get(uuid);
-        lock.lock();
-        return lock;
-    }
-
     @Override
     public String getName() {
         return "yaml";
@@ -53,7 +44,6 @@ public class YamlStorageProvider implements StorageProvider {
     public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
-        ReentrantLock lock = lock(uuid);
         Map<String, Quest> presentQuests = new HashMap<>(plugin.getQuestManager().getQuests());
         boolean validateQuests = plugin.getQuestsConfig().getBoolean("options.verify-quest-exists-on-load", true);
         
@@ -64,7 +54,7 @@ public class YamlStorageProvider implements StorageProvider {
                 File file = new File(plugin.getDataFolder() + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
                 if (file.exists()) {
                     YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
-                    plugin.getQuestsLogger().debug("Player " + uuid + " has a valid quest progress file.");
+                    plugin.getQuestsLogger().debug(() -> "Player " + uuid + " has a valid quest progress file.");
                     if (data.isConfigurationSection("quest-progress")) { //Same job as "isSet" + it checks if is CfgSection
                         for (String id : data.getConfigurationSection("quest-progress").getKeys(false)) {
                             boolean started = data.getBoolean("quest-progress." + id + ".started");
@@ -93,14 +83,12 @@ public class YamlStorageProvider implements StorageProvider {
                         }
                     }
                 } else {
-                    plugin.getQuestsLogger().debug("Player " + uuid + " does not have a quest progress file.");
+                    plugin.getQuestsLogger().debug(() -> "Player " + uuid + " does not have a quest progress file.");
                 }
             }
         } catch (Exception ex) {
             ex.printStackTrace();
             return null;
-        } finally {
-            lock.unlock();
         }
 
         return questProgressFile;
@@ -110,55 +98,56 @@ public class YamlStorageProvider implements StorageProvider {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        ReentrantLock lock = lock(uuid);
-        try {
-            List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
-            File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
-            if (!directory.exists() && !directory.isDirectory()) {
-                directory.mkdirs();
-            }
-
-            File file = new File(plugin.getDataFolder() + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
-            if (!file.exists()) {
-                try {
-                    file.createNewFile();
-                } catch (IOException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
-            for (QuestProgress questProgress : questProgressValues) {
-                if (!questProgress.isModified()) continue;
-                data.set("quest-progress." + questProgress.getQuestId() + ".started", questProgress.isStarted());
-                data.set("quest-progress." + questProgress.getQuestId() + ".started-date", questProgress.getStartedDate());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completed", questProgress.isCompleted());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completed-before", questProgress.isCompletedBefore());
-                data.set("quest-progress." + questProgress.getQuestId() + ".completion-date", questProgress.getCompletionDate());
-                for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
-                    data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".completed", taskProgress
-                            .isCompleted());
-                    data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".progress", taskProgress
-                            .getProgress());
-                }
-            }
+        List<QuestProgress> questProgressValues = new ArrayList<>(questProgressFile.getAllQuestProgress());
+        File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
+        if (!directory.exists() && !directory.isDirectory()) {
+            directory.mkdirs();
+        }
 
-            plugin.getQuestsLogger().debug("Writing player " + uuid + " to disk.");
+        File file = new File(plugin.getDataFolder() + File.separator + "playerdata" + File.separator + uuid.toString() + ".yml");
+        if (!file.exists()) {
             try {
-                data.save(file);
-                return true;
+                file.createNewFile();
             } catch (IOException e) {
                 e.printStackTrace();
-                return false;
             }
-        } finally {
-            lock.unlock();
+        }
+
+        YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
+        for (QuestProgress questProgress : questProgressValues) {
+            if (!questProgress.isModified()) continue;
+            data.set("quest-progress." + questProgress.getQuestId() + ".started", questProgress.isStarted());
+            data.set("quest-progress." + questProgress.getQuestId() + ".started-date", questProgress.getStartedDate());
+            data.set("quest-progress." + questProgress.getQuestId() + ".completed", questProgress.isCompleted());
+            data.set("quest-progress." + questProgress.getQuestId() + ".completed-before", questProgress.isCompletedBefore());
+            data.set("quest-progress." + questProgress.getQuestId() + ".completion-date", questProgress.getCompletionDate());
+            for (TaskProgress taskProgress : questProgress.getTaskProgress()) {
+                if (!taskProgress.isModified()) continue;
+                data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".completed", taskProgress
+                        .isCompleted());
+                data.set("quest-progress." + questProgress.getQuestId() + ".task-progress." + taskProgress.getTaskId() + ".progress", taskProgress
+                        .getProgress());
+            }
+        }
+
+        plugin.getQuestsLogger().debug(() -> "Writing player " + uuid + " to disk.");
+        try {
+            data.save(file);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
         }
     }
 
     public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
         List<QuestProgressFile> files = new ArrayList<>();
+        loadAllProgressFiles(files::add);
+        return files;
+    }
 
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
         File directory = new File(plugin.getDataFolder() + File.separator + "playerdata");
         FileVisitor<Path> fileVisitor = new SimpleFileVisitor<Path>() {
             @Override
@@ -173,7 +162,7 @@ public class YamlStorageProvider implements StorageProvider {
 
                     QuestProgressFile file = loadProgressFile(uuid);
                     if (file != null) {
-                        files.add(file);
+                        consumer.accept(file);
                     }
                 }
                 return FileVisitResult.CONTINUE;
@@ -185,19 +174,20 @@ public class YamlStorageProvider implements StorageProvider {
         } catch (IOException e) {
             e.printStackTrace();
         }
-
-        return files;
     }
 
     @Override
-    public void saveAllProgressFiles(List<QuestProgressFile> files) {
+    public boolean saveAllProgressFiles(List<QuestProgressFile> files) {
+        boolean saved = true;
         for (QuestProgressFile file : files) {
-            saveProgressFile(file.getPlayerUUID(), file);
+            saved &= saveProgressFile(file.getPlayerUUID(), file);
         }
+        return saved;
     }
 
     @Override
     public boolean isSimilar(StorageProvider provider) {
-        return provider instanceof YamlStorageProvider;
+        // the binary storage provider uses the same folder
+        return provider instanceof YamlStorageProvider || provider instanceof BinaryStorageProvider;
     }
 }
@@ -5,6 +5,7 @@ import org.bukkit.event.Listener;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.UUID;
+import java.util.function.Supplier;
 
 public abstract class BukkitTaskType extends TaskType implements Listener {
 
@@ -23,7 +24,19 @@ public abstract class BukkitTaskType extends TaskType implements Listener {
     }
 
     public final void debug(@NotNull String message, String questId, String taskId, @NotNull UUID player) {
-        taskTypeManager.sendDebug(message, super.getType(), questId, taskId, player);
+        if (taskTypeManager.isDebugging(questId)) {
+            taskTypeManager.sendDebug(message, super.getType(), questId, taskId, player);
+        }
+    }
+
+    /**
+     * Send a debug message which is only built if anybody is debugging the quest. This should be
+     * used instead of {@link #debug(String, String, String, UUID)} for messages which are not constant.
+     */
+    public final void debug(@NotNull Supplier<String> message, String questId, String taskId, @NotNull UUID player) {
+        if (taskTypeManager.isDebugging(questId)) {
+            taskTypeManager.sendDebug(message.get(), super.getType(), questId, taskId, player);
+        }
     }
 
 }
@@ -38,9 +38,25 @@ public class BukkitTaskTypeManager extends TaskTypeManager {
         return false;
     }
 
+    /**
+     * Get if anybody would see debug messages for a quest. This is cheap enough to call before every
+     * debug message, and costs a single volatile read when nobody is debugging.
+     *
+     * @param questId the quest id
+     * @return true if anybody is debugging the quest
+     */
+    public boolean isDebugging(String questId) {
+        return plugin.getPlayerManager().getDebugSubscriptions().hasSubscribers(questId);
+    }
+
     public void sendDebug(@NotNull String message, @NotNull String taskType, @NotNull String questId, @NotNull String taskId, @NotNull UUID associatedPlayer) {
         String chatHeader = null;
-        for (QPlayer qPlayer : plugin.getPlayerManager().getQPlayers()) {
+        for (UUID subscriber : plugin.getPlayerManager().getDebugSubscriptions().getSubscribers(questId)) {
+            QPlayer qPlayer = plugin.getPlayerManager().getPlayer(subscriber);
+            if (qPlayer == null) {
+                continue;
+            }
+
             QPlayerPreferences.DebugType debugType = qPlayer.getPlayerPreferences().getDebug(questId);
             if (debugType == null) {
                 continue;
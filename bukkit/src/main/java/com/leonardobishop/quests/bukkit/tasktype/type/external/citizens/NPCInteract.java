@@ -39,7 +39,7 @@ public final class NPCInteract extends BukkitTaskType {
             int npcId = -1;
             if (npcIdObj instanceof Integer) npcId = (int) npcIdObj;
             if (npcId != event.getNPC().getId()) {
-                super.debug("NPC id ('" + event.getNPC().getId() + "') does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "NPC id ('" + event.getNPC().getId() + "') does not match required id, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
             super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -43,7 +43,7 @@ public class OpenCrate extends BukkitTaskType {
             if (typeObj instanceof String) type = (String) typeObj;
 
             if (!type.equals("") && !type.equals(event.getCrate().getName())) {
-                super.debug("Crate type ('" + event.getCrate().getName() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Crate type ('" + event.getCrate().getName() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -56,7 +56,7 @@ public class OpenCrate extends BukkitTaskType {
 
             taskProgress.setProgress(newProgress);
 
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
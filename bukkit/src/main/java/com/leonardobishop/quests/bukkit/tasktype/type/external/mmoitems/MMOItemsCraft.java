@@ -58,7 +58,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             String type = "";
             if (typeObj instanceof String) type = (String) typeObj;
             if (!type.equalsIgnoreCase(NBTItem.get(item).getType())) {
-                super.debug("MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -67,7 +67,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             String id = "";
             if (idObj instanceof String) id = (String) idObj;
             if (!id.equals("") && !id.equalsIgnoreCase(NBTItem.get(item).getString("MMOITEMS_ITEM_ID"))) {
-                super.debug("MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -80,7 +80,7 @@ public class MMOItemsCraft extends BukkitTaskType {
 
             taskProgress.setProgress(newProgress);
 
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -117,7 +117,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             String type = "";
             if (typeObj instanceof String) type = (String) typeObj;
             if (!type.equalsIgnoreCase(NBTItem.get(item).getType())) {
-                super.debug("MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
             // 判断物品ID 如果config里的配置获取的是空值则跳过该判断
@@ -125,7 +125,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             String id = "";
             if (idObj instanceof String) id = (String) idObj;
             if (!id.equals("") && !id.equalsIgnoreCase(NBTItem.get(item).getString("MMOITEMS_ITEM_ID"))) {
-                super.debug("MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -138,7 +138,7 @@ public class MMOItemsCraft extends BukkitTaskType {
 
             taskProgress.setProgress(newProgress);
 
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -181,7 +181,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             if (typeObj instanceof String) type = (String) typeObj;
 
             if (!type.equalsIgnoreCase(NBTItem.get(item).getType())) {
-                super.debug("MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems type ('" + NBTItem.get(item).getType() + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
             // 判断物品ID 如果config里的配置获取的是空值则跳过该判断
@@ -189,7 +189,7 @@ public class MMOItemsCraft extends BukkitTaskType {
             String id = "";
             if (idObj instanceof String) id = (String) idObj;
             if (!id.equals("") && !id.equalsIgnoreCase(NBTItem.get(item).getString("MMOITEMS_ITEM_ID"))) {
-                super.debug("MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "MMOItems id ('" + NBTItem.get(item).getString("MMOITEMS_ITEM_ID") + "') does not match required type, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -202,7 +202,7 @@ public class MMOItemsCraft extends BukkitTaskType {
 
             taskProgress.setProgress(newProgress);
 
-            super.debug("Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -103,7 +103,7 @@ public final class Kill extends BukkitTaskType {
             int minMobLevel = (int) task.getConfigValue("min-level", -1);
             int requiredLevel = (int) task.getConfigValue("level", -1);
 
-            super.debug("Player killed mythic mob '" + mobName + "' (level = " + level + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player killed mythic mob '" + mobName + "' (level = " + level + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (!mobName.equals(configName)) {
                 super.debug("Name does not match required name, continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -123,7 +123,7 @@ public final class Kill extends BukkitTaskType {
             int mobKillsNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= mobKillsNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
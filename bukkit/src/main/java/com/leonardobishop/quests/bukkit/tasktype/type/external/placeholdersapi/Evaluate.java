@@ -10,18 +10,37 @@ import com.leonardobishop.quests.common.quest.Task;
 import me.clip.placeholderapi.PlaceholderAPI;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
+/**
+ * Placeholders are evaluated on the main thread, a few players at a time. Every interval, each online player is
+ * queued, and the queue is drained each tick until the time budget is used. A placeholder used by several tasks
+ * is only evaluated once for each player, and tasks are only updated if a value or the player's tasks changed
+ * since the player was last evaluated.
+ */
 public final class Evaluate extends BukkitTaskType {
 
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("^[0-9]+(\\.[0-9]+)?$");
+
     private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, EvaluatedState> evaluatedStates = new HashMap<>();
+    private final ArrayDeque<UUID> queue = new ArrayDeque<>();
     private BukkitTask bukkitTask;
+    private long budgetNanos;
+    private int interval;
+    private int ticksUntilQueued;
 
     public Evaluate(BukkitQuestsPlugin plugin) {
         super("placeholderapi_evaluate", TaskUtils.TASK_ATTRIBUTION_STRING, "Evaluate the result of a placeholder");
@@ -32,62 +51,123 @@ public final class Evaluate extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useRequiredConfigValidator(this, "operator"));
     }
 
+    @Override
+    public EvaluateConfig compileTask(@NotNull Task task) {
+        Object placeholder = task.getConfigValue("placeholder");
+        Object evaluates = task.getConfigValue("evaluates");
+        Object operator = task.getConfigValue("operator");
+
+        String expected = evaluates == null ? null : String.valueOf(evaluates);
+        double threshold = expected != null && NUMBER_PATTERN.matcher(expected).matches() ? Double.parseDouble(expected) : Double.NaN;
+        return new EvaluateConfig(placeholder == null ? null : String.valueOf(placeholder), expected,
+                operator == null ? null : getOperator(String.valueOf(operator)), threshold);
+    }
+
+    @Override
     public void onLoad() {
+        interval = Math.max(1, plugin.getQuestsConfig().getInt("options.performance-tweaking.placeholder-evaluate-interval", 40));
+        budgetNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, plugin.getQuestsConfig().getInt("options.performance-tweaking.placeholder-evaluate-budget", 500)));
+        // tasks are replaced when quests are reloaded
+        evaluatedStates.clear();
+
         if (bukkitTask != null) return;
-        bukkitTask = new BukkitRunnable() {
-            @Override
-            public void run() {
-                for (Player player : Bukkit.getOnlinePlayers()) {
-                    QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-                    if (!player.isOnline() || qPlayer == null) continue;
-                    handle(player, qPlayer);
-                }
+        ticksUntilQueued = interval;
+        bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    @Override
+    public void onDisable() {
+        if (bukkitTask != null) {
+            bukkitTask.cancel();
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        evaluatedStates.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void tick() {
+        // the next players are only queued once all previously queued players have been evaluated
+        if (--ticksUntilQueued <= 0 && queue.isEmpty()) {
+            ticksUntilQueued = interval;
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                queue.add(player.getUniqueId());
             }
-        }.runTaskTimerAsynchronously(plugin, 40L, 40L);
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        while (!queue.isEmpty()) {
+            evaluate(queue.poll());
+            if (System.nanoTime() - deadline >= 0) break;
+        }
     }
 
-    private void handle(Player player, QPlayer qPlayer) {
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, Evaluate.this)) {
+    private void evaluate(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player == null || player.hasMetadata("NPC")) return;
+
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
+        if (qPlayer == null) return;
+
+        List<TaskUtils.PendingTask> pendingTasks = TaskUtils.getApplicableTasks(player, qPlayer, this);
+        if (pendingTasks.isEmpty()) {
+            evaluatedStates.remove(uuid);
+            return;
+        }
+
+        List<Task> tasks = new ArrayList<>(pendingTasks.size());
+        Map<String, String> values = new HashMap<>();
+        for (TaskUtils.PendingTask pendingTask : pendingTasks) {
+            Task task = pendingTask.task();
+            tasks.add(task);
+
+            EvaluateConfig config = task.getCompiledConfig() instanceof EvaluateConfig compiledConfig ? compiledConfig : compileTask(task);
+            if (config.placeholder() != null) {
+                values.computeIfAbsent(config.placeholder(), placeholder -> PlaceholderAPI.setPlaceholders(player, placeholder));
+            }
+        }
+
+        EvaluatedState previous = evaluatedStates.put(uuid, new EvaluatedState(tasks, values));
+        if (previous != null && previous.tasks().equals(tasks) && previous.values().equals(values)) {
+            return;
+        }
+
+        for (TaskUtils.PendingTask pendingTask : pendingTasks) {
+            Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
-            String placeholder = (String) task.getConfigValue("placeholder");
 
-            Object eval = task.getConfigValue("evaluates");
-            Operator operator = getOperator((String) task.getConfigValue("operator"));
+            EvaluateConfig config = task.getCompiledConfig() instanceof EvaluateConfig compiledConfig ? compiledConfig : compileTask(task);
+            if (config.placeholder() == null || config.expected() == null || config.operator() == null) {
+                continue;
+            }
 
-            if (placeholder != null && eval != null) {
-                String parse = PlaceholderAPI.setPlaceholders(player, placeholder);
-                // 如果符号是等于或者不等于
-                if ((operator == Operator.EQUAL && parse.equals(String.valueOf(eval)))) {
-                    taskProgress.setCompleted(true);
-                    return;
-                }
-                if (operator == Operator.NOT_EQUAL && !parse.equals(String.valueOf(eval))) {
-                    taskProgress.setCompleted(true);
-                    return;
-                }
+            String value = values.get(config.placeholder());
+            super.debug(() -> "Placeholder " + config.placeholder() + " evaluated to " + value, quest.getId(), task.getId(), player.getUniqueId());
 
-                if (!((String) eval).matches("^[0-9]+(\\.[0-9]+)?$")) continue;
-                double numReq = Double.parseDouble((String) eval);
-
-                if (!parse.matches("^[0-9]+(\\.[0-9]+)?$")) continue;
-                double numHas = Double.parseDouble(parse);
-
-                taskProgress.setProgress(numHas);
-                switch (operator) {
-                    case GREATER_THAN -> {
-                        if (numReq < numHas) taskProgress.setCompleted(true);
-                    }
-                    case LESS_THAN -> {
-                        if (numReq > numHas) taskProgress.setCompleted(true);
-                    }
-                    case GREATER_THAN_OR_EQUAL_TO -> {
-                        if (numReq <= numHas) taskProgress.setCompleted(true);
-                    }
-                    case LESS_THAN_OR_EQUAL_TO -> {
-                        if (numReq >= numHas) taskProgress.setCompleted(true);
-                    }
-                }
+            if (config.operator() == Operator.EQUAL && value.equals(config.expected())
+                    || config.operator() == Operator.NOT_EQUAL && !value.equals(config.expected())) {
+                super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
+                taskProgress.setCompleted(true);
+                continue;
+            }
+
+            if (Double.isNaN(config.threshold()) || !NUMBER_PATTERN.matcher(value).matches()) continue;
+            double numHas = Double.parseDouble(value);
+            double numReq = config.threshold();
+
+            taskProgress.setProgress(numHas);
+            boolean completed = switch (config.operator()) {
+                case GREATER_THAN -> numReq < numHas;
+                case LESS_THAN -> numReq > numHas;
+                case GREATER_THAN_OR_EQUAL_TO -> numReq <= numHas;
+                case LESS_THAN_OR_EQUAL_TO -> numReq >= numHas;
+                default -> false;
+            };
+            if (completed) {
+                super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
+                taskProgress.setCompleted(true);
             }
         }
     }
@@ -100,10 +180,20 @@ public final class Evaluate extends BukkitTaskType {
             case ">" -> Operator.GREATER_THAN;
             case "<=" -> Operator.LESS_THAN_OR_EQUAL_TO;
             case "<" -> Operator.LESS_THAN;
-            default -> Operator.valueOf(string);
+            default -> {
+                try {
+                    yield Operator.valueOf(string);
+                } catch (IllegalArgumentException e) {
+                    yield null;
+                }
+            }
         };
     }
 
+    private record EvaluateConfig(String placeholder, String expected, Operator operator, double threshold) { }
+
+    private record EvaluatedState(List<Task> tasks, Map<String, String> values) { }
+
     enum Operator {
         EQUAL, NOT_EQUAL, GREATER_THAN, LESS_THAN, GREATER_THAN_OR_EQUAL_TO, LESS_THAN_OR_EQUAL_TO;
     }
@@ -17,6 +17,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.jetbrains.annotations.NotNull;
 
 public final class BlockBreak extends BukkitTaskType {
 
@@ -39,6 +40,11 @@ public final class BlockBreak extends BukkitTaskType {
             plugin.getServer().getPluginManager().registerEvents(new CustomBlockMineListener(), plugin);
     }
 
+    @Override
+    public TaskUtils.BlockMatcher compileTask(@NotNull Task task) {
+        return TaskUtils.compileBlockMatcher(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
         handle(event.getPlayer(), event.getBlock());
@@ -67,7 +73,7 @@ public final class BlockBreak extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player mined block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player mined block " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
                 boolean coreProtectEnabled = (boolean) task.getConfigValue("check-coreprotect", false);
@@ -79,7 +85,7 @@ public final class BlockBreak extends BukkitTaskType {
 
                 Runnable increment = () -> {
                     int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                    super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                     int blocksNeeded = (int) task.getConfigValue("amount");
 
@@ -99,7 +105,7 @@ public final class BlockBreak extends BukkitTaskType {
                             increment.run();
                         }
                     }).exceptionally(ex -> {
-                        super.debug("CoreProtect lookup failed: " + ex.getMessage(), quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "CoreProtect lookup failed: " + ex.getMessage(), quest.getId(), task.getId(), player.getUniqueId());
                         ex.printStackTrace();
                         return null;
                     });
@@ -128,15 +134,15 @@ public final class BlockBreak extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player placed block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
+            super.debug(() -> "Player placed block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
 
 
             if (task.getConfigValue("reverse-if-placed") != null && ((boolean) task.getConfigValue("reverse-if-placed"))) {
                 super.debug("reverse-if-placed is enabled, checking block", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
                 if (TaskUtils.matchBlock(this, pendingTask, event.getBlock(), player.getUniqueId())) {
-                    int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
-                    taskProgress.setProgress(--progress);
-                    super.debug("Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                    int progress = TaskUtils.getIntegerTaskProgress(taskProgress) - 1;
+                    taskProgress.setProgress(progress);
+                    super.debug(() -> "Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
                 }
             }
         }
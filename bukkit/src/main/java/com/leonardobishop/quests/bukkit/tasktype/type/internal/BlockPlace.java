@@ -12,6 +12,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.jetbrains.annotations.NotNull;
 
 public final class BlockPlace extends BukkitTaskType {
 
@@ -29,6 +30,11 @@ public final class BlockPlace extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useBooleanConfigValidator(this, "use-similar-blocks"));
     }
 
+    @Override
+    public TaskUtils.BlockMatcher compileTask(@NotNull Task task) {
+        return TaskUtils.compileBlockMatcher(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
         if (event.getPlayer().hasMetadata("NPC")) return;
@@ -45,11 +51,11 @@ public final class BlockPlace extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player placed block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
+            super.debug(() -> "Player placed block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
 
             if (TaskUtils.matchBlock(this, pendingTask, event.getBlock(), player.getUniqueId())) {
                 int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 int blocksNeeded = (int) task.getConfigValue("amount");
 
@@ -78,15 +84,15 @@ public final class BlockPlace extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player mined block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
+            super.debug(() -> "Player mined block " + event.getBlock().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
 
 
             if (task.getConfigValue("reverse-if-broken") != null && ((boolean) task.getConfigValue("reverse-if-broken"))) {
                 super.debug("reverse-if-broken is enabled, checking block", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
                 if (TaskUtils.matchBlock(this, pendingTask, event.getBlock(), player.getUniqueId())) {
-                    int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
-                    taskProgress.setProgress(--progress);
-                    super.debug("Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                    int progress = TaskUtils.getIntegerTaskProgress(taskProgress) - 1;
+                    taskProgress.setProgress(progress);
+                    super.debug(() -> "Decrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
                 }
             }
         }
@@ -12,6 +12,7 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.jetbrains.annotations.NotNull;
 
 public final class BlockShear extends BukkitTaskType {
 
@@ -26,6 +27,11 @@ public final class BlockShear extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useMaterialListConfigValidator(this, "block", "blocks"));
     }
 
+    @Override
+    public TaskUtils.BlockMatcher compileTask(@NotNull Task task) {
+        return TaskUtils.compileBlockMatcher(task);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerShearBlock(PlayerShearBlockEvent event) {
         Player player = event.getPlayer();
@@ -44,7 +50,7 @@ public final class BlockShear extends BukkitTaskType {
             TaskProgress taskProgress = pendingTask.taskProgress();
 
             Block block = event.getBlock();
-            super.debug("Player sheared a block, current block is " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player sheared a block, current block is " + block.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -52,7 +58,7 @@ public final class BlockShear extends BukkitTaskType {
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int amount = (int) task.getConfigValue("amount");
             if (progress >= amount) {
@@ -60,11 +60,11 @@ public final class Breed extends BukkitTaskType {
                     List<String> configEntities = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("mob") ? "mob" : "mobs");
 
                     if (!configEntities.isEmpty()) {
-                        super.debug("List of required entities exists; mob type is " + current.getType(), quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "List of required entities exists; mob type is " + current.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
                         boolean validMob = false;
                         for (String entry : configEntities) {
-                            super.debug("Checking against mob '" + entry + "'", quest.getId(), task.getId(), player.getUniqueId());
+                            super.debug(() -> "Checking against mob '" + entry + "'", quest.getId(), task.getId(), player.getUniqueId());
                             try {
                                 EntityType entity = EntityType.valueOf(entry);
                                 if (current.getType() == entity) {
@@ -84,7 +84,7 @@ public final class Breed extends BukkitTaskType {
 
 
                     int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                    super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                     int breedingNeeded = (int) task.getConfigValue("amount");
 
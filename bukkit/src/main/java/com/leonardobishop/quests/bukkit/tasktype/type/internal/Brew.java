@@ -11,7 +11,6 @@ import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
@@ -22,14 +21,12 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.UUID;
 
 public final class Brew extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
-    private final HashMap<Location, UUID> brewingStands = new HashMap<>();
     private final Table<String, String, QuestItem> fixedQuestItemCache = HashBasedTable.create();
 
     public Brew(BukkitQuestsPlugin plugin) {
@@ -51,14 +48,14 @@ public final class Brew extends BukkitTaskType {
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPlayerInteract(PlayerInteractEvent event) {
         if (event.getAction() == Action.RIGHT_CLICK_BLOCK && event.getClickedBlock().getType() == Material.BREWING_STAND) {
-            brewingStands.put(event.getClickedBlock().getLocation(), event.getPlayer().getUniqueId());
+            plugin.getBlockOwnershipTracker().setOwner(event.getClickedBlock(), event.getPlayer().getUniqueId());
         }
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBrew(BrewEvent event) {
         UUID uuid;
-        if ((uuid = brewingStands.get(event.getBlock().getLocation())) == null) {
+        if ((uuid = plugin.getBlockOwnershipTracker().getOwner(event.getBlock())) == null) {
             return;
         }
 
@@ -76,12 +73,13 @@ public final class Brew extends BukkitTaskType {
         final ItemStack[] contents = event.getContents().getContents();
         final List<ItemStack> results = Arrays.asList(event.getContents().getContents());
 
-        int eventAmount = 0;
+        int brewedPotions = 0;
         for (int i = 0; i < results.size(); i++) {
             if (contents[i] != null && !contents[i].isSimilar(results.get(i))) {
-                eventAmount++;
+                brewedPotions++;
             }
         }
+        final int eventAmount = brewedPotions;
 
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskUtils.TaskConstraint.WORLD)) {
             Quest quest = pendingTask.quest();
@@ -96,7 +94,7 @@ public final class Brew extends BukkitTaskType {
                     qi = fetchedItem;
                 }
 
-                super.debug("Player brewed " + eventAmount + " potions" + (ingredient != null ? " using " + ingredient.getType() : ""), quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player brewed " + eventAmount + " potions" + (ingredient != null ? " using " + ingredient.getType() : ""), quest.getId(), task.getId(), player.getUniqueId());
 
                 if (!qi.compareItemStack(ingredient)) {
                     super.debug("Ingredient does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -108,9 +106,9 @@ public final class Brew extends BukkitTaskType {
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             taskProgress.setProgress(progress + eventAmount);
-            super.debug("Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
@@ -38,17 +38,17 @@ public abstract class BucketInteract extends BukkitTaskType {
             Object configBucket = task.getConfigValue("bucket");
             Material material = Material.getMaterial((String) configBucket);
 
-            super.debug("Player used bucket of type " + bucket, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player used bucket of type " + bucket, quest.getId(), task.getId(), player.getUniqueId());
 
             if (bucket != material) {
-                super.debug("Player bucket does not match required bucket '" + material + "', continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Player bucket does not match required bucket '" + material + "', continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setCompleted(true);
             }
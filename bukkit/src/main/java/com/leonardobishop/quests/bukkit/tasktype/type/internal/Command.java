@@ -45,18 +45,15 @@ public final class Command extends BukkitTaskType {
             boolean ignoreCasing = TaskUtils.getConfigBoolean(task, "ignore-case");
             List<String> commands = TaskUtils.getConfigStringList(task, "command");
 
-            String message = e.getMessage();
-            if (message.length() >= 1) {
-                message = message.substring(1);
-            }
+            String message = e.getMessage().length() >= 1 ? e.getMessage().substring(1) : e.getMessage();
 
-            super.debug("Player sent command '/" + message + "'", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player sent command '/" + message + "'", quest.getId(), task.getId(), player.getUniqueId());
 
             for (String command : commands) {
-                super.debug("Checking command against '/" + command + "' (ignore case = " + ignoreCasing + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Checking command against '/" + command + "' (ignore case = " + ignoreCasing + ")", quest.getId(), task.getId(), player.getUniqueId());
                 if ((ignoreCasing && command.equalsIgnoreCase(message))
                     || (!ignoreCasing && command.equals(message))) {
-                    super.debug("Command '/" + message + "' matches task command '" + command + "'", quest.getId(), task.getId(), player.getUniqueId());
+                    super.debug(() -> "Command '/" + message + "' matches task command '" + command + "'", quest.getId(), task.getId(), player.getUniqueId());
                     super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                     taskProgress.setCompleted(true);
                 }
@@ -63,14 +63,14 @@ public final class Consume extends BukkitTaskType {
                 qi = fetchedItem;
             }
 
-            super.debug("Player consumed item of type " + event.getItem().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
+            super.debug(() -> "Player consumed item of type " + event.getItem().getType(), quest.getId(), task.getId(), event.getPlayer().getUniqueId());
             if (!qi.compareItemStack(event.getItem())) {
                 super.debug("Item does not match required item, continuing...", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
 
             if (progress >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
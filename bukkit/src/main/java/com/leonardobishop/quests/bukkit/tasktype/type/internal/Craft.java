@@ -61,7 +61,7 @@ public final class Craft extends BukkitTaskType {
 
         ItemStack item = event.getCurrentItem();
 
-        int eventAmount = item.getAmount();
+        int eventAmount;
         if (event.isShiftClick() && event.getClick() != ClickType.CONTROL_DROP) { // https://github.com/LMBishop/Quests/issues/317
             int maxAmount = event.getInventory().getMaxStackSize();
             ItemStack[] matrix = event.getInventory().getMatrix();
@@ -73,11 +73,12 @@ public final class Craft extends BukkitTaskType {
                     }
                 }
             }
-            eventAmount *= maxAmount;
-            eventAmount = Math.min(eventAmount, plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
+            eventAmount = Math.min(item.getAmount() * maxAmount, plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
             if (eventAmount == 0) {
                 return;
             }
+        } else {
+            eventAmount = item.getAmount();
         }
 
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskUtils.TaskConstraint.WORLD)) {
@@ -92,7 +93,7 @@ public final class Craft extends BukkitTaskType {
                 qi = fetchedItem;
             }
 
-            super.debug("Player crafted " + eventAmount + " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player crafted " + eventAmount + " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (!qi.compareItemStack(item)) {
                 super.debug("Item does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -103,9 +104,9 @@ public final class Craft extends BukkitTaskType {
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             taskProgress.setProgress(progress + eventAmount);
-            super.debug("Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
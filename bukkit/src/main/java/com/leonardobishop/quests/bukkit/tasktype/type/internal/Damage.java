@@ -49,11 +49,11 @@ public final class Damage extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player damaged " + entity.getType() + " for " + damage, quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player damaged " + entity.getType() + " for " + damage, quest.getId(), task.getId(), player.getUniqueId());
 
             boolean allowOnlyCreatures = TaskUtils.getConfigBoolean(task, "allow-only-creatures", true);
             if (allowOnlyCreatures && !(event.getEntity() instanceof Creature)) {
-                super.debug(entity.getType() + " is not a creature but allow-only-creatures is true, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> entity.getType() + " is not a creature but allow-only-creatures is true, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
@@ -61,11 +61,11 @@ public final class Damage extends BukkitTaskType {
             int damageNeeded = (int) task.getConfigValue("amount");
 
             taskProgress.setProgress(progressDamage + damage);
-            super.debug("Updating task progress (now " + (progressDamage + damage) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progressDamage + damage) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (((double) taskProgress.getProgress()) >= (double) damageNeeded) {
+            if (taskProgress.getDoubleProgress() >= damageNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
-                taskProgress.setProgress(damageNeeded);
+                taskProgress.setProgress((double) damageNeeded);
                 taskProgress.setCompleted(true);
             }
         }
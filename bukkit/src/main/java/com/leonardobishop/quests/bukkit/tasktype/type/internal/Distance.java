@@ -7,17 +7,20 @@ import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
-import org.bukkit.Bukkit;
 import org.bukkit.Location;
-import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashSet;
+import java.util.Set;
 
 public final class Distance extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private final Set<String> worlds = new HashSet<>();
 
     public Distance(BukkitQuestsPlugin plugin) {
         super("distancefrom", TaskUtils.TASK_ATTRIBUTION_STRING, "Distance yourself from a set of co-ordinates.");
@@ -33,20 +36,26 @@ public final class Distance extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useIntegerConfigValidator(this, "distance"));
     }
 
-    //    private HashMap<String, HashMap<String, Integer>> distanceSquaredCache = new HashMap<>();
-//
-//    @Override
-//    public void onReady() {
-//        distanceSquaredCache.clear();
-//        for (Quest quest : super.getRegisteredQuests()) {
-//            HashMap<String, Integer> squaredDistances = new HashMap<>();
-//            for (Task task : quest.getTasksOfType(super.getType())) {
-//                int distance = (int) task.getConfigValue("distance");
-//                squaredDistances.put(task.getId(), distance);
-//            }
-//            distanceSquaredCache.put(quest.getId(), squaredDistances);
-//        }
-//    }
+    @Override
+    public DistanceConfig compileTask(@NotNull Task task) {
+        int distance = (int) task.getConfigValue("distance");
+        return new DistanceConfig((String) task.getConfigValue("world"),
+                (int) task.getConfigValue("x"), (int) task.getConfigValue("y"), (int) task.getConfigValue("z"),
+                distance * distance);
+    }
+
+    @Override
+    public void onLoad() {
+        worlds.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                DistanceConfig config = task.getCompiledConfig() instanceof DistanceConfig compiledConfig ? compiledConfig : compileTask(task);
+                if (config.world() != null) {
+                    worlds.add(config.world());
+                }
+            }
+        }
+    }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onMove(PlayerMoveEvent event) {
@@ -54,6 +63,11 @@ public final class Distance extends BukkitTaskType {
             return;
         }
 
+        // no task can be completed in a world without targets
+        if (!worlds.contains(event.getTo().getWorld().getName())) {
+            return;
+        }
+
         if (event.getPlayer().hasMetadata("NPC")) return;
         Player player = event.getPlayer();
 
@@ -62,6 +76,9 @@ public final class Distance extends BukkitTaskType {
             return;
         }
 
+        Location location = event.getTo();
+        String worldName = location.getWorld().getName();
+
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
@@ -69,29 +86,26 @@ public final class Distance extends BukkitTaskType {
 
             super.debug("Player moved", quest.getId(), task.getId(), player.getUniqueId());
 
-            String worldString = (String) task.getConfigValue("world");
-            World world = Bukkit.getWorld(worldString);
-            if (!player.getWorld().equals(world)) {
-                super.debug("World " + worldString + " does not exist or isn't the player world, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+            DistanceConfig config = task.getCompiledConfig() instanceof DistanceConfig compiledConfig ? compiledConfig : compileTask(task);
+            if (!worldName.equals(config.world())) {
+                super.debug(() -> "World " + config.world() + " does not exist or isn't the player world, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
-            int x = (int) task.getConfigValue("x");
-            int y = (int) task.getConfigValue("y");
-            int z = (int) task.getConfigValue("z");
-            int distance = (int) task.getConfigValue("distance");
-            int distanceSquared = distance * distance;
-
-            Location location = new Location(world, x, y, z);
-            double playerDistanceSquared = player.getLocation().distanceSquared(location);
+            double dx = location.getX() - config.x();
+            double dy = location.getY() - config.y();
+            double dz = location.getZ() - config.z();
+            double playerDistanceSquared = dx * dx + dy * dy + dz * dz;
 
-            super.debug("Player is " + playerDistanceSquared + "m squared away", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player is " + playerDistanceSquared + "m squared away", quest.getId(), task.getId(), player.getUniqueId());
 
-            if (playerDistanceSquared > distanceSquared) {
+            if (playerDistanceSquared > config.distanceSquared()) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setCompleted(true);
             }
         }
     }
 
+    private record DistanceConfig(String world, int x, int y, int z, int distanceSquared) { }
+
 }
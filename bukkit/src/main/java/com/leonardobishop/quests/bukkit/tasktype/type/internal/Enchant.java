@@ -65,27 +65,27 @@ public final class Enchant extends BukkitTaskType {
                 for (String enchantment : enchantments) {
                     Enchantment enchantmentObject = Enchantment.getByName(enchantment);
                     if (enchantmentObject == null) {
-                        super.debug("Enchantment '" + enchantment + "' does not exist, skipping...", quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "Enchantment '" + enchantment + "' does not exist, skipping...", quest.getId(), task.getId(), player.getUniqueId());
                         continue;
                     }
                     if (e.getEnchantsToAdd().containsKey(enchantmentObject)) {
-                        super.debug("Enchantments to add contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "Enchantments to add contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
                         if (task.hasConfigKey("min-level")) {
                             int level = (int) task.getConfigValue("min-level");
-                            super.debug("Minimum level of " + level + " is specified", quest.getId(), task.getId(), player.getUniqueId());
+                            super.debug(() -> "Minimum level of " + level + " is specified", quest.getId(), task.getId(), player.getUniqueId());
                             if (e.getEnchantsToAdd().get(enchantmentObject) >= level) {
                                 hasEnchantment = true;
                                 super.debug("Item has minimum required level", quest.getId(), task.getId(), player.getUniqueId());
                                 break;
                             } else {
-                                super.debug("Item does not have minimum level (level = " + e.getEnchantsToAdd().get(enchantmentObject) + ")", quest.getId(), task.getId(), player.getUniqueId());
+                                super.debug(() -> "Item does not have minimum level (level = " + e.getEnchantsToAdd().get(enchantmentObject) + ")", quest.getId(), task.getId(), player.getUniqueId());
                             }
                         } else {
                             hasEnchantment = true;
                             break;
                         }
                     } else {
-                        super.debug("Enchantments to add does not contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
+                        super.debug(() -> "Enchantments to add does not contains enchantment '" + enchantment + "'", quest.getId(), task.getId(), player.getUniqueId());
                     }
                 }
             }
@@ -98,7 +98,7 @@ public final class Enchant extends BukkitTaskType {
             int enchantsNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (progress >= enchantsNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
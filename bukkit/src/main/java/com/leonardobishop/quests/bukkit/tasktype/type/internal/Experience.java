@@ -42,14 +42,14 @@ public final class Experience extends BukkitTaskType {
 
             int amountEarned = e.getAmount();
 
-            super.debug("Player earned " + amountEarned + " XP", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player earned " + amountEarned + " XP", quest.getId(), task.getId(), player.getUniqueId());
 
             int expNeeded = (int) task.getConfigValue("amount");
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             int newProgress = progress + amountEarned;
             taskProgress.setProgress(newProgress);
-            super.debug("Updating task progress (now " + (newProgress) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (newProgress) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             if (newProgress >= expNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
@@ -16,6 +16,7 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
 
 public final class Interact extends BukkitTaskType {
 
@@ -33,6 +34,11 @@ public final class Interact extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useIntegerConfigValidator(this, "data"));
     }
 
+    @Override
+    public TaskUtils.BlockMatcher compileTask(@NotNull Task task) {
+        return TaskUtils.compileBlockMatcher(task);
+    }
+
     @Override
     public void onLoad() {
         fixedQuestItemCache.clear();
@@ -58,7 +64,7 @@ public final class Interact extends BukkitTaskType {
 
             if (task.hasConfigKey("item")) {
                 ItemStack held = event.getItem();
-                super.debug("Item is required, current item is " + (held == null ? "null" : held.getType()) , quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Item is required, current item is " + (held == null ? "null" : held.getType()) , quest.getId(), task.getId(), player.getUniqueId());
                 QuestItem qi;
                 if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
                     QuestItem fetchedItem = TaskUtils.getConfigQuestItem(task, "item", "data");
@@ -75,14 +81,14 @@ public final class Interact extends BukkitTaskType {
 
             Block block = event.getClickedBlock();
 
-            super.debug("Current clicked block is " + (block == null ? "null" : block.getType()), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Current clicked block is " + (block == null ? "null" : block.getType()), quest.getId(), task.getId(), player.getUniqueId());
             if (!TaskUtils.matchBlock(this, pendingTask, block, player.getUniqueId())) {
                 super.debug("Continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int breedingNeeded = (int) task.getConfigValue("amount");
 
@@ -111,7 +111,7 @@ public final class Inventory extends BukkitTaskType {
 
             int total;
             int[] amountPerSlot = TaskUtils.getAmountsPerSlot(player, qi);
-            super.debug("Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player has " + amountPerSlot[36] + " of the required item", quest.getId(), task.getId(), player.getUniqueId());
 
             if (allowPartial) {
                 total = Math.min(amountPerSlot[36], itemsNeeded - progress);
@@ -125,11 +125,11 @@ public final class Inventory extends BukkitTaskType {
                 TaskUtils.removeItemsInSlots(player, amountPerSlot, total);
                 super.debug("Removing items from inventory", quest.getId(), task.getId(), player.getUniqueId());
 
-                progress += total;
-                taskProgress.setProgress(progress);
-                super.debug("Updating task progress (now " + (progress) + ")", quest.getId(), task.getId(), player.getUniqueId());
+                int newProgress = progress + total;
+                taskProgress.setProgress(newProgress);
+                super.debug(() -> "Updating task progress (now " + newProgress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-                if (progress >= itemsNeeded) {
+                if (newProgress >= itemsNeeded) {
                     taskProgress.setCompleted(true);
                     super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 }
@@ -16,8 +16,13 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.inventory.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public final class KillMob extends BukkitTaskType {
 
@@ -40,6 +45,28 @@ public final class KillMob extends BukkitTaskType {
         fixedQuestItemCache.clear();
     }
 
+    @Override
+    public KillMobConfig compileTask(@NotNull Task task) {
+        Boolean hostile = task.hasConfigKey("hostile") ? TaskUtils.getConfigBoolean(task, "hostile") : null;
+
+        List<String> configEntities = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("mob") ? "mob" : "mobs");
+        Set<EntityType> mobs = EnumSet.noneOf(EntityType.class);
+        for (String entry : configEntities) {
+            try {
+                mobs.add(EntityType.valueOf(entry));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+
+        List<String> configNames = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("name") ? "name" : "names");
+        List<String> names = new ArrayList<>(configNames.size());
+        for (String name : configNames) {
+            names.add(Chat.legacyColor(name));
+        }
+
+        return new KillMobConfig((int) task.getConfigValue("amount"), hostile, !configEntities.isEmpty(), mobs, names);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onMobKill(EntityDeathEvent event) {
         Player killer = event.getEntity().getKiller();
@@ -65,12 +92,12 @@ public final class KillMob extends BukkitTaskType {
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player killed " + mob.getType(), quest.getId(), task.getId(), killer.getUniqueId());
+            super.debug(() -> "Player killed " + mob.getType(), quest.getId(), task.getId(), killer.getUniqueId());
 
-            List<String> configEntities = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("mob") ? "mob" : "mobs");
+            KillMobConfig config = task.getCompiledConfig() instanceof KillMobConfig compiledConfig ? compiledConfig : compileTask(task);
 
-            if (task.hasConfigKey("hostile")) {
-                boolean hostile = TaskUtils.getConfigBoolean(task, "hostile");
+            if (config.hostile() != null) {
+                boolean hostile = config.hostile();
 
                 if (!hostile && !(mob instanceof Animals)) {
                     super.debug("Mob must be passive, but is hostile, continuing...", quest.getId(), task.getId(), killer.getUniqueId());
@@ -82,39 +109,24 @@ public final class KillMob extends BukkitTaskType {
 
             }
 
-            if (!configEntities.isEmpty()) {
-                super.debug("List of required names entities; mob type is " + mob.getType(), quest.getId(), task.getId(), killer.getUniqueId());
-
-                boolean validMob = false;
-                for (String entry : configEntities) {
-                    super.debug("Checking against mob '" + entry + "'", quest.getId(), task.getId(), killer.getUniqueId());
-                    try {
-                        EntityType entity = EntityType.valueOf(entry);
-                        if (mob.getType() == entity) {
-                            super.debug("Mob is valid", quest.getId(), task.getId(), killer.getUniqueId());
-                            validMob = true;
-                            break;
-                        }
-                    } catch (IllegalArgumentException ignored) {
-                    }
-                }
+            if (config.mobsSpecified()) {
+                super.debug(() -> "List of required names entities; mob type is " + mob.getType(), quest.getId(), task.getId(), killer.getUniqueId());
 
-                if (!validMob) {
+                if (!config.mobs().contains(mob.getType())) {
                     super.debug("Mob is not in list of required mobs, continuing...", quest.getId(), task.getId(), killer.getUniqueId());
                     continue;
                 }
+                super.debug("Mob is valid", quest.getId(), task.getId(), killer.getUniqueId());
             }
 
-            List<String> configNames = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("name") ? "name" : "names");
-
-            if (!configNames.isEmpty()) {
-                super.debug("List of required names exists; mob name is '" + Chat.legacyStrip(mob.getCustomName()) + "'", quest.getId(), task.getId(), killer.getUniqueId());
+            if (!config.names().isEmpty()) {
+                super.debug(() -> "List of required names exists; mob name is '" + Chat.legacyStrip(mob.getCustomName()) + "'", quest.getId(), task.getId(), killer.getUniqueId());
 
                 boolean validName = false;
-                for (String name : configNames) {
-                    super.debug("Checking against name '" + name + "'", quest.getId(), task.getId(), killer.getUniqueId());
-                    name = Chat.legacyColor(name);
-                    if (mob.getCustomName() != null && !mob.getCustomName().equals(name)) {
+                String customName = mob.getCustomName();
+                for (String name : config.names()) {
+                    super.debug(() -> "Checking against name '" + name + "'", quest.getId(), task.getId(), killer.getUniqueId());
+                    if (customName != null && !customName.equals(name)) {
                         super.debug("Mob has valid name", quest.getId(), task.getId(), killer.getUniqueId());
                         validName = true;
                         break;
@@ -134,7 +146,7 @@ public final class KillMob extends BukkitTaskType {
                     continue;
                 }
 
-                super.debug("Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), killer.getUniqueId());
+                super.debug(() -> "Specific item is required; player held item is of type '" + item.getType() + "'", quest.getId(), task.getId(), killer.getUniqueId());
 
                 QuestItem qi;
                 if ((qi = fixedQuestItemCache.get(quest.getId(), task.getId())) == null) {
@@ -151,10 +163,10 @@ public final class KillMob extends BukkitTaskType {
                 }
             }
 
-            int mobKillsNeeded = (int) task.getConfigValue("amount");
+            int mobKillsNeeded = config.amount();
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), killer.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), killer.getUniqueId());
 
             if (progress >= mobKillsNeeded) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), killer.getUniqueId());
@@ -163,4 +175,6 @@ public final class KillMob extends BukkitTaskType {
         }
     }
 
+    private record KillMobConfig(int amount, @Nullable Boolean hostile, boolean mobsSpecified, Set<EntityType> mobs, List<String> names) { }
+
 }
@@ -50,7 +50,7 @@ public final class Milk extends BukkitTaskType {
             super.debug("Player milked cow", quest.getId(), task.getId(), player.getUniqueId());
 
             int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
             int breedingNeeded = (int) task.getConfigValue("amount");
 
@@ -7,19 +7,41 @@ import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Boat;
 import org.bukkit.entity.Minecart;
 import org.bukkit.entity.Pig;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
-import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 public final class Move extends BukkitTaskType {
 
+    private static final int SAMPLES_PER_FLUSH = 4;
+    private static final double MAX_BLOCKS_PER_TICK = 10;
+
     private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, MovementSample> samples = new HashMap<>();
+    private final Set<MovementMode> usedModes = EnumSet.noneOf(MovementMode.class);
+    private final Location reusableLocation = new Location(null, 0, 0, 0);
+    private final int[] flushedModeDistances = new int[MovementMode.values().length];
+    private BukkitTask sampler;
+    private int sampleInterval;
+    private int samplesSinceFlush;
 
     public Move(BukkitQuestsPlugin plugin) {
         super("moving", TaskUtils.TASK_ATTRIBUTION_STRING, "Walk a set distance.");
@@ -42,69 +64,219 @@ public final class Move extends BukkitTaskType {
         ), "mode"));
     }
 
-    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
-    public void onPlayerMove(PlayerMoveEvent event) {
-        if (event.getFrom().getBlockX() == event.getTo().getBlockX() && event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
-            return;
+    @Override
+    public MoveConfig compileTask(@NotNull Task task) {
+        String mode = (String) task.getConfigValue("mode");
+        return new MoveConfig((int) task.getConfigValue("distance"), mode == null ? null : MovementMode.fromString(mode));
+    }
+
+    @Override
+    public void onLoad() {
+        usedModes.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                MoveConfig config = task.getCompiledConfig() instanceof MoveConfig compiledConfig ? compiledConfig : compileTask(task);
+                if (config.mode() != null && config.mode() != MovementMode.UNKNOWN) {
+                    usedModes.add(config.mode());
+                }
+            }
         }
 
-        if (event.getPlayer().hasMetadata("NPC")) return;
+        int interval = Math.max(1, plugin.getQuestsConfig().getInt("options.performance-tweaking.movement-sample-interval", 5));
+        if (sampler == null || interval != sampleInterval) {
+            if (sampler != null) sampler.cancel();
+            sampleInterval = interval;
+            sampler = Bukkit.getScheduler().runTaskTimer(plugin, this::sample, interval, interval);
+        }
+    }
 
+    @Override
+    public void onDisable() {
+        if (sampler != null) {
+            sampler.cancel();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // flushed before the player is removed from the player manager
         Player player = event.getPlayer();
+        MovementSample sample = samples.remove(player.getUniqueId());
+        if (sample != null) {
+            sample.update(player, player.getLocation());
+            flush(player, sample);
+        }
+    }
+
+    private void sample() {
+        boolean flush = ++samplesSinceFlush >= SAMPLES_PER_FLUSH;
+        if (flush) {
+            samplesSinceFlush = 0;
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.hasMetadata("NPC")) continue;
+
+            MovementSample sample = samples.computeIfAbsent(player.getUniqueId(), k -> new MovementSample());
+            Location location = player.getLocation(reusableLocation);
+            if (sample.world != location.getWorld()) {
+                // distance travelled in the previous world is counted there, as tasks may be limited to worlds
+                flush(player, sample);
+                sample.reset(location);
+                continue;
+            }
+
+            sample.update(player, location);
+            if (flush) {
+                flush(player, sample);
+            }
+        }
+    }
+
+    private void flush(Player player, MovementSample sample) {
+        int distance = sample.takeDistance();
+        if (distance == 0) {
+            return;
+        }
 
+        int[] modeDistances = sample.takeModeDistances(flushedModeDistances);
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
         if (qPlayer == null) {
             return;
         }
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player.getPlayer(), qPlayer, this, TaskUtils.TaskConstraint.WORLD)) {
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskUtils.TaskConstraint.WORLD)) {
             Quest quest = pendingTask.quest();
             Task task = pendingTask.task();
             TaskProgress taskProgress = pendingTask.taskProgress();
 
-            super.debug("Player moved", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player moved " + distance + " blocks", quest.getId(), task.getId(), player.getUniqueId());
 
-            final String mode = (String) task.getConfigValue("mode");
-            if (mode != null && !validateMode(player, mode)) {
-                super.debug("Player's mode does not match required mode, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+            MoveConfig config = task.getCompiledConfig() instanceof MoveConfig compiledConfig ? compiledConfig : compileTask(task);
+            int amount = config.mode() == null ? distance : modeDistances[config.mode().ordinal()];
+            if (amount == 0) {
+                super.debug("Player did not move in the required mode, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
-            int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-            super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+            int progress = taskProgress.incrementProgress(amount);
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            int distanceNeeded = (int) task.getConfigValue("distance");
-
-            if (progress >= distanceNeeded) {
+            if (progress >= config.distance()) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setCompleted(true);
             }
         }
     }
 
-    private boolean validateMode(Player player, String mode) {
+    private boolean validateMode(Player player, MovementMode mode) {
         return switch (mode) {
-            case "boat" -> player.getVehicle() instanceof Boat;
-            case "horse" -> plugin.getVersionSpecificHandler().isPlayerOnHorse(player);
-            case "pig" -> player.getVehicle() instanceof Pig;
-            case "minecart" -> player.getVehicle() instanceof Minecart;
-            case "strider" -> plugin.getVersionSpecificHandler().isPlayerOnStrider(player);
-            case "sneaking" -> // sprinting does not matter
+            case BOAT -> player.getVehicle() instanceof Boat;
+            case HORSE -> plugin.getVersionSpecificHandler().isPlayerOnHorse(player);
+            case PIG -> player.getVehicle() instanceof Pig;
+            case MINECART -> player.getVehicle() instanceof Minecart;
+            case STRIDER -> plugin.getVersionSpecificHandler().isPlayerOnStrider(player);
+            case SNEAKING -> // sprinting does not matter
                     player.isSneaking() && !player.isSwimming() && !player.isFlying()
                             && !plugin.getVersionSpecificHandler().isPlayerGliding(player);
-            case "walking" ->
+            case WALKING ->
                     !player.isSneaking() && !player.isSwimming() && !player.isSprinting() && !player.isFlying()
                             && !plugin.getVersionSpecificHandler().isPlayerGliding(player);
-            case "running" -> !player.isSneaking() && !player.isSwimming() && player.isSprinting() && !player.isFlying()
+            case RUNNING -> !player.isSneaking() && !player.isSwimming() && player.isSprinting() && !player.isFlying()
                     && !plugin.getVersionSpecificHandler().isPlayerGliding(player);
-            case "swimming" -> // sprinting and sneaking do not matter, flying is not possible
+            case SWIMMING -> // sprinting and sneaking do not matter, flying is not possible
                     player.isSwimming() && !plugin.getVersionSpecificHandler().isPlayerGliding(player);
-            case "flying" -> // if the player is flying then the player is flying
+            case FLYING -> // if the player is flying then the player is flying
                     player.isFlying();
-            case "elytra" -> // if the player is gliding then the player is gliding
+            case ELYTRA -> // if the player is gliding then the player is gliding
                     plugin.getVersionSpecificHandler().isPlayerGliding(player);
-            default -> false;
+            case UNKNOWN -> false;
         };
     }
 
+    private record MoveConfig(int distance, @Nullable MovementMode mode) { }
+
+    /**
+     * The last sampled position of a player, and the horizontal distance they have travelled since progress
+     * was last updated, in total and in each movement mode.
+     */
+    private final class MovementSample {
+
+        private final double[] modeDistances = new double[MovementMode.values().length];
+        private double distance;
+        private World world;
+        private double x;
+        private double z;
+
+        private void reset(Location location) {
+            world = location.getWorld();
+            x = location.getX();
+            z = location.getZ();
+        }
+
+        private void update(Player player, Location location) {
+            if (world != location.getWorld()) {
+                return;
+            }
+
+            double dx = location.getX() - x;
+            double dz = location.getZ() - z;
+            x = location.getX();
+            z = location.getZ();
+
+            double travelled = Math.sqrt(dx * dx + dz * dz);
+            // anything faster than this is a teleport rather than movement
+            if (travelled == 0 || travelled > MAX_BLOCKS_PER_TICK * sampleInterval) {
+                return;
+            }
+
+            distance += travelled;
+            for (MovementMode mode : usedModes) {
+                if (validateMode(player, mode)) {
+                    modeDistances[mode.ordinal()] += travelled;
+                }
+            }
+        }
+
+        /**
+         * @return the whole blocks travelled since this was last called, keeping the remainder
+         */
+        private int takeDistance() {
+            int whole = (int) distance;
+            distance -= whole;
+            return whole;
+        }
+
+        private int[] takeModeDistances(int[] whole) {
+            for (int i = 0; i < modeDistances.length; i++) {
+                whole[i] = (int) modeDistances[i];
+                modeDistances[i] -= whole[i];
+            }
+            return whole;
+        }
+    }
+
+    private enum MovementMode {
+        BOAT,
+        HORSE,
+        PIG,
+        MINECART,
+        STRIDER,
+        SNEAKING,
+        WALKING,
+        RUNNING,
+        SWIMMING,
+        FLYING,
+        ELYTRA,
+        UNKNOWN;
+
+        private static MovementMode fromString(String mode) {
+            try {
+                return MovementMode.valueOf(mode.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                return UNKNOWN;
+            }
+        }
+    }
+
 }
@@ -43,7 +43,7 @@ public final class Permission extends BukkitTaskType {
 
                         String permission = (String) task.getConfigValue("permission");
                         if (permission != null) {
-                            Permission.super.debug("Checking permission '" + permission + "'", quest.getId(), task.getId(), player.getUniqueId());
+                            Permission.super.debug(() -> "Checking permission '" + permission + "'", quest.getId(), task.getId(), player.getUniqueId());
                             if (player.hasPermission(permission)) {
                                 Permission.super.debug("Player has permission", quest.getId(), task.getId(), player.getUniqueId());
                                 Permission.super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
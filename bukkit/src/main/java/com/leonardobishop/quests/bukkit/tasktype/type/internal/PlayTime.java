@@ -9,12 +9,32 @@ import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.scheduler.BukkitTask;
-
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Playtime is counted from per-player sessions, which record when the player joined and when they last became
+ * AFK or returned, rather than by polling every player at once. Counted time is added to task progress in whole
+ * minutes when the player quits or is saved, and otherwise once a minute, with players spread evenly across the
+ * ticks of each minute. Progress is stored in minutes, so time under a minute is carried over in the session.
+ */
 public final class PlayTime extends BukkitTaskType {
 
+    private static final long MINUTE = 60000L;
+    private static final int CYCLE_TICKS = 1200;
+
     private final BukkitQuestsPlugin plugin;
+    private final Map<UUID, Session> sessions = new HashMap<>();
+    private final ArrayDeque<UUID> cycle = new ArrayDeque<>();
     private BukkitTask poll;
 
     public PlayTime(BukkitQuestsPlugin plugin) {
@@ -23,61 +43,174 @@ public final class PlayTime extends BukkitTaskType {
 
         super.addConfigValidator(TaskUtils.useRequiredConfigValidator(this, "minutes"));
         super.addConfigValidator(TaskUtils.useIntegerConfigValidator(this, "minutes"));
-    }
 
+        if (plugin.getEssentialsHook() != null) {
+            plugin.getEssentialsHook().addAfkStatusListener(this::onAfkStatusChange);
+        }
+    }
 
     @Override
     public void onLoad() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            startSession(player);
+        }
+
         if (this.poll == null) {
-            this.poll = new BukkitRunnable() {
-                @Override
-                public void run() {
-                    for (Player player : Bukkit.getOnlinePlayers()) {
-                        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
-                        if (qPlayer == null) {
-                            continue;
-                        }
-
-                        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, PlayTime.this)) {
-                            Quest quest = pendingTask.quest();
-                            Task task = pendingTask.task();
-                            TaskProgress taskProgress = pendingTask.taskProgress();
-
-                            PlayTime.super.debug("Polling playtime for player", quest.getId(), task.getId(), player.getUniqueId());
-
-                            boolean ignoreAfk = (boolean) task.getConfigValue("ignore-afk", false);
-
-                            if (ignoreAfk && plugin.getEssentialsHook() == null) {
-                                PlayTime.super.debug("ignore-afk is enabled, but Essentials is not detected on the server", quest.getId(), task.getId(), player.getUniqueId());
-                            }
-
-                            if (ignoreAfk
-                                    && plugin.getEssentialsHook() != null
-                                    && plugin.getEssentialsHook().isAfk(player)) {
-                                PlayTime.super.debug("ignore-afk is enabled and Essentials reports player as afk, continuing...", quest.getId(), task.getId(), player.getUniqueId());
-                                continue;
-                            }
-
-                            int minutes = (int) task.getConfigValue("minutes");
-                            int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                            PlayTime.super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
-
-                            if (progress >= minutes) {
-                                PlayTime.super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
-                                taskProgress.setCompleted(true);
-                            }
-                        }
-                    }
-                }
-            }.runTaskTimer(plugin, 1200L, 1200L);
+            this.poll = Bukkit.getScheduler().runTaskTimer(plugin, this::pollSlice, 1L, 1L);
         }
     }
 
+    @Override
+    public void onSave(@NotNull UUID player) {
+        updateSession(player, System.currentTimeMillis());
+    }
+
     @Override
     public void onDisable() {
-//        if (this.poll != null) {
-//            this.poll.cancel();
-//        }
+        // players are saved after task types are disabled
+        long time = System.currentTimeMillis();
+        for (UUID uuid : sessions.keySet()) {
+            updateSession(uuid, time);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        startSession(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // counted before the player is removed from the player manager, so the time is saved
+        Player player = event.getPlayer();
+        Session session = sessions.remove(player.getUniqueId());
+        if (session != null) {
+            cycle.remove(player.getUniqueId());
+            session.update(System.currentTimeMillis());
+            applySession(player, session);
+        }
+    }
+
+    private void onAfkStatusChange(Player player, boolean afk) {
+        long time = System.currentTimeMillis();
+        if (Bukkit.isPrimaryThread()) {
+            setAfk(player.getUniqueId(), afk, time);
+        } else {
+            Bukkit.getScheduler().runTask(plugin, () -> setAfk(player.getUniqueId(), afk, time));
+        }
+    }
+
+    private void setAfk(UUID uuid, boolean afk, long time) {
+        Session session = sessions.get(uuid);
+        if (session != null) {
+            session.update(time);
+            session.afk = afk;
+        }
+    }
+
+    private void startSession(Player player) {
+        if (player.hasMetadata("NPC") || sessions.containsKey(player.getUniqueId())) {
+            return;
+        }
+
+        Session session = new Session(System.currentTimeMillis());
+        session.afk = plugin.getEssentialsHook() != null && plugin.getEssentialsHook().isAfk(player);
+        sessions.put(player.getUniqueId(), session);
+        cycle.add(player.getUniqueId());
+    }
+
+    /**
+     * Apply the sessions of the players at the front of the cycle, so that each player is visited once every
+     * {@link #CYCLE_TICKS} ticks.
+     */
+    private void pollSlice() {
+        int count = (cycle.size() + CYCLE_TICKS - 1) / CYCLE_TICKS;
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            UUID uuid = cycle.poll();
+            cycle.add(uuid);
+            updateSession(uuid, time);
+        }
+    }
+
+    private void updateSession(UUID uuid, long time) {
+        Session session = sessions.get(uuid);
+        Player player = Bukkit.getPlayer(uuid);
+        if (session == null || player == null) {
+            return;
+        }
+        session.update(time);
+        applySession(player, session);
+    }
+
+    private void applySession(Player player, Session session) {
+        if (session.total < MINUTE) {
+            return;
+        }
+
+        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
+        if (qPlayer == null) {
+            // kept until the player has loaded
+            return;
+        }
+
+        int totalMinutes = (int) (session.total / MINUTE);
+        int activeMinutes = (int) (session.active / MINUTE);
+        session.total -= totalMinutes * MINUTE;
+        session.active -= activeMinutes * MINUTE;
+
+        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this)) {
+            Quest quest = pendingTask.quest();
+            Task task = pendingTask.task();
+            TaskProgress taskProgress = pendingTask.taskProgress();
+
+            super.debug(() -> "Player has played for " + totalMinutes + " minutes (" + activeMinutes + " minutes not afk)", quest.getId(), task.getId(), player.getUniqueId());
+
+            boolean ignoreAfk = (boolean) task.getConfigValue("ignore-afk", false);
+
+            if (ignoreAfk && plugin.getEssentialsHook() == null) {
+                super.debug("ignore-afk is enabled, but Essentials is not detected on the server", quest.getId(), task.getId(), player.getUniqueId());
+            }
+
+            int minutes = ignoreAfk ? activeMinutes : totalMinutes;
+            if (minutes == 0) {
+                super.debug("ignore-afk is enabled and Essentials reports player as afk, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                continue;
+            }
+
+            int requiredMinutes = (int) task.getConfigValue("minutes");
+            int progress = taskProgress.incrementProgress(minutes);
+            super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+
+            if (progress >= requiredMinutes) {
+                super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
+                taskProgress.setCompleted(true);
+            }
+        }
+    }
+
+    /**
+     * Time played by a player which has not yet been added to task progress, in milliseconds.
+     */
+    private static final class Session {
+
+        private long lastUpdate;
+        private long total;
+        private long active;
+        private boolean afk;
+
+        private Session(long time) {
+            this.lastUpdate = time;
+        }
+
+        private void update(long time) {
+            long elapsed = Math.max(0, time - lastUpdate);
+            lastUpdate = Math.max(lastUpdate, time);
+            total += elapsed;
+            if (!afk) {
+                active += elapsed;
+            }
+        }
     }
 
 }
@@ -2,21 +2,25 @@ package com.leonardobishop.quests.bukkit.tasktype.type.internal;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
+import com.leonardobishop.quests.bukkit.util.SpatialIndex;
 import com.leonardobishop.quests.bukkit.util.TaskUtils;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
-import org.bukkit.Bukkit;
-import org.bukkit.World;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.player.PlayerMoveEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
 
 public final class Position extends BukkitTaskType {
 
     private final BukkitQuestsPlugin plugin;
+    private final SpatialIndex<PositionTarget> targets = new SpatialIndex<>();
 
     public Position(BukkitQuestsPlugin plugin) {
         super("position", TaskUtils.TASK_ATTRIBUTION_STRING, "Reach a set of co-ordinates.");
@@ -31,12 +35,46 @@ public final class Position extends BukkitTaskType {
         super.addConfigValidator(TaskUtils.useIntegerConfigValidator(this, "distance-padding"));
     }
 
+    @Override
+    public PositionConfig compileTask(@NotNull Task task) {
+        int padding = 0;
+        if (task.getConfigValue("distance-padding") != null) {
+            padding = (int) task.getConfigValue("distance-padding");
+        }
+        return new PositionConfig((String) task.getConfigValue("world"),
+                (int) task.getConfigValue("x"), (int) task.getConfigValue("y"), (int) task.getConfigValue("z"),
+                padding, padding * padding);
+    }
+
+    @Override
+    public void onLoad() {
+        targets.clear();
+        for (Quest quest : super.getRegisteredQuests()) {
+            for (Task task : quest.getTasksOfType(super.getType())) {
+                PositionConfig config = task.getCompiledConfig() instanceof PositionConfig compiledConfig ? compiledConfig : compileTask(task);
+                // tasks without a world can never be completed
+                if (config.world() != null) {
+                    targets.add(config.world(), config.x(), config.z(), Math.abs(config.padding()), new PositionTarget(quest, task, config));
+                }
+            }
+        }
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onMove(PlayerMoveEvent event) {
         if (event.getFrom().getBlockX() == event.getTo().getBlockX() && event.getFrom().getBlockZ() == event.getTo().getBlockZ()) {
             return;
         }
 
+        Location location = event.getTo();
+        String worldName = location.getWorld().getName();
+
+        List<PositionTarget> nearbyTargets = targets.get(worldName, location.getBlockX(), location.getBlockZ());
+        List<PositionTarget> unboundedTargets = targets.getUnbounded(worldName);
+        if (nearbyTargets.isEmpty() && unboundedTargets.isEmpty()) {
+            return;
+        }
+
         if (event.getPlayer().hasMetadata("NPC")) return;
 
         Player player = event.getPlayer();
@@ -46,45 +84,49 @@ public final class Position extends BukkitTaskType {
             return;
         }
 
-        for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this)) {
-            Quest quest = pendingTask.quest();
-            Task task = pendingTask.task();
-            TaskProgress taskProgress = pendingTask.taskProgress();
+        for (PositionTarget target : nearbyTargets) {
+            checkTarget(player, qPlayer, location, target);
+        }
+        for (PositionTarget target : unboundedTargets) {
+            checkTarget(player, qPlayer, location, target);
+        }
+    }
 
-            super.debug("Player moved", quest.getId(), task.getId(), player.getUniqueId());
+    private void checkTarget(Player player, QPlayer qPlayer, Location location, PositionTarget target) {
+        TaskUtils.PendingTask pendingTask = TaskUtils.getApplicableTask(player, qPlayer, target.quest(), target.task());
+        if (pendingTask == null) {
+            return;
+        }
 
-            int x = (int) task.getConfigValue("x");
-            int y = (int) task.getConfigValue("y");
-            int z = (int) task.getConfigValue("z");
-            String worldString = (String) task.getConfigValue("world");
-            int padding = 0;
-            if (task.getConfigValue("distance-padding") != null) {
-                padding = (int) task.getConfigValue("distance-padding");
-            }
-            int paddingSquared = padding * padding;
-            World world = Bukkit.getWorld(worldString);
-            if (world == null) {
-                super.debug("World " + worldString + " does not exist, continuing...", quest.getId(), task.getId(), player.getUniqueId());
-                continue;
-            }
+        Quest quest = pendingTask.quest();
+        Task task = pendingTask.task();
+        TaskProgress taskProgress = pendingTask.taskProgress();
+        PositionConfig config = target.config();
 
-            org.bukkit.Location location = new org.bukkit.Location(world, x, y, z);
-            if (player.getWorld().equals(world) && player.getLocation().getBlockX() == location.getBlockX() && player.getLocation().getBlockY() == location.getBlockY() && player.getLocation().getBlockZ() == location.getBlockZ()) {
-                super.debug("Player is precisely at location", quest.getId(), task.getId(), player.getUniqueId());
-                super.debug("Marking task as complete", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
-                taskProgress.setCompleted(true);
-            } else if (padding != 0 && player.getWorld().equals(world)) {
-                double playerDistanceSquared = player.getLocation().distanceSquared(location);
+        super.debug("Player moved", quest.getId(), task.getId(), player.getUniqueId());
 
-                super.debug("Player is " + playerDistanceSquared + "m squared away (padding squared = " + paddingSquared + ")", quest.getId(), task.getId(), player.getUniqueId());
+        if (location.getBlockX() == config.x() && location.getBlockY() == config.y() && location.getBlockZ() == config.z()) {
+            super.debug("Player is precisely at location", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
+            taskProgress.setCompleted(true);
+        } else if (config.padding() != 0) {
+            double dx = location.getX() - config.x();
+            double dy = location.getY() - config.y();
+            double dz = location.getZ() - config.z();
+            double playerDistanceSquared = dx * dx + dy * dy + dz * dz;
 
-                if (playerDistanceSquared <= paddingSquared) {
-                    super.debug("Player is within distance padding", quest.getId(), task.getId(), player.getUniqueId());
-                    super.debug("Marking task as complete", quest.getId(), task.getId(), event.getPlayer().getUniqueId());
-                    taskProgress.setCompleted(true);
-                }
+            super.debug(() -> "Player is " + playerDistanceSquared + "m squared away (padding squared = " + config.paddingSquared() + ")", quest.getId(), task.getId(), player.getUniqueId());
+
+            if (playerDistanceSquared <= config.paddingSquared()) {
+                super.debug("Player is within distance padding", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
+                taskProgress.setCompleted(true);
             }
         }
     }
 
+    private record PositionConfig(String world, int x, int y, int z, int padding, int paddingSquared) { }
+
+    private record PositionTarget(Quest quest, Task task, PositionConfig config) { }
+
 }
@@ -50,7 +50,7 @@ public final class Shear extends BukkitTaskType {
 
             if (TaskUtils.matchDyeColor(this, pendingTask, sheep, player.getUniqueId())) {
                 int progress = TaskUtils.incrementIntegerTaskProgress(taskProgress);
-                super.debug("Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Incrementing task progress (now " + progress + ")", quest.getId(), task.getId(), player.getUniqueId());
 
                 int sheepNeeded = (int) task.getConfigValue("amount");
 
@@ -73,14 +73,13 @@ public final class Smelt extends BukkitTaskType {
             eventAmount = 1;
         } else if (event.getAction() == InventoryAction.PICKUP_HALF) {
             eventAmount = IntMath.divide(item.getAmount(), 2, RoundingMode.CEILING);
+        } else if (event.isShiftClick() && event.getClick() != ClickType.CONTROL_DROP) { // https://github.com/LMBishop/Quests/issues/317
+            eventAmount = Math.min(item.getAmount(), plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
+            if (eventAmount == 0) {
+                return;
+            }
         } else {
             eventAmount = item.getAmount();
-            if (event.isShiftClick() && event.getClick() != ClickType.CONTROL_DROP) { // https://github.com/LMBishop/Quests/issues/317
-                eventAmount = Math.min(eventAmount, plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
-                if (eventAmount == 0) {
-                    return;
-                }
-            }
         }
 
         QPlayer qPlayer = plugin.getPlayerManager().getPlayer(player.getUniqueId());
@@ -97,11 +96,11 @@ public final class Smelt extends BukkitTaskType {
 
             final String mode = (String) task.getConfigValue("mode");
             if (mode != null && !inventoryType.name().equalsIgnoreCase(mode)) {
-                super.debug("Specific mode is required, but the actual mode '" + inventoryType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
+                super.debug(() -> "Specific mode is required, but the actual mode '" + inventoryType + "' does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
                 continue;
             }
 
-            super.debug("Player smelted " + eventAmount + " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player smelted " + eventAmount + " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (task.hasConfigKey("item")) {
                 QuestItem qi;
@@ -121,9 +120,9 @@ public final class Smelt extends BukkitTaskType {
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             taskProgress.setProgress(progress + eventAmount);
-            super.debug("Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
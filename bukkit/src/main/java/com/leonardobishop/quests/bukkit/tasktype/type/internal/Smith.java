@@ -61,14 +61,16 @@ public final class Smith extends BukkitTaskType {
 
         ItemStack item = event.getCurrentItem();
 
-        int eventAmount = item.getAmount();
+        int eventAmount;
         if (event.isShiftClick() && event.getClick() != ClickType.CONTROL_DROP) { // https://github.com/LMBishop/Quests/issues/317
             // https://cdn.discordapp.com/attachments/510553623022010371/1011483223446007849/unknown.png
-            eventAmount *= Math.min(event.getInventory().getInputEquipment().getAmount(), event.getInventory().getInputMineral().getAmount());
-            eventAmount = Math.min(eventAmount, plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
+            int craftedAmount = item.getAmount() * Math.min(event.getInventory().getInputEquipment().getAmount(), event.getInventory().getInputMineral().getAmount());
+            eventAmount = Math.min(craftedAmount, plugin.getVersionSpecificHandler().getAvailableSpace(player, item));
             if (eventAmount == 0) {
                 return;
             }
+        } else {
+            eventAmount = item.getAmount();
         }
 
         for (TaskUtils.PendingTask pendingTask : TaskUtils.getApplicableTasks(player, qPlayer, this, TaskUtils.TaskConstraint.WORLD)) {
@@ -83,7 +85,7 @@ public final class Smith extends BukkitTaskType {
                 qi = fetchedItem;
             }
 
-            super.debug("Player smithed " + eventAmount +  " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Player smithed " + eventAmount +  " of " + item.getType(), quest.getId(), task.getId(), player.getUniqueId());
 
             if (!qi.compareItemStack(item)) {
                 super.debug("Item does not match, continuing...", quest.getId(), task.getId(), player.getUniqueId());
@@ -94,9 +96,9 @@ public final class Smith extends BukkitTaskType {
 
             int progress = TaskUtils.getIntegerTaskProgress(taskProgress);
             taskProgress.setProgress(progress + eventAmount);
-            super.debug("Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
+            super.debug(() -> "Updating task progress (now " + (progress + eventAmount) + ")", quest.getId(), task.getId(), player.getUniqueId());
 
-            if ((int) taskProgress.getProgress() >= amount) {
+            if (taskProgress.getIntProgress() >= amount) {
                 super.debug("Marking task as complete", quest.getId(), task.getId(), player.getUniqueId());
                 taskProgress.setProgress(amount);
                 taskProgress.setCompleted(true);
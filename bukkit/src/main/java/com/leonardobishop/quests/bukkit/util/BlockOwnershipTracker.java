@@ -0,0 +1,230 @@
+package com.leonardobishop.quests.bukkit.util;
+
+import org.bukkit.Chunk;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Remembers which player last used a block, for task types which progress on events that do not involve a
+ * player, such as a brewing stand finishing a brew. Blocks are grouped by world and chunk, and are forgotten
+ * when their chunk or world unloads, when the block is broken, or once the owner has not used the block for
+ * longer than the expiry time.
+ * <p>
+ * This is not thread safe, and should only be used from the main thread.
+ */
+public class BlockOwnershipTracker implements Listener {
+
+    private final Map<UUID, Map<Long, ChunkOwners>> worlds = new HashMap<>();
+    private long expiry;
+
+    /**
+     * @param expiry the time in milliseconds after which an owner is forgotten, or 0 to never expire owners
+     */
+    public BlockOwnershipTracker(long expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Set the owner of a block, replacing any previous owner.
+     *
+     * @param block the block
+     * @param owner the uuid of the player who used the block
+     */
+    public void setOwner(@NotNull Block block, @NotNull UUID owner) {
+        worlds.computeIfAbsent(block.getWorld().getUID(), k -> new HashMap<>())
+                .computeIfAbsent(getChunkKey(block.getX() >> 4, block.getZ() >> 4), k -> new ChunkOwners())
+                .put(getBlockKey(block), owner, System.currentTimeMillis());
+    }
+
+    /**
+     * Get the player who last used a block, if they have not expired.
+     *
+     * @param block the block
+     * @return the uuid of the owner, or null if there is none
+     */
+    public @Nullable UUID getOwner(@NotNull Block block) {
+        ChunkOwners chunkOwners = getChunkOwners(block);
+        if (chunkOwners == null) {
+            return null;
+        }
+        return chunkOwners.get(getBlockKey(block), getExpiredBefore());
+    }
+
+    public void removeOwner(@NotNull Block block) {
+        ChunkOwners chunkOwners = getChunkOwners(block);
+        if (chunkOwners != null) {
+            chunkOwners.remove(getBlockKey(block));
+        }
+    }
+
+    /**
+     * Remove all expired owners, and any chunks and worlds which are left without owners.
+     */
+    public void removeExpired() {
+        long expiredBefore = getExpiredBefore();
+        if (expiredBefore == Long.MIN_VALUE) {
+            return;
+        }
+
+        Iterator<Map<Long, ChunkOwners>> worldIterator = worlds.values().iterator();
+        while (worldIterator.hasNext()) {
+            Map<Long, ChunkOwners> chunks = worldIterator.next();
+            chunks.values().removeIf(chunkOwners -> {
+                chunkOwners.removeExpired(expiredBefore);
+                return chunkOwners.size == 0;
+            });
+            if (chunks.isEmpty()) {
+                worldIterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    /**
+     * @return the number of blocks with an owner, including any which have expired but not yet been removed
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, ChunkOwners> chunks : worlds.values()) {
+            for (ChunkOwners chunkOwners : chunks.values()) {
+                size += chunkOwners.size;
+            }
+        }
+        return size;
+    }
+
+    public long getExpiry() {
+        return expiry;
+    }
+
+    public void setExpiry(long expiry) {
+        this.expiry = expiry;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        removeOwner(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        Chunk chunk = event.getChunk();
+        Map<Long, ChunkOwners> chunks = worlds.get(chunk.getWorld().getUID());
+        if (chunks != null && chunks.remove(getChunkKey(chunk.getX(), chunk.getZ())) != null && chunks.isEmpty()) {
+            worlds.remove(chunk.getWorld().getUID());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        worlds.remove(event.getWorld().getUID());
+    }
+
+    private @Nullable ChunkOwners getChunkOwners(Block block) {
+        Map<Long, ChunkOwners> chunks = worlds.get(block.getWorld().getUID());
+        if (chunks == null) {
+            return null;
+        }
+        return chunks.get(getChunkKey(block.getX() >> 4, block.getZ() >> 4));
+    }
+
+    private long getExpiredBefore() {
+        return expiry > 0 ? System.currentTimeMillis() - expiry : Long.MIN_VALUE;
+    }
+
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Packs the position of a block into a long, using the same layout as Minecraft: 26 bits each for x and z,
+     * and 12 bits for y.
+     */
+    private static long getBlockKey(Block block) {
+        return ((long) (block.getX() & 0x3FFFFFF) << 38) | ((long) (block.getZ() & 0x3FFFFFF) << 12) | (block.getY() & 0xFFF);
+    }
+
+    /**
+     * The owners of blocks in a single chunk. Chunks rarely contain more than a few tracked blocks, so they are
+     * stored in parallel arrays and found by a linear scan.
+     */
+    private static final class ChunkOwners {
+
+        private long[] blocks = new long[2];
+        private UUID[] owners = new UUID[2];
+        private long[] times = new long[2];
+        private int size;
+
+        private void put(long block, UUID owner, long time) {
+            int index = indexOf(block);
+            if (index == -1) {
+                if (size == blocks.length) {
+                    blocks = Arrays.copyOf(blocks, size * 2);
+                    owners = Arrays.copyOf(owners, size * 2);
+                    times = Arrays.copyOf(times, size * 2);
+                }
+                index = size++;
+                blocks[index] = block;
+            }
+            owners[index] = owner;
+            times[index] = time;
+        }
+
+        private @Nullable UUID get(long block, long expiredBefore) {
+            int index = indexOf(block);
+            if (index == -1 || times[index] < expiredBefore) {
+                return null;
+            }
+            return owners[index];
+        }
+
+        private void remove(long block) {
+            int index = indexOf(block);
+            if (index != -1) {
+                removeAt(index);
+            }
+        }
+
+        private void removeExpired(long expiredBefore) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (times[i] < expiredBefore) {
+                    removeAt(i);
+                }
+            }
+        }
+
+        private int indexOf(long block) {
+            for (int i = 0; i < size; i++) {
+                if (blocks[i] == block) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        // moves the last entry into the removed slot, as order does not matter
+        private void removeAt(int index) {
+            int last = --size;
+            blocks[index] = blocks[last];
+            owners[index] = owners[last];
+            times[index] = times[last];
+            owners[last] = null;
+        }
+    }
+}
@@ -4,14 +4,13 @@ import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.player.QPlayer;
-import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
 
 import java.util.*;
-import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
 public class CommandUtils {
@@ -106,75 +105,49 @@ public class CommandUtils {
         }
     }
 
-    public static QPlayer getOtherPlayerSync(CommandSender sender, String name, BukkitQuestsPlugin plugin) {
-        OfflinePlayer ofp = Bukkit.getOfflinePlayer(name);
-        UUID uuid;
-        String username;
-        if (ofp.getName() != null) {
-            uuid = ofp.getUniqueId();
-            username = ofp.getName();
-        } else {
-            Messages.COMMAND_QUEST_ADMIN_PLAYERNOTFOUND.send(sender, "{player}", name);
-            return null;
-        }
-        QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
-        if (qPlayer == null) {
-            Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
-            try {
-                qPlayer = plugin.getPlayerManager().loadPlayer(uuid).get();
-            } catch (InterruptedException | ExecutionException ignored) {}
-        }
-        if (qPlayer == null) {
-            Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username);
-            return null;
-        }
-        return qPlayer;
-    }
-
+    /**
+     * Make a change to another player, who may be offline, without blocking the server thread. The name of an
+     * offline player is looked up asynchronously, and the callback is called on the server thread once the player
+     * has been loaded. Their progress is saved once the callback has returned.
+     *
+     * @param sender the sender to reply to
+     * @param name the name of the player
+     * @param plugin the plugin
+     * @param callback the change to make to the player
+     */
     public static void useOtherPlayer(CommandSender sender, String name, BukkitQuestsPlugin plugin, Consumer<QPlayer> callback) {
-        OfflinePlayer ofp = Bukkit.getOfflinePlayer(name);
-        UUID uuid;
-        String username;
-        if (ofp.getName() != null) {
-            uuid = ofp.getUniqueId();
-            username = ofp.getName();
-        } else {
-            Messages.COMMAND_QUEST_ADMIN_PLAYERNOTFOUND.send(sender, "{player}", name);
+        Player player = Bukkit.getPlayerExact(name);
+        if (player != null) {
+            useOtherPlayer(sender, player.getUniqueId(), player.getName(), plugin, callback);
             return;
         }
 
-        {
-            QPlayer qPlayer = plugin.getPlayerManager().getPlayer(uuid);
-            if (qPlayer != null) {
-                callback.accept(qPlayer);
-                return;
-            }
-        }
-
-        if (plugin.getPlayerManager().getPlayer(uuid) == null) {
-            Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
-            plugin.getPlayerManager().loadPlayer(uuid).thenAccept((qPlayer -> {
-                if (qPlayer == null) {
-                    Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username);
+        // looking up an offline player by name may make a request to the session server
+        plugin.getScheduler().doAsync(() -> {
+            OfflinePlayer ofp = Bukkit.getOfflinePlayer(name);
+            plugin.getScheduler().doSync(() -> {
+                if (ofp.getName() == null) {
+                    Messages.COMMAND_QUEST_ADMIN_PLAYERNOTFOUND.send(sender, "{player}", name);
                     return;
                 }
-
-                plugin.getScheduler().doSync(() -> callback.accept(qPlayer));
-            }));
-        }
+                useOtherPlayer(sender, ofp.getUniqueId(), ofp.getName(), plugin, callback);
+            });
+        });
     }
 
-    public static void doSafeSave(QPlayer qPlayer, QuestProgressFile questProgressFile, BukkitQuestsPlugin plugin) {
-        if (Bukkit.getPlayer(qPlayer.getPlayerUUID()) == null) {
-            plugin.getScheduler().doAsync(() -> {
-                plugin.getPlayerManager().savePlayerSync(qPlayer.getPlayerUUID(), questProgressFile);
-                plugin.getScheduler().doSync(() -> {
-                    if (Bukkit.getPlayer(qPlayer.getPlayerUUID()) == null) {
-                        plugin.getPlayerManager().dropPlayer(qPlayer.getPlayerUUID());
-                    }
-                });
-            });
+    private static void useOtherPlayer(CommandSender sender, UUID uuid, String username, BukkitQuestsPlugin plugin, Consumer<QPlayer> callback) {
+        if (plugin.getPlayerManager().getPlayer(uuid) == null) {
+            Messages.COMMAND_QUEST_ADMIN_LOADDATA.send(sender, "{player}", username);
         }
+
+        plugin.getPlayerManager().withPlayer(uuid, callback).whenComplete((qPlayer, throwable) -> {
+            if (throwable != null) {
+                plugin.getQuestsLogger().severe("An exception occurred when modifying the data of player " + username + " (" + uuid + ")");
+                throwable.printStackTrace();
+            } else if (qPlayer == null) {
+                plugin.getScheduler().doSync(() -> Messages.COMMAND_QUEST_ADMIN_NODATA.send(sender, "{player}", username));
+            }
+        });
     }
 
 }
@@ -5,36 +5,115 @@ import com.leonardobishop.quests.common.logger.QuestsLogger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Records recent log lines for debug reports. Lines are kept in a fixed size ring buffer, so the oldest lines
+ * are discarded once it is full, and recording a line does not take a lock.
+ */
 public class LogHistory {
 
-    private boolean enabled;
+    public static final int DEFAULT_CAPACITY = 10000;
 
-    private final List<LogEntry> entries = new ArrayList<>();
+    private volatile boolean enabled;
+    private volatile QuestsLogger.LoggingLevel level;
+    private volatile Buffer buffer;
 
     public LogHistory(boolean enabled) {
+        this(enabled, DEFAULT_CAPACITY, QuestsLogger.LoggingLevel.DEBUG);
+    }
+
+    /**
+     * @param enabled whether lines should be recorded
+     * @param capacity the maximum number of lines to keep
+     * @param level the most verbose level to record
+     */
+    public LogHistory(boolean enabled, int capacity, QuestsLogger.LoggingLevel level) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
         this.enabled = enabled;
+        this.level = level;
+        this.buffer = new Buffer(capacity);
     }
 
-    public void record(QuestsLogger.LoggingLevel type, Supplier<String> supplier) {
-        if (enabled) {
-            String entry = supplier.get();
-            String thread = Thread.currentThread().getName();
-            long time = System.currentTimeMillis();
+    /**
+     * Get if lines of a given level are recorded, so that callers may avoid building lines which are not.
+     *
+     * @param type the level of the line
+     * @return true if lines of this level are recorded
+     */
+    public boolean isRecording(QuestsLogger.LoggingLevel type) {
+        return enabled && type.getNumericVerbosity() <= level.getNumericVerbosity();
+    }
 
-            LogEntry logEntry = new LogEntry(entry, type, thread, time);
+    public void record(QuestsLogger.LoggingLevel type, Supplier<String> supplier) {
+        if (isRecording(type)) {
+            buffer.add(supplier.get(), type);
+        }
+    }
 
-            synchronized (this) {
-                entries.add(logEntry);
-            }
+    public void record(QuestsLogger.LoggingLevel type, String entry) {
+        if (isRecording(type)) {
+            buffer.add(entry, type);
         }
     }
 
-    public synchronized List<LogEntry> getEntries() {
+    /**
+     * Pass each recorded line to the consumer, from oldest to newest. Lines recorded while this is
+     * running may or may not be included.
+     *
+     * @param consumer the consumer
+     */
+    public void forEachEntry(Consumer<LogEntry> consumer) {
+        buffer.forEach(consumer);
+    }
+
+    /**
+     * @return immutable copy of the recorded lines, from oldest to newest
+     */
+    public List<LogEntry> getEntries() {
+        List<LogEntry> entries = new ArrayList<>();
+        forEachEntry(entries::add);
         return Collections.unmodifiableList(entries);
     }
 
+    public int getCapacity() {
+        return buffer.entries.length();
+    }
+
+    /**
+     * Change the maximum number of lines to keep. The most recent lines are kept if the capacity is reduced.
+     *
+     * @param capacity the maximum number of lines to keep
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+        if (capacity == getCapacity()) {
+            return;
+        }
+
+        Buffer newBuffer = new Buffer(capacity);
+        List<LogEntry> entries = getEntries();
+        for (LogEntry entry : entries.subList(Math.max(0, entries.size() - capacity), entries.size())) {
+            newBuffer.add(entry);
+        }
+        buffer = newBuffer;
+    }
+
+    public QuestsLogger.LoggingLevel getLevel() {
+        return level;
+    }
+
+    public void setLevel(QuestsLogger.LoggingLevel level) {
+        this.level = level;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -43,17 +122,56 @@ public class LogHistory {
         this.enabled = enabled;
     }
 
+    private static final class Buffer {
+
+        private final AtomicReferenceArray<LogEntry> entries;
+        private final AtomicLong next = new AtomicLong();
+
+        private Buffer(int capacity) {
+            this.entries = new AtomicReferenceArray<>(capacity);
+        }
+
+        private void add(String entry, QuestsLogger.LoggingLevel type) {
+            long sequence = next.getAndIncrement();
+            entries.set((int) (sequence % entries.length()),
+                    new LogEntry(entry, type, Thread.currentThread().getName(), System.currentTimeMillis(), sequence));
+        }
+
+        private void add(LogEntry entry) {
+            long sequence = next.getAndIncrement();
+            entries.set((int) (sequence % entries.length()),
+                    new LogEntry(entry.entry, entry.type, entry.thread, entry.time, sequence));
+        }
+
+        private void forEach(Consumer<LogEntry> consumer) {
+            long end = next.get();
+            for (long sequence = Math.max(0, end - entries.length()); sequence < end; sequence++) {
+                LogEntry entry = entries.get((int) (sequence % entries.length()));
+                // the slot may not be written yet, or may have been overwritten by a newer line
+                if (entry != null && entry.sequence == sequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
     public static class LogEntry {
         private final String entry;
         private final QuestsLogger.LoggingLevel type;
         private final String thread;
         private final long time;
+        private final long sequence;
 
         public LogEntry(String entry, QuestsLogger.LoggingLevel type, String thread, long time) {
+            this(entry, type, thread, time, -1);
+        }
+
+        private LogEntry(String entry, QuestsLogger.LoggingLevel type, String thread, long time, long sequence) {
             this.entry = entry;
             this.type = type;
             this.thread = thread;
             this.time = time;
+            this.sequence = sequence;
         }
 
         public String getEntry() {
@@ -2,6 +2,7 @@ package com.leonardobishop.quests.bukkit.util;
 
 import com.leonardobishop.quests.bukkit.BukkitQuestsPlugin;
 import com.leonardobishop.quests.bukkit.util.chat.Chat;
+import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 
 //TODO refactor this
@@ -77,7 +78,7 @@ public enum Messages {
     PLACEHOLDERAPI_DATA_NOT_LOADED("messages.placeholderapi-data-not-loaded", "Data not loaded");
 
     static {
-        plugin = BukkitQuestsPlugin.getPlugin(BukkitQuestsPlugin.class);
+        plugin = (BukkitQuestsPlugin) Bukkit.getPluginManager().getPlugin("Quests");
     }
 
     private static final BukkitQuestsPlugin plugin;
@@ -0,0 +1,106 @@
+package com.leonardobishop.quests.bukkit.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A grid of 16x16 columns of blocks in each world, used to find the targets near a position without testing
+ * every target. Each target is added to every column its radius overlaps, so only the column a position is in
+ * needs to be looked up. Targets with a radius too large to add to each column are kept in a separate list
+ * for the world, which should always be tested.
+ * <p>
+ * This is not thread safe, and should be built and read from the main thread.
+ *
+ * @param <T> the type of target
+ */
+public class SpatialIndex<T> {
+
+    private static final int CELL_SHIFT = 4;
+    private static final int MAX_CELL_RADIUS = 16;
+
+    private final Map<String, WorldIndex<T>> worlds = new HashMap<>();
+
+    /**
+     * Add a target which covers a square around a block.
+     *
+     * @param world the name of the world
+     * @param x the block x co-ordinate
+     * @param z the block z co-ordinate
+     * @param radius the distance from the block the target extends to
+     * @param target the target
+     */
+    public void add(@NotNull String world, int x, int z, int radius, @NotNull T target) {
+        WorldIndex<T> worldIndex = worlds.computeIfAbsent(world, k -> new WorldIndex<>());
+        int minCellX = (x - radius) >> CELL_SHIFT;
+        int maxCellX = (x + radius) >> CELL_SHIFT;
+        int minCellZ = (z - radius) >> CELL_SHIFT;
+        int maxCellZ = (z + radius) >> CELL_SHIFT;
+        if (maxCellX - minCellX > MAX_CELL_RADIUS * 2 || maxCellZ - minCellZ > MAX_CELL_RADIUS * 2) {
+            worldIndex.unbounded.add(target);
+            return;
+        }
+
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                worldIndex.cells.computeIfAbsent(getCellKey(cellX, cellZ), k -> new ArrayList<>(1)).add(target);
+            }
+        }
+    }
+
+    /**
+     * Get the targets which may cover a block, excluding those returned by {@link #getUnbounded(String)}.
+     *
+     * @param world the name of the world
+     * @param x the block x co-ordinate
+     * @param z the block z co-ordinate
+     * @return list of targets, which must not be modified
+     */
+    public @NotNull List<T> get(@NotNull String world, int x, int z) {
+        WorldIndex<T> worldIndex = worlds.get(world);
+        if (worldIndex == null) {
+            return Collections.emptyList();
+        }
+        List<T> targets = worldIndex.cells.get(getCellKey(x >> CELL_SHIFT, z >> CELL_SHIFT));
+        return targets == null ? Collections.emptyList() : targets;
+    }
+
+    /**
+     * Get the targets with a radius too large to be indexed, which may cover any block in the world.
+     *
+     * @param world the name of the world
+     * @return list of targets, which must not be modified
+     */
+    public @NotNull List<T> getUnbounded(@NotNull String world) {
+        WorldIndex<T> worldIndex = worlds.get(world);
+        if (worldIndex == null) {
+            return Collections.emptyList();
+        }
+        return worldIndex.unbounded;
+    }
+
+    /**
+     * @param world the name of the world
+     * @return true if any target has been added in this world
+     */
+    public boolean hasTargets(@NotNull String world) {
+        return worlds.containsKey(world);
+    }
+
+    public void clear() {
+        worlds.clear();
+    }
+
+    private static long getCellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class WorldIndex<T> {
+        private final Map<Long, List<T>> cells = new HashMap<>();
+        private final List<T> unbounded = new ArrayList<>();
+    }
+}
@@ -7,11 +7,13 @@ import com.leonardobishop.quests.bukkit.tasktype.BukkitTaskType;
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.config.ConfigProblemDescriptions;
 import com.leonardobishop.quests.common.player.QPlayer;
+import com.leonardobishop.quests.common.player.questprogressfile.ActiveTaskIndex;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgress;
 import com.leonardobishop.quests.common.player.questprogressfile.TaskProgress;
 import com.leonardobishop.quests.common.quest.Quest;
 import com.leonardobishop.quests.common.quest.Task;
 import com.leonardobishop.quests.common.tasktype.TaskType;
+import org.bukkit.Bukkit;
 import org.bukkit.DyeColor;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
@@ -22,10 +24,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.material.Colorable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 public class TaskUtils {
 
@@ -33,7 +32,7 @@ public class TaskUtils {
     private static final BukkitQuestsPlugin plugin;
 
     static {
-        plugin = BukkitQuestsPlugin.getPlugin(BukkitQuestsPlugin.class);
+        plugin = (BukkitQuestsPlugin) Bukkit.getPluginManager().getPlugin("Quests");
     }
 
     public static boolean validateWorld(Player player, Task task) {
@@ -66,16 +65,16 @@ public class TaskUtils {
         return true;
     }
 
+    @SuppressWarnings("unchecked")
     public static List<String> getConfigStringList(Task task, String key) {
         Object configObject = task.getConfigValue(key);
 
-        List<String> strings = new ArrayList<>();
         if (configObject instanceof List) {
-            strings.addAll((List) configObject);
+            return Collections.unmodifiableList((List<String>) configObject);
         } else if (configObject != null) {
-            strings.add(String.valueOf(configObject));
+            return Collections.singletonList(String.valueOf(configObject));
         }
-        return strings;
+        return Collections.emptyList();
     }
 
     public static boolean getConfigBoolean(Task task, String key) {
@@ -117,57 +116,88 @@ public class TaskUtils {
     }
 
     public static double getDecimalTaskProgress(TaskProgress taskProgress) {
-        double progress;
-        if (taskProgress.getProgress() == null) {
-            progress = 0.0;
-        } else {
-            progress = (double) taskProgress.getProgress();
-        }
-        return progress;
+        return taskProgress.getDoubleProgress();
     }
 
     public static int getIntegerTaskProgress(TaskProgress taskProgress) {
-        int progress;
-        if (taskProgress.getProgress() == null) {
-            progress = 0;
-        } else {
-            progress = (int) taskProgress.getProgress();
-        }
-        return progress;
+        return taskProgress.getIntProgress();
     }
 
     public static int incrementIntegerTaskProgress(TaskProgress taskProgress) {
-        int progress = getIntegerTaskProgress(taskProgress);
-        taskProgress.setProgress(++progress);
-        return progress;
+        return taskProgress.incrementProgress(1);
     }
 
     public static List<PendingTask> getApplicableTasks(Player player, QPlayer qPlayer, TaskType type, TaskConstraint... constraints) {
         List<PendingTask> tasks = new ArrayList<>();
         List<TaskConstraint> taskConstraints = Arrays.asList(constraints);
 
-        for (Quest quest : type.getRegisteredQuests()) {
+        // quests started automatically are not marked as started in the progress file, so
+        // cannot be found in the active task index and must be tested individually
+        if (plugin.getQuestsConfig().getBoolean("options.quest-autostart")) {
+            for (Quest quest : type.getRegisteredQuests()) {
+                if (qPlayer.hasStartedQuest(quest)) {
+                    addApplicableTasks(tasks, player, qPlayer, quest, quest.getTasksOfType(type.getType()), taskConstraints);
+                }
+            }
+            return tasks;
+        }
+
+        for (Quest quest : type.getRegisteredAutoStartQuests()) {
             if (qPlayer.hasStartedQuest(quest)) {
-                QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+                addApplicableTasks(tasks, player, qPlayer, quest, quest.getTasksOfType(type.getType()), taskConstraints);
+            }
+        }
 
-                for (Task task : quest.getTasksOfType(type.getType())) {
-                    if (taskConstraints.contains(TaskConstraint.WORLD)) {
-                        if (!TaskUtils.validateWorld(player, task)) {
-                            continue;
-                        }
-                    }
+        for (ActiveTaskIndex.ActiveTask activeTask : qPlayer.getActiveTasks(type.getType())) {
+            Quest quest = activeTask.quest();
+            if (quest.isAutoStartEnabled()) {
+                continue;
+            }
 
-                    TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+            addApplicableTasks(tasks, player, qPlayer, quest, Collections.singletonList(activeTask.task()), taskConstraints);
+        }
+        return tasks;
+    }
 
-                    if (taskProgress.isCompleted()) {
-                        continue;
-                    }
+    /**
+     * Get a single task if it applies to the player, for task types which find candidate tasks themselves rather
+     * than testing every task returned by {@link #getApplicableTasks(Player, QPlayer, TaskType, TaskConstraint...)}.
+     *
+     * @param player the player
+     * @param qPlayer the quest player
+     * @param quest the quest the task belongs to
+     * @param task the task
+     * @param constraints the constraints to test
+     * @return the pending task, or null if the quest is not started or the task is already complete
+     */
+    public static PendingTask getApplicableTask(Player player, QPlayer qPlayer, Quest quest, Task task, TaskConstraint... constraints) {
+        if (!qPlayer.hasStartedQuest(quest)) {
+            return null;
+        }
 
-                    tasks.add(new PendingTask(quest, task, questProgress, taskProgress));
+        List<PendingTask> tasks = new ArrayList<>(1);
+        addApplicableTasks(tasks, player, qPlayer, quest, Collections.singletonList(task), Arrays.asList(constraints));
+        return tasks.isEmpty() ? null : tasks.get(0);
+    }
+
+    private static void addApplicableTasks(List<PendingTask> tasks, Player player, QPlayer qPlayer, Quest quest, List<Task> candidates, List<TaskConstraint> taskConstraints) {
+        QuestProgress questProgress = qPlayer.getQuestProgressFile().getQuestProgress(quest);
+
+        for (Task task : candidates) {
+            if (taskConstraints.contains(TaskConstraint.WORLD)) {
+                if (!TaskUtils.validateWorld(player, task)) {
+                    continue;
                 }
             }
+
+            TaskProgress taskProgress = questProgress.getTaskProgress(task.getId());
+
+            if (taskProgress.isCompleted()) {
+                continue;
+            }
+
+            tasks.add(new PendingTask(quest, task, questProgress, taskProgress));
         }
-        return tasks;
     }
 
     public record PendingTask(Quest quest, Task task, QuestProgress questProgress, TaskProgress taskProgress) { }
@@ -179,44 +209,98 @@ public class TaskUtils {
     public static boolean matchBlock(BukkitTaskType type, PendingTask pendingTask, Block block, UUID player) {
         Task task = pendingTask.task;
 
-        Material material;
+        BlockMatcher matcher = task.getCompiledConfig() instanceof BlockMatcher compiledMatcher
+                ? compiledMatcher
+                : compileBlockMatcher(task);
+        if (matcher.isEmpty()) {
+            return true;
+        }
 
-        Object configData = task.getConfigValue("data");
+        if (block == null) {
+            type.debug("Type mismatch", pendingTask.quest.getId(), task.getId(), player);
+            return false;
+        }
 
-        List<String> checkBlocks = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("block") ? "block" : "blocks");
-        if (checkBlocks.isEmpty()) {
+        Material material = block.getType();
+        if (matcher.materials.contains(material)) {
+            type.debug("Block match", pendingTask.quest.getId(), task.getId(), player);
             return true;
         }
 
+        int[] dataValues = matcher.dataValues.get(material);
+        if (dataValues == null) {
+            type.debug("Type mismatch", pendingTask.quest.getId(), task.getId(), player);
+            return false;
+        }
+
+        int blockData = block.getData();
+        for (int comparableData : dataValues) {
+            if (blockData == comparableData) {
+                type.debug("Block match", pendingTask.quest.getId(), task.getId(), player);
+                return true;
+            }
+        }
+        type.debug("Data mismatch", pendingTask.quest.getId(), task.getId(), player);
+        return false;
+    }
+
+    /**
+     * Compiles the 'block' or 'blocks' and 'data' values of a task into a {@link BlockMatcher},
+     * resolving material names in advance.
+     *
+     * @param task the task to compile
+     * @return block matcher
+     */
+    public static BlockMatcher compileBlockMatcher(Task task) {
+        Object configData = task.getConfigValue("data");
+
+        List<String> checkBlocks = TaskUtils.getConfigStringList(task, task.getConfigValues().containsKey("block") ? "block" : "blocks");
+
+        Set<Material> materials = EnumSet.noneOf(Material.class);
+        Map<Material, int[]> dataValues = new EnumMap<>(Material.class);
         for (String materialName : checkBlocks) {
             // LOG:1 LOG:2 LOG should all be supported with this
-            String[] split = materialName.split(":");
-            int comparableData = 0;
-            if (configData != null) {
-                comparableData = (int) configData;
-            }
-            if (split.length > 1) {
-                comparableData = Integer.parseInt(split[1]);
+            String[] split = String.valueOf(materialName).split(":");
+            Material material = Material.getMaterial(split[0]);
+            if (material == null) {
+                continue;
             }
 
-            material = Material.getMaterial(String.valueOf(split[0]));
+            if (split.length == 1 && configData == null) {
+                materials.add(material);
+                continue;
+            }
 
+            int comparableData = split.length > 1 ? Integer.parseInt(split[1]) : (int) configData;
+            dataValues.merge(material, new int[]{comparableData}, (existing, added) -> {
+                int[] merged = Arrays.copyOf(existing, existing.length + 1);
+                merged[existing.length] = added[0];
+                return merged;
+            });
+        }
+        return new BlockMatcher(checkBlocks.isEmpty(), materials, dataValues);
+    }
 
-            type.debug("Checking against block " + material, pendingTask.quest.getId(), task.getId(), player);
+    /**
+     * A pre-resolved set of blocks which a task accepts.
+     */
+    public static final class BlockMatcher {
+        private final boolean empty;
+        private final Set<Material> materials;
+        private final Map<Material, int[]> dataValues;
+
+        private BlockMatcher(boolean empty, Set<Material> materials, Map<Material, int[]> dataValues) {
+            this.empty = empty;
+            this.materials = materials;
+            this.dataValues = dataValues;
+        }
 
-            if (block != null && block.getType() == material) {
-                short blockData = block.getData();
-                if (((split.length == 1 && configData == null) || ((int) blockData) == comparableData)) {
-                    type.debug("Block match", pendingTask.quest.getId(), task.getId(), player);
-                    return true;
-                } else {
-                    type.debug("Data mismatch", pendingTask.quest.getId(), task.getId(), player);
-                }
-            } else {
-                type.debug("Type mismatch", pendingTask.quest.getId(), task.getId(), player);
-            }
+        /**
+         * @return true if the task did not specify any blocks, and so accepts all blocks
+         */
+        public boolean isEmpty() {
+            return empty;
         }
-        return false;
     }
 
     public static boolean matchDyeColor(BukkitTaskType type, PendingTask pendingTask, Colorable colorable, UUID player) {
@@ -237,7 +321,7 @@ public class TaskUtils {
                 break;
             }
 
-            type.debug("Checking against entity " + entityColor.name(), pendingTask.quest.getId(), task.getId(), player);
+            type.debug(() -> "Checking against entity " + entityColor.name(), pendingTask.quest.getId(), task.getId(), player);
 
             if (entityColor == color) {
                 type.debug("DyeColor match", pendingTask.quest.getId(), task.getId(), player);
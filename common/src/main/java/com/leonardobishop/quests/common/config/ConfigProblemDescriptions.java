@@ -107,6 +107,12 @@ public enum ConfigProblemDescriptions {
                     "This may be the result of a cascading error<br>" +
                     "if '%s' failed to load, or a mis-typed ID."
     ),
+    CYCLIC_REQUIREMENT("Quest requirements form a cycle: %s",
+                    "Each quest in the cycle requires the next to be<br>" +
+                    "completed first, so none of them can ever be<br>" +
+                    "started.<br><br>" +
+                    "%s"
+    ),
     NOT_ACCEPTED_VALUE("Value '%s' is not in the list of accepted values for task %s", null);
 
     private final String description;
@@ -1,5 +1,7 @@
 package com.leonardobishop.quests.common.logger;
 
+import java.util.function.Supplier;
+
 /**
  * The quests logger allows for user customisation of what gets logged.
  * Implementations of QuestsLogger should wrap the logger of that platform.
@@ -20,6 +22,33 @@ public interface QuestsLogger {
 
     void severe(String str);
 
+    /**
+     * Log a message which is only built if it would actually be logged or recorded somewhere. Implementations
+     * should override this, as by default the message is always built.
+     *
+     * @param str supplier of the message
+     * @param level the level to log at
+     */
+    default void log(Supplier<String> str, LoggingLevel level) {
+        log(str.get(), level);
+    }
+
+    default void debug(Supplier<String> str) {
+        log(str, LoggingLevel.DEBUG);
+    }
+
+    default void info(Supplier<String> str) {
+        log(str, LoggingLevel.INFO);
+    }
+
+    default void warning(Supplier<String> str) {
+        log(str, LoggingLevel.WARNING);
+    }
+
+    default void severe(Supplier<String> str) {
+        log(str, LoggingLevel.ERROR);
+    }
+
     enum LoggingLevel {
         ERROR(0),
         WARNING(1),
@@ -0,0 +1,101 @@
+package com.leonardobishop.quests.common.player;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Indexes the players who have debugging enabled by the quest id they are debugging. The index is kept
+ * up to date by {@link QPlayerPreferences#setDebug(String, QPlayerPreferences.DebugType)}, so that debug
+ * messages can be skipped without being built when nobody is debugging, which is almost always the case.
+ */
+public class DebugSubscriptions {
+
+    /**
+     * The quest id used by players who are debugging all quests.
+     */
+    public static final String ALL_QUESTS = "*";
+
+    private final Map<String, Set<UUID>> subscribers = new ConcurrentHashMap<>();
+    private volatile boolean anySubscribers;
+
+    /**
+     * Get if any player is debugging any quest. This is a single volatile read.
+     *
+     * @return true if anybody is debugging
+     */
+    public boolean hasSubscribers() {
+        return anySubscribers;
+    }
+
+    /**
+     * Get if any player is debugging a specific quest, or all quests.
+     *
+     * @param questId the quest id
+     * @return true if anybody is debugging the quest
+     */
+    public boolean hasSubscribers(@Nullable String questId) {
+        if (!anySubscribers || questId == null) {
+            return false;
+        }
+        return subscribers.containsKey(questId) || subscribers.containsKey(ALL_QUESTS);
+    }
+
+    /**
+     * Get the players who are debugging a specific quest, or all quests. The preferences of each player
+     * should still be checked for the type of debugging they have enabled for the quest.
+     *
+     * @param questId the quest id
+     * @return immutable set of player uuids
+     */
+    public @NotNull Set<UUID> getSubscribers(@NotNull String questId) {
+        Objects.requireNonNull(questId, "questId cannot be null");
+
+        Set<UUID> questSubscribers = subscribers.get(questId);
+        Set<UUID> allSubscribers = subscribers.get(ALL_QUESTS);
+        if (questSubscribers == null && allSubscribers == null) {
+            return Collections.emptySet();
+        }
+
+        Set<UUID> result = new HashSet<>();
+        if (questSubscribers != null) result.addAll(questSubscribers);
+        if (allSubscribers != null) result.addAll(allSubscribers);
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * Subscribe or unsubscribe a player from debug messages for a quest.
+     *
+     * @param player the uuid of the player
+     * @param questId the quest id, or {@link #ALL_QUESTS}
+     * @param subscribed whether the player is debugging the quest
+     */
+    public synchronized void setSubscribed(@NotNull UUID player, @NotNull String questId, boolean subscribed) {
+        Objects.requireNonNull(player, "player cannot be null");
+        Objects.requireNonNull(questId, "questId cannot be null");
+
+        if (subscribed) {
+            subscribers.computeIfAbsent(questId, k -> ConcurrentHashMap.newKeySet()).add(player);
+        } else {
+            Set<UUID> questSubscribers = subscribers.get(questId);
+            if (questSubscribers != null && questSubscribers.remove(player) && questSubscribers.isEmpty()) {
+                subscribers.remove(questId);
+            }
+        }
+        anySubscribers = !subscribers.isEmpty();
+    }
+
+    /**
+     * Unsubscribe a player from debug messages for all quests, such as when they are unloaded.
+     *
+     * @param player the uuid of the player
+     */
+    public synchronized void removeSubscriber(@NotNull UUID player) {
+        Objects.requireNonNull(player, "player cannot be null");
+
+        subscribers.values().removeIf(questSubscribers -> questSubscribers.remove(player) && questSubscribers.isEmpty());
+        anySubscribers = !subscribers.isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package com.leonardobishop.quests.common.player;
 
 import com.leonardobishop.quests.common.enums.QuestStartResult;
+import com.leonardobishop.quests.common.player.questprogressfile.ActiveTaskIndex;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.quest.Quest;
@@ -8,10 +9,10 @@ import com.leonardobishop.quests.common.questcontroller.QuestController;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Represents a player.
@@ -81,8 +82,26 @@ public class QPlayer {
      * @return list of effectively started quests
      */
     public List<Quest> getEffectiveStartedQuests() {
-        // TODO this can be better
-        return plugin.getQuestManager().getQuests().values().stream().filter(q -> questController.hasPlayerStartedQuest(this, q)).collect(Collectors.toList());
+        List<Quest> quests = new ArrayList<>();
+        for (Quest quest : plugin.getQuestManager().getQuests().values()) {
+            if (questController.hasPlayerStartedQuest(this, quest)) {
+                quests.add(quest);
+            }
+        }
+        return quests;
+    }
+
+    /**
+     * Gets the incomplete tasks of a specific task type which belong to quests the player has started.
+     * Unlike {@link QPlayer#getEffectiveStartedQuests()}, this does not include quests started automatically.
+     *
+     * @param type the task type
+     * @return immutable list of active tasks
+     */
+    public @NotNull List<ActiveTaskIndex.ActiveTask> getActiveTasks(@NotNull String type) {
+        Objects.requireNonNull(type, "type cannot be null");
+
+        return questProgressFile.getActiveTaskIndex().getActiveTasks(type);
     }
 
     /**
@@ -3,13 +3,16 @@ package com.leonardobishop.quests.common.player;
 import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.questcontroller.QuestController;
+import com.leonardobishop.quests.common.storage.StorageExecutor;
 import com.leonardobishop.quests.common.storage.StorageProvider;
+import com.leonardobishop.quests.common.tasktype.TaskType;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * The QPlayerManager is responsible for keeping a reference to all players on the server and is used to
@@ -18,13 +21,20 @@ import java.util.concurrent.ConcurrentHashMap;
 public class QPlayerManager {
 
     private final Map<UUID, QPlayer> qPlayers = new ConcurrentHashMap<>();
+    // players to unload once saved, guarded by itself so that a player registered again is never unloaded
+    private final Map<UUID, QPlayer> pendingRemovals = new HashMap<>();
+    private final Map<UUID, CompletableFuture<QuestProgressFile>> pendingLoads = new ConcurrentHashMap<>();
+    private final RetainedPlayerCache retainedPlayers = new RetainedPlayerCache(0, 0);
+    private final DebugSubscriptions debugSubscriptions = new DebugSubscriptions();
     private final Quests plugin;
     private final StorageProvider storageProvider;
+    private final StorageExecutor storageExecutor;
     private QuestController activeQuestController;
 
-    public QPlayerManager(Quests plugin, StorageProvider storageProvider, QuestController questController) {
+    public QPlayerManager(Quests plugin, StorageExecutor storageExecutor, QuestController questController) {
         this.plugin = plugin;
-        this.storageProvider = storageProvider;
+        this.storageProvider = storageExecutor.getStorageProvider();
+        this.storageExecutor = storageExecutor;
         this.activeQuestController = questController;
     }
 
@@ -40,21 +50,51 @@ public class QPlayerManager {
     }
 
     /**
-     * Unloads and schedules a save for the player. See {@link QPlayerManager#savePlayer(UUID)}
+     * Unloads and schedules a save for the player. See {@link QPlayerManager#savePlayer(UUID)}.
+     * The player is unloaded once the save has completed, unless they are registered again before then, and
+     * their progress is then retained by the {@link RetainedPlayerCache}.
      *
      * @param uuid the uuid of the player
      */
     public void removePlayer(@NotNull UUID uuid) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
-        plugin.getQuestsLogger().debug("Unloading and saving player " + uuid + "...");
-        CompletableFuture<Void> future = savePlayer(uuid);
-        future.thenAccept((v) -> qPlayers.remove(uuid));
+        plugin.getQuestsLogger().debug(() -> "Unloading and saving player " + uuid + "...");
+        debugSubscriptions.removeSubscriber(uuid);
+        QPlayer qPlayer = getPlayer(uuid);
+        if (qPlayer == null) return;
+
+        synchronized (pendingRemovals) {
+            pendingRemovals.put(uuid, qPlayer);
+        }
+        saveAndFlushPlayer(uuid, qPlayer).thenAccept((v) -> completeRemoval(uuid, qPlayer));
+    }
+
+    // other servers sharing the storage may load the player as soon as they are unloaded, so their progress
+    // is not left buffered by the storage provider
+    private CompletableFuture<Void> saveAndFlushPlayer(UUID uuid, QPlayer qPlayer) {
+        CompletableFuture<Void> saveFuture = savePlayer(uuid, qPlayer.getQuestProgressFile());
+        CompletableFuture<Boolean> flushFuture = storageExecutor.flush(uuid);
+        return saveFuture.thenCombine(flushFuture, (v, flushed) -> {
+            if (!flushed) {
+                plugin.getQuestsLogger().warning("Buffered progress of player " + uuid + " could not be written on unload, and will be written again later.");
+            }
+            return null;
+        });
+    }
+
+    private void completeRemoval(UUID uuid, QPlayer qPlayer) {
+        synchronized (pendingRemovals) {
+            if (pendingRemovals.remove(uuid, qPlayer) && qPlayers.remove(uuid, qPlayer)) {
+                retainedPlayers.retain(uuid, qPlayer.getQuestProgressFile());
+            }
+        }
     }
 
     /**
      * Schedules a save for the player with the {@link QuestProgressFile} associated by the {@link QPlayerManager}.
-     * The modified status of the progress file will be reset.
+     * The modified status of the progress file will be reset. Task types are first given the chance to add progress
+     * they have counted, see {@link TaskType#onSave(UUID)}, so this must be called on the server thread.
      *
      * @param uuid the uuid of the player
      * @return completable future
@@ -64,12 +104,16 @@ public class QPlayerManager {
 
         QPlayer qPlayer = getPlayer(uuid);
         if (qPlayer == null) return CompletableFuture.completedFuture(null);
+        for (TaskType taskType : plugin.getTaskTypeManager().getTaskTypes()) {
+            taskType.onSave(uuid);
+        }
         return savePlayer(uuid, qPlayer.getQuestProgressFile());
     }
 
     /**
-     * Schedules a save for the player with a specified {@link QuestProgressFile}. The modified status of the
-     * specified progress file will be reset.
+     * Schedules a save for the player with a specified {@link QuestProgressFile}. Only progress which has been
+     * modified is copied and saved, and the modified status of the specified progress file will be reset. If the
+     * save fails, the copied progress is marked as modified again.
      *
      * @param uuid the uuid of the player
      * @param originalProgressFile the quest progress file to associate with and save
@@ -79,16 +123,20 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(originalProgressFile, "originalProgressFile cannot be null");
 
-        CompletableFuture<Void> future = new CompletableFuture<>();
+        if (!originalProgressFile.hasModifiedProgress()) {
+            plugin.getQuestsLogger().debug(() -> "Player " + uuid + " has no modified progress, skipping save.");
+            return CompletableFuture.completedFuture(null);
+        }
 
-        QuestProgressFile clonedProgressFile = new QuestProgressFile(originalProgressFile);
-        originalProgressFile.resetModified();
-        plugin.getScheduler().doAsync(() -> {
-            save(uuid, clonedProgressFile);
-            future.complete(null);
+        QuestProgressFile modifiedProgressFile = originalProgressFile.snapshotModified();
+        plugin.getQuestsLogger().debug(() -> "Saving player " + uuid + "...");
+        return storageExecutor.save(uuid, modifiedProgressFile).thenAccept(saved -> {
+            logSave(uuid, saved);
+            if (!saved) {
+                // the progress is marked as modified again so that it is not lost, and is retried on the next save
+                plugin.getScheduler().doSync(() -> originalProgressFile.restoreModified(modifiedProgressFile));
+            }
         });
-
-        return future;
     }
 
     /**
@@ -120,9 +168,13 @@ public class QPlayerManager {
         Objects.requireNonNull(uuid, "uuid cannot be null");
         Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
 
-        plugin.getQuestsLogger().debug("Saving player " + uuid + "...");
-        if (storageProvider.saveProgressFile(uuid, questProgressFile)) {
-            plugin.getQuestsLogger().debug("Quest progress file saved for player " + uuid + ".");
+        plugin.getQuestsLogger().debug(() -> "Saving player " + uuid + "...");
+        logSave(uuid, storageProvider.saveProgressFile(uuid, questProgressFile));
+    }
+
+    private void logSave(UUID uuid, boolean saved) {
+        if (saved) {
+            plugin.getQuestsLogger().debug(() -> "Quest progress file saved for player " + uuid + ".");
         } else {
             plugin.getQuestsLogger().severe("Failed to save player " + uuid + "!");
         }
@@ -136,8 +188,13 @@ public class QPlayerManager {
     public void dropPlayer(@NotNull UUID uuid) {
         Objects.requireNonNull(uuid, "uuid cannot be null");
 
-        plugin.getQuestsLogger().debug("Dropping player " + uuid + ".");
-        qPlayers.remove(uuid);
+        plugin.getQuestsLogger().debug(() -> "Dropping player " + uuid + ".");
+        debugSubscriptions.removeSubscriber(uuid);
+        synchronized (pendingRemovals) {
+            pendingRemovals.remove(uuid);
+            retainedPlayers.invalidate(uuid);
+            qPlayers.remove(uuid);
+        }
     }
 
     /**
@@ -157,25 +214,140 @@ public class QPlayerManager {
      * @return completable future with the loaded player, or null if there was an error
      */
     public CompletableFuture<QPlayer> loadPlayer(UUID uuid) {
-        plugin.getQuestsLogger().debug("Loading player " + uuid + "...");
+        return loadProgressFile(uuid).thenApply(questProgressFile -> questProgressFile == null ? null : registerPlayer(uuid, questProgressFile));
+    }
+
+    /**
+     * Load the {@link QuestProgressFile} of a player without registering the player, so that it may be loaded
+     * before the player has joined. The player can then be registered with {@link #registerPlayer(UUID, QuestProgressFile)}.
+     * If the player is still loaded, or their progress has been retained since they were unloaded, it is used
+     * instead of loading it from storage. Concurrent loads of the same player share a single load.
+     *
+     * @param uuid the uuid of the player
+     * @return completable future with the loaded progress file, or null if there was an error
+     */
+    public CompletableFuture<QuestProgressFile> loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        QPlayer loadedPlayer = qPlayers.get(uuid);
+        if (loadedPlayer != null) {
+            plugin.getQuestsLogger().debug(() -> "Player " + uuid + " is already loaded.");
+            return CompletableFuture.completedFuture(loadedPlayer.getQuestProgressFile());
+        }
+        CompletableFuture<QuestProgressFile> pendingLoad = pendingLoads.get(uuid);
+        if (pendingLoad != null) {
+            plugin.getQuestsLogger().debug(() -> "Player " + uuid + " is already being loaded.");
+            return pendingLoad;
+        }
+        QuestProgressFile retainedProgressFile = retainedPlayers.take(uuid);
+        if (retainedProgressFile != null) {
+            plugin.getQuestsLogger().debug(() -> "Using retained quest progress file for player " + uuid + ".");
+            return CompletableFuture.completedFuture(retainedProgressFile);
+        }
+
+        plugin.getQuestsLogger().debug(() -> "Loading player " + uuid + "...");
+
+        CompletableFuture<QuestProgressFile> future = new CompletableFuture<>();
+        pendingLoad = pendingLoads.putIfAbsent(uuid, future);
+        if (pendingLoad != null) {
+            return pendingLoad;
+        }
+        storageExecutor.load(uuid).thenAccept(questProgressFile -> {
+            if (questProgressFile == null) {
+                plugin.getQuestsLogger().debug(() -> "A problem occurred trying loading player " + uuid + "; quest progress file is null.");
+            }
+            future.complete(questProgressFile);
+            pendingLoads.remove(uuid, future);
+        });
+
+        return future;
+    }
+
+    /**
+     * Register a player with a loaded {@link QuestProgressFile}.
+     * This will have no effect if player is already loaded.
+     *
+     * @param uuid the uuid of the player
+     * @param questProgressFile the loaded progress file of the player
+     * @return the registered player, which is the already loaded player if there is one
+     */
+    public @NotNull QPlayer registerPlayer(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        QPlayer qPlayer;
+        synchronized (pendingRemovals) {
+            // the player may have reconnected before they were unloaded
+            pendingRemovals.remove(uuid);
+            retainedPlayers.invalidate(uuid);
+            qPlayer = qPlayers.computeIfAbsent(uuid, s -> createPlayer(uuid, questProgressFile));
+        }
+        plugin.getQuestsLogger().debug(() -> "Quest progress file loaded for player " + uuid + ".");
+        return qPlayer;
+    }
+
+    /**
+     * Make a change to a player who may not be online, such as from an admin command, without blocking the
+     * calling thread. The player is loaded if they are not already, the mutation is applied on the server thread,
+     * and their progress is then saved asynchronously. A player who was loaded only for the mutation is unloaded
+     * once saved, unless they have joined in the meantime.
+     *
+     * @param uuid the uuid of the player
+     * @param mutation the change to make to the player, which is called on the server thread
+     * @return completable future with the player once their progress has been saved, or null if they could not be
+     * loaded, which completes exceptionally if the mutation throws an exception
+     */
+    public CompletableFuture<QPlayer> withPlayer(@NotNull UUID uuid, @NotNull Consumer<QPlayer> mutation) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(mutation, "mutation cannot be null");
 
         CompletableFuture<QPlayer> future = new CompletableFuture<>();
-        plugin.getScheduler().doAsync(() -> {
-            QuestProgressFile questProgressFile = storageProvider.loadProgressFile(uuid);
+        loadProgressFile(uuid).thenAccept(questProgressFile -> plugin.getScheduler().doSync(() -> {
             if (questProgressFile == null) {
-                plugin.getQuestsLogger().debug("A problem occurred trying loading player " + uuid + "; quest progress file is null.");
                 future.complete(null);
                 return;
             }
-            QPlayer qPlayer = new QPlayer(plugin, uuid, new QPlayerPreferences(null), questProgressFile, activeQuestController);
-            qPlayers.computeIfAbsent(uuid, s -> qPlayer);
-            plugin.getQuestsLogger().debug("Quest progress file loaded for player " + uuid + ".");
-            future.complete(qPlayer);
-        });
 
+            QPlayer qPlayer;
+            synchronized (pendingRemovals) {
+                qPlayer = qPlayers.get(uuid);
+                if (qPlayer == null) {
+                    retainedPlayers.invalidate(uuid);
+                    qPlayer = createPlayer(uuid, questProgressFile);
+                    qPlayers.put(uuid, qPlayer);
+                    pendingRemovals.put(uuid, qPlayer);
+                }
+            }
+
+            try {
+                mutation.accept(qPlayer);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+
+            // the progress file is saved even if the mutation failed part way through
+            QPlayer mutatedPlayer = qPlayer;
+            saveAndFlushPlayer(uuid, qPlayer).thenRun(() -> {
+                completeRemoval(uuid, mutatedPlayer);
+                future.complete(mutatedPlayer);
+            });
+        }));
         return future;
     }
 
+    private QPlayer createPlayer(UUID uuid, QuestProgressFile questProgressFile) {
+        return new QPlayer(plugin, uuid, new QPlayerPreferences(uuid, debugSubscriptions, null), questProgressFile, activeQuestController);
+    }
+
+    /**
+     * Gets the cache of progress retained for players who have recently been unloaded.
+     *
+     * @return {@link RetainedPlayerCache}
+     */
+    public RetainedPlayerCache getRetainedPlayers() {
+        return retainedPlayers;
+    }
+
     /**
      * Gets the current storage provider which loads and saves players.
      *
@@ -185,6 +357,24 @@ public class QPlayerManager {
         return storageProvider;
     }
 
+    /**
+     * Gets the executor which loads and saves players asynchronously.
+     *
+     * @return {@link StorageExecutor}
+     */
+    public StorageExecutor getStorageExecutor() {
+        return storageExecutor;
+    }
+
+    /**
+     * Gets the index of players who have debugging enabled.
+     *
+     * @return {@link DebugSubscriptions}
+     */
+    public DebugSubscriptions getDebugSubscriptions() {
+        return debugSubscriptions;
+    }
+
     public QuestController getActiveQuestController() {
         return activeQuestController;
     }
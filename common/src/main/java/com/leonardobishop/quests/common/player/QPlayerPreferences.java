@@ -4,13 +4,27 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 public class QPlayerPreferences {
 
     private final Map<String, DebugType> debug = new HashMap<>();
+    private final UUID playerUUID;
+    private final DebugSubscriptions debugSubscriptions;
     private String trackedQuestId;
 
     public QPlayerPreferences(String trackedQuestId) {
+        this(null, null, trackedQuestId);
+    }
+
+    /**
+     * @param playerUUID the uuid of the player these preferences belong to
+     * @param debugSubscriptions the index to keep up to date when debugging is enabled or disabled
+     * @param trackedQuestId the id of the quest the player is tracking
+     */
+    public QPlayerPreferences(@Nullable UUID playerUUID, @Nullable DebugSubscriptions debugSubscriptions, String trackedQuestId) {
+        this.playerUUID = playerUUID;
+        this.debugSubscriptions = debugSubscriptions;
         this.trackedQuestId = trackedQuestId;
     }
 
@@ -28,6 +42,9 @@ public class QPlayerPreferences {
 
     public void setDebug(String questId, DebugType debugType) {
         debug.put(questId, debugType);
+        if (debugSubscriptions != null && playerUUID != null) {
+            debugSubscriptions.setSubscribed(playerUUID, questId, debugType != null);
+        }
     }
 
     public enum DebugType {
@@ -0,0 +1,148 @@
+package com.leonardobishop.quests.common.player;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the progress of players who have recently been unloaded, so that a player who reconnects shortly after
+ * leaving does not have to be loaded from storage again. Progress is only retained once it has been saved, and
+ * is forgotten after the grace period, once the maximum number of players are retained (oldest first), or when
+ * the garbage collector needs the memory.
+ * <p>
+ * Retained progress is taken rather than copied, so it is only ever given back to one player.
+ */
+public class RetainedPlayerCache {
+
+    private final Map<UUID, RetainedPlayer> players = new LinkedHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long gracePeriod;
+    private int maxSize;
+
+    /**
+     * @param gracePeriod the time in milliseconds progress is retained for, or 0 to not retain progress
+     * @param maxSize the maximum number of players to retain
+     */
+    public RetainedPlayerCache(long gracePeriod, int maxSize) {
+        this.gracePeriod = gracePeriod;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Retain the progress of a player who has been unloaded, replacing any progress already retained for them.
+     *
+     * @param uuid the uuid of the player
+     * @param questProgressFile the progress of the player, which must have been saved
+     */
+    public synchronized void retain(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        if (gracePeriod <= 0 || maxSize <= 0) return;
+
+        long time = System.currentTimeMillis();
+        removeExpired(time);
+        // removed first, so that the player is moved to the end of the insertion order
+        players.remove(uuid);
+        players.put(uuid, new RetainedPlayer(new SoftReference<>(questProgressFile), time));
+        Iterator<RetainedPlayer> iterator = players.values().iterator();
+        while (players.size() > maxSize) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Take the retained progress of a player, which is no longer retained afterwards.
+     *
+     * @param uuid the uuid of the player
+     * @return the retained progress, or null if there is none
+     */
+    public synchronized @Nullable QuestProgressFile take(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        if (gracePeriod <= 0) return null;
+
+        removeExpired(System.currentTimeMillis());
+        RetainedPlayer retainedPlayer = players.remove(uuid);
+        QuestProgressFile questProgressFile = retainedPlayer == null ? null : retainedPlayer.questProgressFile().get();
+        if (questProgressFile == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return questProgressFile;
+    }
+
+    /**
+     * Forget the retained progress of a player, such as when their stored progress has been changed elsewhere.
+     *
+     * @param uuid the uuid of the player
+     */
+    public synchronized void invalidate(@NotNull UUID uuid) {
+        players.remove(uuid);
+    }
+
+    public synchronized void clear() {
+        players.clear();
+    }
+
+    // players are in the order they were retained, so only the head needs to be checked
+    private void removeExpired(long time) {
+        Iterator<RetainedPlayer> iterator = players.values().iterator();
+        while (iterator.hasNext()) {
+            RetainedPlayer retainedPlayer = iterator.next();
+            if (time - retainedPlayer.retainedAt() < gracePeriod && retainedPlayer.questProgressFile().get() != null) {
+                break;
+            }
+            iterator.remove();
+        }
+    }
+
+    public synchronized int size() {
+        return players.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public synchronized long getGracePeriod() {
+        return gracePeriod;
+    }
+
+    public synchronized void setGracePeriod(long gracePeriod) {
+        this.gracePeriod = gracePeriod;
+        if (gracePeriod <= 0) {
+            players.clear();
+        }
+    }
+
+    public synchronized int getMaxSize() {
+        return maxSize;
+    }
+
+    public synchronized void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        Iterator<RetainedPlayer> iterator = players.values().iterator();
+        while (players.size() > Math.max(0, maxSize)) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private record RetainedPlayer(SoftReference<QuestProgressFile> questProgressFile, long retainedAt) { }
+}
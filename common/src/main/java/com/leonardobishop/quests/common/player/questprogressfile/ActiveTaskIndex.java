@@ -0,0 +1,168 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Indexes the incomplete tasks of all started quests in a {@link QuestProgressFile} by their task type.
+ * The index is kept up to date by {@link QuestProgress} and {@link TaskProgress} as they are mutated,
+ * and is rebuilt lazily whenever it has been invalidated (for example, after a quest reload).
+ * <p>
+ * Quests which are started automatically are not reflected in the index, as they are not marked as
+ * started in the progress file.
+ * <p>
+ * The index is an immutable map which is replaced as a whole whenever it changes, so that readers never
+ * observe it part way through being rebuilt or invalidated.
+ */
+public class ActiveTaskIndex {
+
+    private final QuestProgressFile questProgressFile;
+    private final Quests plugin;
+    // null when the index is invalid
+    private volatile Map<String, List<ActiveTask>> activeTasks;
+
+    ActiveTaskIndex(QuestProgressFile questProgressFile, Quests plugin) {
+        this.questProgressFile = questProgressFile;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get all incomplete tasks of a specific task type which belong to a started quest.
+     *
+     * @param type the task type
+     * @return immutable list of active tasks
+     */
+    public @NotNull List<ActiveTask> getActiveTasks(@NotNull String type) {
+        Objects.requireNonNull(type, "type cannot be null");
+
+        Map<String, List<ActiveTask>> activeTasks = this.activeTasks;
+        if (activeTasks == null) {
+            activeTasks = rebuild();
+        }
+        return activeTasks.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * Invalidates the index, causing it to be rebuilt the next time it is queried.
+     */
+    public synchronized void invalidate() {
+        activeTasks = null;
+    }
+
+    private synchronized Map<String, List<ActiveTask>> rebuild() {
+        if (activeTasks != null) return activeTasks;
+
+        Map<String, List<ActiveTask>> rebuilt = new HashMap<>();
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (questProgress.isStarted()) {
+                addQuest(rebuilt, questProgress);
+            }
+        }
+        activeTasks = Collections.unmodifiableMap(rebuilt);
+        return activeTasks;
+    }
+
+    synchronized void updateQuest(QuestProgress questProgress) {
+        if (activeTasks == null) return;
+
+        Map<String, List<ActiveTask>> updated = new HashMap<>(activeTasks);
+        removeQuest(updated, questProgress.getQuestId());
+        if (questProgress.isStarted()) {
+            addQuest(updated, questProgress);
+        }
+        activeTasks = Collections.unmodifiableMap(updated);
+    }
+
+    synchronized void updateTask(QuestProgress questProgress, TaskProgress taskProgress) {
+        if (activeTasks == null || !questProgress.isStarted()) return;
+
+        Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        if (quest == null) return;
+        Task task = quest.getTaskById(taskProgress.getTaskId());
+        if (task == null) return;
+
+        List<ActiveTask> tasks = activeTasks.getOrDefault(task.getType(), Collections.emptyList());
+        int index = indexOf(tasks, quest, task);
+        List<ActiveTask> newTasks;
+        if (taskProgress.isCompleted() && index != -1) {
+            newTasks = new ArrayList<>(tasks);
+            newTasks.remove(index);
+        } else if (!taskProgress.isCompleted() && index == -1) {
+            newTasks = new ArrayList<>(tasks);
+            newTasks.add(new ActiveTask(quest, task));
+        } else {
+            return;
+        }
+
+        Map<String, List<ActiveTask>> updated = new HashMap<>(activeTasks);
+        put(updated, task.getType(), newTasks);
+        activeTasks = Collections.unmodifiableMap(updated);
+    }
+
+    private void addQuest(Map<String, List<ActiveTask>> activeTasks, QuestProgress questProgress) {
+        Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        if (quest == null) return;
+
+        for (Task task : quest.getTasks()) {
+            TaskProgress taskProgress = questProgress.getTaskProgressMap().get(task.getId());
+            if (taskProgress != null && taskProgress.isCompleted()) {
+                continue;
+            }
+
+            List<ActiveTask> newTasks = new ArrayList<>(activeTasks.getOrDefault(task.getType(), Collections.emptyList()));
+            newTasks.add(new ActiveTask(quest, task));
+            put(activeTasks, task.getType(), newTasks);
+        }
+    }
+
+    private void removeQuest(Map<String, List<ActiveTask>> activeTasks, String questId) {
+        // entries are replaced rather than removed while iterating
+        List<Map.Entry<String, List<ActiveTask>>> entries = new ArrayList<>(activeTasks.entrySet());
+        for (Map.Entry<String, List<ActiveTask>> entry : entries) {
+            List<ActiveTask> tasks = entry.getValue();
+            boolean present = false;
+            for (ActiveTask activeTask : tasks) {
+                if (activeTask.quest().getId().equals(questId)) {
+                    present = true;
+                    break;
+                }
+            }
+            if (!present) continue;
+
+            List<ActiveTask> newTasks = new ArrayList<>(tasks.size());
+            for (ActiveTask activeTask : tasks) {
+                if (!activeTask.quest().getId().equals(questId)) {
+                    newTasks.add(activeTask);
+                }
+            }
+            put(activeTasks, entry.getKey(), newTasks);
+        }
+    }
+
+    private int indexOf(List<ActiveTask> tasks, Quest quest, Task task) {
+        for (int i = 0; i < tasks.size(); i++) {
+            ActiveTask activeTask = tasks.get(i);
+            if (activeTask.quest().getId().equals(quest.getId()) && activeTask.task().getId().equals(task.getId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // lists are replaced rather than mutated so that callers may safely iterate
+    // over them while progress is being changed
+    private void put(Map<String, List<ActiveTask>> activeTasks, String type, List<ActiveTask> tasks) {
+        if (tasks.isEmpty()) {
+            activeTasks.remove(type);
+        } else {
+            activeTasks.put(type, Collections.unmodifiableList(tasks));
+        }
+    }
+
+    public record ActiveTask(Quest quest, Task task) { }
+
+}
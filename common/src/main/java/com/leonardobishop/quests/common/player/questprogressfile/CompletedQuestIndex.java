@@ -0,0 +1,74 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.QuestRequirementGraph;
+
+import java.util.List;
+
+/**
+ * A bitset of the quests in a {@link QuestProgressFile} which have been completed before, indexed by their
+ * ordinal in a {@link QuestRequirementGraph}. The bitset is kept up to date by {@link QuestProgress} as it is
+ * mutated, and is rebuilt lazily whenever it has been invalidated or the graph has changed (for example, after
+ * a quest reload).
+ */
+final class CompletedQuestIndex {
+
+    private final QuestProgressFile questProgressFile;
+    private QuestRequirementGraph graph;
+    private long[] completedBefore;
+
+    CompletedQuestIndex(QuestProgressFile questProgressFile) {
+        this.questProgressFile = questProgressFile;
+    }
+
+    synchronized boolean hasMetRequirements(QuestRequirementGraph graph, int ordinal) {
+        return graph.isUnlocked(ordinal, getCompletedBefore(graph));
+    }
+
+    synchronized List<Quest> getUnmetRequirements(QuestRequirementGraph graph, int ordinal) {
+        return graph.getUnmetRequirements(ordinal, getCompletedBefore(graph));
+    }
+
+    synchronized List<Quest> getUnlockedBy(QuestRequirementGraph graph, int ordinal) {
+        return graph.getUnlockedBy(ordinal, getCompletedBefore(graph));
+    }
+
+    synchronized void invalidate() {
+        graph = null;
+        completedBefore = null;
+    }
+
+    synchronized void updateQuest(QuestProgress questProgress) {
+        if (graph == null) return;
+
+        int ordinal = graph.getOrdinal(questProgress.getQuestId());
+        if (ordinal == -1) return;
+
+        if (questProgress.isCompletedBefore()) {
+            completedBefore[ordinal >>> 6] |= 1L << ordinal;
+        } else {
+            completedBefore[ordinal >>> 6] &= ~(1L << ordinal);
+        }
+    }
+
+    private long[] getCompletedBefore(QuestRequirementGraph graph) {
+        if (this.graph != graph) {
+            rebuild(graph);
+        }
+        return completedBefore;
+    }
+
+    private void rebuild(QuestRequirementGraph graph) {
+        long[] completedBefore = new long[(graph.size() + 63) >>> 6];
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            if (!questProgress.isCompletedBefore()) continue;
+
+            int ordinal = graph.getOrdinal(questProgress.getQuestId());
+            if (ordinal != -1) {
+                completedBefore[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        this.graph = graph;
+        this.completedBefore = completedBefore;
+    }
+}
@@ -15,6 +15,7 @@ public class QuestProgress {
     private final String questid;
     private final UUID player;
 
+    private QuestProgressFile linkedQuestProgressFile;
     private boolean started;
     private long startedDate;
     private boolean completed;
@@ -53,6 +54,25 @@ public class QuestProgress {
         this.modified = questProgress.modified;
     }
 
+    /**
+     * Copies the quest progress, only including task progress which has been modified.
+     */
+    private QuestProgress(QuestProgress questProgress, boolean modifiedOnly) {
+        this.plugin = questProgress.plugin;
+        for (Map.Entry<String, TaskProgress> progressEntry : questProgress.taskProgress.entrySet()) {
+            if (modifiedOnly && !progressEntry.getValue().isModified()) continue;
+            taskProgress.put(progressEntry.getKey(), new TaskProgress(progressEntry.getValue()));
+        }
+        this.questid = questProgress.questid;
+        this.player = questProgress.player;
+        this.started = questProgress.started;
+        this.startedDate = questProgress.startedDate;
+        this.completed = questProgress.completed;
+        this.completedBefore = questProgress.completedBefore;
+        this.completionDate = questProgress.completionDate;
+        this.modified = questProgress.modified;
+    }
+
     public String getQuestId() {
         return questid;
     }
@@ -62,8 +82,14 @@ public class QuestProgress {
     }
 
     public void setCompleted(boolean completed) {
+        boolean previous = this.completed;
         this.completed = completed;
-        this.modified = true;
+        markModified();
+
+        if (linkedQuestProgressFile != null && previous != completed) {
+            linkedQuestProgressFile.getQuestCounts().updateQuest(this, QuestProgressFile.QuestsProgressFilter.COMPLETED, completed);
+            linkedQuestProgressFile.statusChanged();
+        }
     }
 
     public boolean isStarted() {
@@ -71,8 +97,18 @@ public class QuestProgress {
     }
 
     public void setStarted(boolean started) {
+        boolean previous = this.started;
         this.started = started;
-        this.modified = true;
+        markModified();
+
+        if (linkedQuestProgressFile != null) {
+            linkedQuestProgressFile.getActiveTaskIndex().updateQuest(this);
+            if (previous != started) {
+                linkedQuestProgressFile.getQuestCounts().updateQuest(this, QuestProgressFile.QuestsProgressFilter.STARTED, started);
+                linkedQuestProgressFile.statusChanged();
+                plugin.getQuestCompleter().scheduleExpiry(this);
+            }
+        }
     }
 
     public long getStartedDate() {
@@ -80,8 +116,13 @@ public class QuestProgress {
     }
 
     public void setStartedDate(long startedDate) {
+        long previous = this.startedDate;
         this.startedDate = startedDate;
-        this.modified = true;
+        markModified();
+
+        if (linkedQuestProgressFile != null && started && previous != startedDate) {
+            plugin.getQuestCompleter().scheduleExpiry(this);
+        }
     }
 
     public long getCompletionDate() {
@@ -89,8 +130,13 @@ public class QuestProgress {
     }
 
     public void setCompletionDate(long completionDate) {
+        long previous = this.completionDate;
         this.completionDate = completionDate;
-        this.modified = true;
+        markModified();
+
+        if (linkedQuestProgressFile != null && previous != completionDate) {
+            linkedQuestProgressFile.statusChanged();
+        }
     }
 
     public UUID getPlayer() {
@@ -102,12 +148,23 @@ public class QuestProgress {
     }
 
     public void setCompletedBefore(boolean completedBefore) {
+        boolean previous = this.completedBefore;
         this.completedBefore = completedBefore;
-        this.modified = true;
+        markModified();
+
+        if (linkedQuestProgressFile != null && previous != completedBefore) {
+            linkedQuestProgressFile.getQuestCounts().updateQuest(this, QuestProgressFile.QuestsProgressFilter.COMPLETED_BEFORE, completedBefore);
+            linkedQuestProgressFile.getCompletedQuestIndex().updateQuest(this);
+            linkedQuestProgressFile.statusChanged();
+        }
     }
 
     public void addTaskProgress(TaskProgress taskProgress) {
         this.taskProgress.put(taskProgress.getTaskId(), taskProgress);
+        updateTaskCompletion(taskProgress);
+        if (taskProgress.isModified()) {
+            notifyModified();
+        }
     }
 
     public Collection<TaskProgress> getTaskProgress() {
@@ -146,12 +203,59 @@ public class QuestProgress {
         if (this.started || this.startedDate != 0 || this.completed || this.completedBefore || this.completionDate != 0) return true;
         else {
             for (TaskProgress progress : this.taskProgress.values()) {
-                if (progress.getProgress() != null || progress.isCompleted()) return true;
+                if (progress.hasProgress() || progress.isCompleted()) return true;
             }
             return false;
         }
     }
 
+    QuestProgress copyModified() {
+        return new QuestProgress(this, true);
+    }
+
+    /**
+     * Marks the progress which was modified in a snapshot of this quest progress as modified again.
+     */
+    void restoreModified(QuestProgress snapshot) {
+        for (String taskId : snapshot.taskProgress.keySet()) {
+            TaskProgress progress = taskProgress.get(taskId);
+            if (progress != null) {
+                progress.setModified(true);
+            }
+        }
+        if (snapshot.modified) {
+            markModified();
+        }
+    }
+
+    private void markModified() {
+        this.modified = true;
+        notifyModified();
+    }
+
+    void notifyModified() {
+        if (linkedQuestProgressFile != null) {
+            linkedQuestProgressFile.markModified(questid);
+        }
+    }
+
+    /**
+     * @return the progress file this progress belongs to, or null if it has not been added to one
+     */
+    public QuestProgressFile getLinkedQuestProgressFile() {
+        return linkedQuestProgressFile;
+    }
+
+        void setLinkedQuestProgressFile(QuestProgressFile linkedQuestProgressFile) {
+        this.linkedQuestProgressFile = linkedQuestProgressFile;
+    }
+
+    void updateTaskCompletion(TaskProgress taskProgress) {
+        if (linkedQuestProgressFile != null) {
+            linkedQuestProgressFile.getActiveTaskIndex().updateTask(this, taskProgress);
+        }
+    }
+
     public void queueForCompletionTest() {
         plugin.getQuestCompleter().queueSingular(this);
     }
@@ -168,5 +272,8 @@ public class QuestProgress {
         for (TaskProgress progress : this.taskProgress.values()) {
             progress.setModified(modified);
         }
+        if (modified) {
+            notifyModified();
+        }
     }
 }
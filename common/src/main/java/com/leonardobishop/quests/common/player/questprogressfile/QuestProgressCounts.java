@@ -0,0 +1,100 @@
+package com.leonardobishop.quests.common.player.questprogressfile;
+
+import com.leonardobishop.quests.common.plugin.Quests;
+import com.leonardobishop.quests.common.quest.Quest;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Counts the quests in a {@link QuestProgressFile} which are started, completed and completed before.
+ * The counts are kept up to date by {@link QuestProgress} as it is mutated, and are recounted lazily
+ * whenever they have been invalidated (for example, after a quest reload).
+ * <p>
+ * Only quests which are registered are counted. Quests which are started automatically are not counted
+ * as started, as whether they are started depends on more than the progress file.
+ */
+public class QuestProgressCounts {
+
+    private final QuestProgressFile questProgressFile;
+    private final Quests plugin;
+    private int started;
+    private int completed;
+    private int completedBefore;
+    private boolean valid;
+
+    QuestProgressCounts(QuestProgressFile questProgressFile, Quests plugin) {
+        this.questProgressFile = questProgressFile;
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the number of quests matching a filter, without building a list of them.
+     *
+     * @param filter the filter, which must not be {@link QuestProgressFile.QuestsProgressFilter#ALL}
+     * @return the number of quests
+     */
+    public synchronized int getCount(@NotNull QuestProgressFile.QuestsProgressFilter filter) {
+        Objects.requireNonNull(filter, "filter cannot be null");
+
+        if (!valid) {
+            recount();
+        }
+        return switch (filter) {
+            case STARTED -> started;
+            case COMPLETED -> completed;
+            case COMPLETED_BEFORE -> completedBefore;
+            case ALL -> throw new IllegalArgumentException("quests with any progress are not counted");
+        };
+    }
+
+    /**
+     * Invalidates the counts, causing them to be recounted the next time they are queried.
+     */
+    public synchronized void invalidate() {
+        valid = false;
+    }
+
+    private void recount() {
+        started = 0;
+        completed = 0;
+        completedBefore = 0;
+        for (QuestProgress questProgress : questProgressFile.getAllQuestProgress()) {
+            count(questProgress, 1);
+        }
+        valid = true;
+    }
+
+    synchronized void addQuest(QuestProgress questProgress) {
+        if (valid) count(questProgress, 1);
+    }
+
+    synchronized void removeQuest(QuestProgress questProgress) {
+        if (valid) count(questProgress, -1);
+    }
+
+    synchronized void updateQuest(QuestProgress questProgress, QuestProgressFile.QuestsProgressFilter filter, boolean value) {
+        if (!valid) return;
+
+        Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        if (quest == null) return;
+
+        int delta = value ? 1 : -1;
+        switch (filter) {
+            case STARTED -> {
+                if (!quest.isAutoStartEnabled()) started += delta;
+            }
+            case COMPLETED -> completed += delta;
+            case COMPLETED_BEFORE -> completedBefore += delta;
+        }
+    }
+
+    private void count(QuestProgress questProgress, int delta) {
+        Quest quest = plugin.getQuestManager().getQuestById(questProgress.getQuestId());
+        if (quest == null) return;
+
+        if (questProgress.isStarted() && !quest.isAutoStartEnabled()) started += delta;
+        if (questProgress.isCompleted()) completed += delta;
+        if (questProgress.isCompletedBefore()) completedBefore += delta;
+    }
+}
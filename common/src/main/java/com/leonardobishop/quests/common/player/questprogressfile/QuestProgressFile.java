@@ -3,6 +3,7 @@ package com.leonardobishop.quests.common.player.questprogressfile;
 import com.leonardobishop.quests.common.player.QPlayer;
 import com.leonardobishop.quests.common.plugin.Quests;
 import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.QuestRequirementGraph;
 import com.leonardobishop.quests.common.quest.Task;
 
 import java.util.*;
@@ -14,12 +15,20 @@ import java.util.concurrent.TimeUnit;
 public class QuestProgressFile {
 
     private final Map<String, QuestProgress> questProgress = new HashMap<>();
+    private final Set<String> modifiedQuests = new HashSet<>();
     private final UUID playerUUID;
     private final Quests plugin;
+    private final ActiveTaskIndex activeTaskIndex;
+    private final QuestProgressCounts questCounts;
+    private final CompletedQuestIndex completedQuestIndex;
+    private volatile long statusVersion;
 
     public QuestProgressFile(UUID playerUUID, Quests plugin) {
         this.playerUUID = playerUUID;
         this.plugin = plugin;
+        this.activeTaskIndex = new ActiveTaskIndex(this, plugin);
+        this.questCounts = new QuestProgressCounts(this, plugin);
+        this.completedQuestIndex = new CompletedQuestIndex(this);
     }
 
     public QuestProgressFile(QuestProgressFile questProgressFile) {
@@ -28,6 +37,9 @@ public class QuestProgressFile {
         }
         this.playerUUID = questProgressFile.playerUUID;
         this.plugin = questProgressFile.plugin;
+        this.activeTaskIndex = new ActiveTaskIndex(this, plugin);
+        this.questCounts = new QuestProgressCounts(this, plugin);
+        this.completedQuestIndex = new CompletedQuestIndex(this);
     }
 
     public void addQuestProgress(QuestProgress questProgress) {
@@ -35,7 +47,24 @@ public class QuestProgressFile {
 //        if (Options.VERIFY_QUEST_EXISTS_ON_LOAD.getBooleanValue(true) && plugin.getQuestManager().getQuestById(questProgress.getQuestId()) == null) {
 //            return;
 //        }
-        this.questProgress.put(questProgress.getQuestId(), questProgress);
+        questProgress.setLinkedQuestProgressFile(this);
+        QuestProgress previous = this.questProgress.put(questProgress.getQuestId(), questProgress);
+        activeTaskIndex.updateQuest(questProgress);
+        if (previous != null) {
+            questCounts.removeQuest(previous);
+        }
+        questCounts.addQuest(questProgress);
+        completedQuestIndex.updateQuest(questProgress);
+        if (questProgress.isStarted() || previous != null && previous.isStarted()) {
+            plugin.getQuestCompleter().scheduleExpiry(questProgress);
+        }
+        // blank progress is equivalent to no progress, so generating it does not change the status
+        if (previous != null || questProgress.hasNonDefaultValues()) {
+            statusChanged();
+        }
+        if (questProgress.isModified()) {
+            modifiedQuests.add(questProgress.getQuestId());
+        }
     }
 
     /**
@@ -173,18 +202,55 @@ public class QuestProgressFile {
      */
     //TODO possibly move this
     public boolean hasMetRequirements(Quest quest) {
+        QuestRequirementGraph graph = plugin.getQuestManager().getRequirementGraph();
+        int ordinal = graph.getOrdinal(quest);
+        if (ordinal == -1) {
+            return getUnmetRequirements(quest).isEmpty();
+        }
+        return completedQuestIndex.hasMetRequirements(graph, ordinal);
+    }
+
+    /**
+     * Get the quests which the player must complete before they meet the requirements to start a specific quest.
+     *
+     * @param quest the quest to test for
+     * @return list of quests not yet completed, in the order they are required
+     */
+    public List<Quest> getUnmetRequirements(Quest quest) {
+        QuestRequirementGraph graph = plugin.getQuestManager().getRequirementGraph();
+        int ordinal = graph.getOrdinal(quest);
+        if (ordinal != -1) {
+            return completedQuestIndex.getUnmetRequirements(graph, ordinal);
+        }
+
+        // the quest is not registered, so its requirements are not in the graph
+        List<Quest> unmet = new ArrayList<>();
         for (String id : quest.getRequirements()) {
             Quest q = plugin.getQuestManager().getQuestById(id);
             if (q == null) {
                 continue;
             }
-            if (hasQuestProgress(q) && !getQuestProgress(q).isCompletedBefore()) {
-                return false;
-            } else if (!hasQuestProgress(q)) {
-                return false;
+            if (!hasQuestProgress(q) || !getQuestProgress(q).isCompletedBefore()) {
+                unmet.add(q);
             }
         }
-        return true;
+        return unmet;
+    }
+
+    /**
+     * Get the quests which require a specific quest, and whose requirements the player now meets. If the quest has
+     * just been completed, these are the quests it unlocked.
+     *
+     * @param quest the quest
+     * @return list of quests whose requirements are met
+     */
+    public List<Quest> getQuestsUnlockedBy(Quest quest) {
+        QuestRequirementGraph graph = plugin.getQuestManager().getRequirementGraph();
+        int ordinal = graph.getOrdinal(quest);
+        if (ordinal == -1) {
+            return Collections.emptyList();
+        }
+        return completedQuestIndex.getUnlockedBy(graph, ordinal);
     }
 
     /**
@@ -247,6 +313,11 @@ public class QuestProgressFile {
 
     public void clear() {
         questProgress.clear();
+        modifiedQuests.clear();
+        activeTaskIndex.invalidate();
+        questCounts.invalidate();
+        completedQuestIndex.invalidate();
+        statusChanged();
     }
 
     /**
@@ -272,7 +343,7 @@ public class QuestProgressFile {
      */
     @Deprecated
     public void clean() {
-        plugin.getQuestsLogger().debug("Cleaning file " + playerUUID + ".");
+        plugin.getQuestsLogger().debug(() -> "Cleaning file " + playerUUID + ".");
         if (!plugin.getTaskTypeManager().areRegistrationsAccepted()) {
             ArrayList<String> invalidQuests = new ArrayList<>();
             for (String questId : this.questProgress.keySet()) {
@@ -294,13 +365,132 @@ public class QuestProgressFile {
             for (String questId : invalidQuests) {
                 this.questProgress.remove(questId);
             }
+            activeTaskIndex.invalidate();
+            questCounts.invalidate();
+            completedQuestIndex.invalidate();
+            statusChanged();
         }
     }
 
+    /**
+     * Get the {@link ActiveTaskIndex} for this progress file, which indexes the incomplete tasks of
+     * started quests by task type.
+     *
+     * @return the active task index
+     */
+    public ActiveTaskIndex getActiveTaskIndex() {
+        return activeTaskIndex;
+    }
+
+    /**
+     * Get the {@link QuestProgressCounts} for this progress file, which counts the started and completed
+     * quests without building a list of them.
+     *
+     * @return the quest counts
+     */
+    public QuestProgressCounts getQuestCounts() {
+        return questCounts;
+    }
+
+    CompletedQuestIndex getCompletedQuestIndex() {
+        return completedQuestIndex;
+    }
+
+    /**
+     * Get a number which changes whenever a quest in this file is started, completed, or has its completion
+     * date changed, so that anything derived from the status of quests can tell when it must be recomputed.
+     * Changes to task progress do not change the version.
+     *
+     * @return the status version
+     */
+    public long getStatusVersion() {
+        return statusVersion;
+    }
+
+    void statusChanged() {
+        statusVersion++;
+    }
+
+    /**
+     * Copies only the quest progress which has been modified since the last snapshot, and resets the modified
+     * status of the copied progress. Within each copied quest, only modified task progress is included.
+     * The returned progress file is detached from this one and is intended to be handed to a
+     * {@link com.leonardobishop.quests.common.storage.StorageProvider} off the main thread.
+     *
+     * @return a new progress file containing the modified quest progress
+     */
+    public QuestProgressFile snapshotModified() {
+        QuestProgressFile snapshot = new QuestProgressFile(playerUUID, plugin);
+        for (String questId : modifiedQuests) {
+            QuestProgress questProgress = this.questProgress.get(questId);
+            if (questProgress == null || !questProgress.isModified()) continue;
+
+            snapshot.questProgress.put(questId, questProgress.copyModified());
+            questProgress.resetModified();
+        }
+        modifiedQuests.clear();
+        return snapshot;
+    }
+
+    /**
+     * Marks the progress in a snapshot taken by {@link #snapshotModified()} as modified again, such as when
+     * saving the snapshot failed, so that it is included in the next snapshot. The current values are saved
+     * then, rather than those in the snapshot. Progress which is no longer in this file is ignored.
+     *
+     * @param snapshot the snapshot to restore the modified status of
+     */
+    public void restoreModified(QuestProgressFile snapshot) {
+        for (QuestProgress snapshotProgress : snapshot.questProgress.values()) {
+            QuestProgress questProgress = this.questProgress.get(snapshotProgress.getQuestId());
+            if (questProgress != null) {
+                questProgress.restoreModified(snapshotProgress);
+            }
+        }
+    }
+
+    /**
+     * Copies the modified quest progress of another progress file into this one, replacing any values
+     * already present. Task progress in this file which is not present in the other is kept, so that
+     * successive snapshots may be combined into one. The other progress file is not changed.
+     *
+     * @param other the progress file to copy modified progress from
+     */
+    public void mergeModified(QuestProgressFile other) {
+        for (QuestProgress otherProgress : other.questProgress.values()) {
+            if (!otherProgress.isModified()) continue;
+
+            QuestProgress merged = otherProgress.copyModified();
+            QuestProgress existing = this.questProgress.get(merged.getQuestId());
+            if (existing != null) {
+                for (Map.Entry<String, TaskProgress> taskEntry : existing.getTaskProgressMap().entrySet()) {
+                    merged.getTaskProgressMap().putIfAbsent(taskEntry.getKey(), taskEntry.getValue());
+                }
+            }
+            this.questProgress.put(merged.getQuestId(), merged);
+        }
+        questCounts.invalidate();
+        completedQuestIndex.invalidate();
+        statusChanged();
+    }
+
+    /**
+     * Checks whether any quest progress in this file has been modified since the last snapshot.
+     *
+     * @return true if there is modified progress
+     */
+    public boolean hasModifiedProgress() {
+        return !modifiedQuests.isEmpty();
+    }
+
+    void markModified(String questId) {
+        modifiedQuests.add(questId);
+    }
+
     public void resetModified() {
         for (QuestProgress questProgress : questProgress.values()) {
             questProgress.resetModified();
         }
+        modifiedQuests.clear();
     }
 
     public void setModified(boolean modified) {
@@ -1,5 +1,6 @@
 package com.leonardobishop.quests.common.player.questprogressfile;
 
+import java.util.Objects;
 import java.util.UUID;
 
 public class TaskProgress {
@@ -9,15 +10,18 @@ public class TaskProgress {
 
     private QuestProgress linkedQuestProgress;
     private boolean modified;
-    private Object progress;
+    private ProgressType progressType = ProgressType.NONE;
+    private long longProgress;
+    private double doubleProgress;
+    private Object objectProgress;
     private boolean completed;
 
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed) {
         this.linkedQuestProgress = linkedQuestProgress;
         this.taskid = taskid;
-        this.progress = progress;
         this.player = player;
         this.completed = completed;
+        assignProgress(progress);
     }
 
     public TaskProgress(QuestProgress linkedQuestProgress, String taskid, Object progress, UUID player, boolean completed, boolean modified) {
@@ -29,7 +33,10 @@ public class TaskProgress {
         this.taskid = taskProgress.taskid;
         this.player = taskProgress.player;
         this.modified = taskProgress.modified;
-        this.progress = taskProgress.progress;
+        this.progressType = taskProgress.progressType;
+        this.longProgress = taskProgress.longProgress;
+        this.doubleProgress = taskProgress.doubleProgress;
+        this.objectProgress = taskProgress.objectProgress;
         this.completed = taskProgress.completed;
     }
 
@@ -37,14 +44,126 @@ public class TaskProgress {
         return taskid;
     }
 
+    /**
+     * Get the progress of this task as an object. Numeric progress is boxed on each call, so
+     * task types should prefer {@link #getIntProgress()}, {@link #getLongProgress()} or {@link #getDoubleProgress()}.
+     *
+     * @return the progress, or null if there is none
+     */
     public Object getProgress() {
-        return progress;
+        return switch (progressType) {
+            case NONE -> null;
+            case INT -> Integer.valueOf((int) longProgress);
+            case LONG -> Long.valueOf(longProgress);
+            case FLOAT -> Float.valueOf((float) doubleProgress);
+            case DOUBLE -> Double.valueOf(doubleProgress);
+            case OBJECT -> objectProgress;
+        };
     }
 
+    /**
+     * Set the progress of this task. Numbers of a supported type are stored as primitives.
+     * The task is only marked as modified if the progress actually changes.
+     *
+     * @param progress the progress, or null to clear it
+     */
     public void setProgress(Object progress) {
-        if (this.progress != progress) this.modified = true;
+        if (progress == null) {
+            if (progressType != ProgressType.NONE) {
+                clearProgress();
+                markModified();
+            }
+        } else if (progress instanceof Integer i) {
+            setProgress(i.intValue());
+        } else if (progress instanceof Long l) {
+            setProgress(l.longValue());
+        } else if (progress instanceof Float f) {
+            setProgress(f.floatValue());
+        } else if (progress instanceof Double d) {
+            setProgress(d.doubleValue());
+        } else if (progressType != ProgressType.OBJECT || !Objects.equals(objectProgress, progress)) {
+            assignProgress(progress);
+            markModified();
+        }
+    }
+
+    public void setProgress(int progress) {
+        setLongProgress(ProgressType.INT, progress);
+    }
+
+    public void setProgress(long progress) {
+        setLongProgress(ProgressType.LONG, progress);
+    }
 
-        this.progress = progress;
+    public void setProgress(float progress) {
+        setDoubleProgress(ProgressType.FLOAT, progress);
+    }
+
+    public void setProgress(double progress) {
+        setDoubleProgress(ProgressType.DOUBLE, progress);
+    }
+
+    /**
+     * Add to the integer progress of this task, treating no progress as zero.
+     *
+     * @param amount the amount to add
+     * @return the new progress
+     */
+    public int incrementProgress(int amount) {
+        int progress = getIntProgress() + amount;
+        setProgress(progress);
+        return progress;
+    }
+
+    /**
+     * Add to the decimal progress of this task, treating no progress as zero.
+     *
+     * @param amount the amount to add
+     * @return the new progress
+     */
+    public double incrementProgress(double amount) {
+        double progress = getDoubleProgress() + amount;
+        setProgress(progress);
+        return progress;
+    }
+
+    public ProgressType getProgressType() {
+        return progressType;
+    }
+
+    public boolean hasProgress() {
+        return progressType != ProgressType.NONE;
+    }
+
+    /**
+     * @return the progress as an int, or 0 if there is no numeric progress
+     */
+    public int getIntProgress() {
+        return (int) getLongProgress();
+    }
+
+    /**
+     * @return the progress as a long, or 0 if there is no numeric progress
+     */
+    public long getLongProgress() {
+        return switch (progressType) {
+            case INT, LONG -> longProgress;
+            case FLOAT, DOUBLE -> (long) doubleProgress;
+            case OBJECT -> objectProgress instanceof Number n ? n.longValue() : 0;
+            case NONE -> 0;
+        };
+    }
+
+    /**
+     * @return the progress as a double, or 0 if there is no numeric progress
+     */
+    public double getDoubleProgress() {
+        return switch (progressType) {
+            case INT, LONG -> longProgress;
+            case FLOAT, DOUBLE -> doubleProgress;
+            case OBJECT -> objectProgress instanceof Number n ? n.doubleValue() : 0;
+            case NONE -> 0;
+        };
     }
 
     public UUID getPlayer() {
@@ -57,8 +176,11 @@ public class TaskProgress {
 
     public void setCompleted(boolean complete) {
         this.completed = complete;
-        this.modified = true;
+        markModified();
 
+        if (linkedQuestProgress != null) {
+            linkedQuestProgress.updateTaskCompletion(this);
+        }
         if (complete) {
             linkedQuestProgress.queueForCompletionTest();
         }
@@ -74,5 +196,103 @@ public class TaskProgress {
 
     public void setModified(boolean modified) {
         this.modified = modified;
+        if (modified && linkedQuestProgress != null) {
+            linkedQuestProgress.notifyModified();
+        }
+    }
+
+    private void setLongProgress(ProgressType type, long progress) {
+        if (progressType == type && longProgress == progress) return;
+
+        clearProgress();
+        progressType = type;
+        longProgress = progress;
+        markModified();
+    }
+
+    private void setDoubleProgress(ProgressType type, double progress) {
+        if (progressType == type && Double.compare(doubleProgress, progress) == 0) return;
+
+        clearProgress();
+        progressType = type;
+        doubleProgress = progress;
+        markModified();
+    }
+
+    private void assignProgress(Object progress) {
+        clearProgress();
+        if (progress == null) return;
+
+        if (progress instanceof Integer i) {
+            progressType = ProgressType.INT;
+            longProgress = i;
+        } else if (progress instanceof Long l) {
+            progressType = ProgressType.LONG;
+            longProgress = l;
+        } else if (progress instanceof Float f) {
+            progressType = ProgressType.FLOAT;
+            doubleProgress = f;
+        } else if (progress instanceof Double d) {
+            progressType = ProgressType.DOUBLE;
+            doubleProgress = d;
+        } else {
+            progressType = ProgressType.OBJECT;
+            objectProgress = progress;
+        }
+    }
+
+    private void clearProgress() {
+        progressType = ProgressType.NONE;
+        longProgress = 0;
+        doubleProgress = 0;
+        objectProgress = null;
+    }
+
+    private void markModified() {
+        this.modified = true;
+        if (linkedQuestProgress != null) {
+            linkedQuestProgress.notifyModified();
+        }
+    }
+
+    /**
+     * The type of value held as the progress of a task. The id of each type is stable and is
+     * used by storage providers to record the type alongside the value.
+     */
+    public enum ProgressType {
+        NONE(0),
+        INT(1),
+        LONG(2),
+        FLOAT(3),
+        DOUBLE(4),
+        /**
+         * A value which is not one of the supported number types, which storage providers may not be able to store.
+         */
+        OBJECT(-1);
+
+        private final int id;
+
+        ProgressType(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public boolean isIntegral() {
+            return this == INT || this == LONG;
+        }
+
+        public boolean isDecimal() {
+            return this == FLOAT || this == DOUBLE;
+        }
+
+        public static ProgressType fromId(int id) {
+            for (ProgressType type : values()) {
+                if (type.id == id && type != OBJECT) return type;
+            }
+            return null;
+        }
     }
 }
@@ -24,4 +24,14 @@ public interface QuestCompleter {
      */
     void queueFullCheck(@NotNull QuestProgressFile questProgressFile);
 
+    /**
+     * Schedule a quest progress to be expired once its time limit ends, replacing any previous schedule for the
+     * same quest. This is called whenever a quest is started or stopped, or its start date changes, so quests
+     * which are not started or have no time limit are unscheduled. Only the progress of registered players who
+     * are online is scheduled.
+     *
+     * @param questProgress the questprogress to schedule
+     */
+    void scheduleExpiry(@NotNull QuestProgress questProgress);
+
 }
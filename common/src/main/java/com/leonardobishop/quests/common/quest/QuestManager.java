@@ -13,7 +13,10 @@ public class QuestManager {
 
     private final Quests plugin;
     private final Map<String, Quest> quests = new LinkedHashMap<>();
+    private final List<Quest> autoStartQuests = new ArrayList<>();
     private final List<Category> categories = new ArrayList<>();
+    private final Map<String, Category> categoriesById = new HashMap<>();
+    private volatile QuestRequirementGraph requirementGraph;
 
     public QuestManager(Quests plugin) {
         this.plugin = plugin;
@@ -27,7 +30,14 @@ public class QuestManager {
     public void registerQuest(@NotNull Quest quest) {
         Objects.requireNonNull(quest, "quest cannot be null");
 
-        quests.put(quest.getId(), quest);
+        Quest previous = quests.put(quest.getId(), quest);
+        if (previous != null && previous.isAutoStartEnabled()) {
+            autoStartQuests.remove(previous);
+        }
+        if (quest.isAutoStartEnabled()) {
+            autoStartQuests.add(quest);
+        }
+        requirementGraph = null;
     }
 
     /**
@@ -48,6 +58,33 @@ public class QuestManager {
         return Collections.unmodifiableMap(quests);
     }
 
+    /**
+     * @return immutable list of all {@link Quest} which are started automatically
+     */
+    public @NotNull List<Quest> getAutoStartQuests() {
+        return Collections.unmodifiableList(autoStartQuests);
+    }
+
+    /**
+     * Get the requirement graph of all quests registered. The graph is rebuilt lazily after quests are registered,
+     * so a new graph is returned after each reload.
+     *
+     * @return {@link QuestRequirementGraph}
+     */
+    public @NotNull QuestRequirementGraph getRequirementGraph() {
+        QuestRequirementGraph requirementGraph = this.requirementGraph;
+        if (requirementGraph == null) {
+            synchronized (this) {
+                requirementGraph = this.requirementGraph;
+                if (requirementGraph == null) {
+                    requirementGraph = new QuestRequirementGraph(quests.values());
+                    this.requirementGraph = requirementGraph;
+                }
+            }
+        }
+        return requirementGraph;
+    }
+
     /**
      * Register a category with the quest manager
      *
@@ -57,6 +94,7 @@ public class QuestManager {
         Objects.requireNonNull(category, "category cannot be null");
 
         categories.add(category);
+        categoriesById.putIfAbsent(category.getId(), category);
     }
 
     /**
@@ -75,10 +113,7 @@ public class QuestManager {
     public @Nullable Category getCategoryById(@NotNull String id) {
         Objects.requireNonNull(id, "id cannot be null");
 
-        for (Category category : categories) {
-            if (category.getId().equals(id)) return category;
-        }
-        return null;
+        return categoriesById.get(id);
     }
 
     /**
@@ -86,7 +121,10 @@ public class QuestManager {
      */
     public void clear() {
         quests.clear();
+        autoStartQuests.clear();
         categories.clear();
+        categoriesById.clear();
+        requirementGraph = null;
     }
 
 }
@@ -0,0 +1,227 @@
+package com.leonardobishop.quests.common.quest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * The requirements of all registered quests, with each quest given an ordinal so that the quests a player has
+ * completed can be stored as a bitset. Whether a player has met the requirements of a quest is then a test of
+ * a few words of that bitset, rather than a lookup of each required quest.
+ * <p>
+ * Requirements which refer to quests that are not registered are ignored. The graph is immutable, and a new
+ * one is built by the {@link QuestManager} whenever the registered quests change.
+ */
+public class QuestRequirementGraph {
+
+    private static final int[] NO_ORDINALS = new int[0];
+    private static final long[] NO_BITS = new long[0];
+
+    private final Quest[] quests;
+    private final Map<String, Integer> ordinals;
+    // the requirements of each quest, in the order they are configured
+    private final int[][] requirements;
+    // the non-zero words of the requirement bitset of each quest, and their indices
+    private final int[][] requirementWords;
+    private final long[][] requirementBits;
+    private final int[][] dependents;
+
+    public QuestRequirementGraph(@NotNull Collection<Quest> quests) {
+        Objects.requireNonNull(quests, "quests cannot be null");
+
+        this.quests = quests.toArray(new Quest[0]);
+        this.ordinals = new HashMap<>(this.quests.length * 2);
+        for (int i = 0; i < this.quests.length; i++) {
+            ordinals.put(this.quests[i].getId(), i);
+        }
+
+        this.requirements = new int[this.quests.length][];
+        this.requirementWords = new int[this.quests.length][];
+        this.requirementBits = new long[this.quests.length][];
+        List<List<Integer>> dependents = new ArrayList<>(this.quests.length);
+        for (int i = 0; i < this.quests.length; i++) {
+            dependents.add(new ArrayList<>(0));
+        }
+
+        for (int i = 0; i < this.quests.length; i++) {
+            List<String> requirementIds = this.quests[i].getRequirements();
+            int[] questRequirements = new int[requirementIds.size()];
+            int count = 0;
+            for (String id : requirementIds) {
+                Integer ordinal = ordinals.get(id);
+                if (ordinal == null) continue;
+
+                questRequirements[count++] = ordinal;
+                dependents.get(ordinal).add(i);
+            }
+            requirements[i] = count == 0 ? NO_ORDINALS : Arrays.copyOf(questRequirements, count);
+            buildMask(i);
+        }
+
+        this.dependents = new int[this.quests.length][];
+        for (int i = 0; i < this.quests.length; i++) {
+            this.dependents[i] = dependents.get(i).stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+    }
+
+    private void buildMask(int ordinal) {
+        int[] sorted = requirements[ordinal].clone();
+        Arrays.sort(sorted);
+
+        int[] words = new int[sorted.length];
+        long[] bits = new long[sorted.length];
+        int count = 0;
+        for (int requirement : sorted) {
+            int word = requirement >>> 6;
+            if (count == 0 || words[count - 1] != word) {
+                words[count++] = word;
+            }
+            bits[count - 1] |= 1L << requirement;
+        }
+        requirementWords[ordinal] = count == 0 ? NO_ORDINALS : Arrays.copyOf(words, count);
+        requirementBits[ordinal] = count == 0 ? NO_BITS : Arrays.copyOf(bits, count);
+    }
+
+    /**
+     * @return the number of quests in the graph, which is one more than the largest ordinal
+     */
+    public int size() {
+        return quests.length;
+    }
+
+    /**
+     * Get the ordinal of a quest, which is its index in a bitset of quests.
+     *
+     * @param quest the quest
+     * @return the ordinal, or -1 if the quest is not in this graph (for example, if it has since been reloaded)
+     */
+    public int getOrdinal(@NotNull Quest quest) {
+        Integer ordinal = ordinals.get(quest.getId());
+        return ordinal == null || quests[ordinal] != quest ? -1 : ordinal;
+    }
+
+    /**
+     * Get the ordinal of a quest by its id.
+     *
+     * @param id the id of the quest
+     * @return the ordinal, or -1 if no quest in this graph has the id
+     */
+    public int getOrdinal(@NotNull String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    public @NotNull Quest getQuest(int ordinal) {
+        return quests[ordinal];
+    }
+
+    /**
+     * Test whether all requirements of a quest are in a bitset of quests.
+     *
+     * @param ordinal the ordinal of the quest
+     * @param quests the bitset of quests which count towards requirements
+     * @return true if the requirements are met
+     */
+    public boolean isUnlocked(int ordinal, long[] quests) {
+        int[] words = requirementWords[ordinal];
+        long[] bits = requirementBits[ordinal];
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] >= quests.length || (quests[words[i]] & bits[i]) != bits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the requirements of a quest which are not in a bitset of quests.
+     *
+     * @param ordinal the ordinal of the quest
+     * @param quests the bitset of quests which count towards requirements
+     * @return list of unmet requirements, in the order they are configured
+     */
+    public @NotNull List<Quest> getUnmetRequirements(int ordinal, long[] quests) {
+        if (isUnlocked(ordinal, quests)) {
+            return Collections.emptyList();
+        }
+
+        List<Quest> unmet = new ArrayList<>();
+        for (int requirement : requirements[ordinal]) {
+            if (!isSet(quests, requirement)) {
+                unmet.add(this.quests[requirement]);
+            }
+        }
+        return unmet;
+    }
+
+    /**
+     * Get the quests which require a quest and have all of their requirements in a bitset of quests, which
+     * should already include the quest. This is the set of quests unlocked by the quest being completed.
+     *
+     * @param ordinal the ordinal of the quest
+     * @param quests the bitset of quests which count towards requirements
+     * @return list of unlocked quests
+     */
+    public @NotNull List<Quest> getUnlockedBy(int ordinal, long[] quests) {
+        List<Quest> unlocked = new ArrayList<>(0);
+        for (int dependent : dependents[ordinal]) {
+            if (isUnlocked(dependent, quests)) {
+                unlocked.add(this.quests[dependent]);
+            }
+        }
+        return unlocked;
+    }
+
+    public static boolean isSet(long[] bitset, int ordinal) {
+        int word = ordinal >>> 6;
+        return word < bitset.length && (bitset[word] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Find the cycles in the requirements of a set of quests. Quests in a cycle can never be started, as each
+     * requires another to be completed first. Requirements which refer to quests not in the map are ignored.
+     *
+     * @param requirements map of quest id to the ids of the quests it requires
+     * @return list of cycles, each a list of quest ids where each requires the next and the last is the first
+     */
+    public static @NotNull List<List<String>> findCycles(@NotNull Map<String, ? extends Collection<String>> requirements) {
+        Objects.requireNonNull(requirements, "requirements cannot be null");
+
+        // iterative depth-first search, as long chains of requirements would overflow the stack
+        List<List<String>> cycles = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        Set<String> onPath = new HashSet<>();
+        List<String> path = new ArrayList<>();
+        Deque<Iterator<String>> iterators = new ArrayDeque<>();
+        for (Map.Entry<String, ? extends Collection<String>> entry : requirements.entrySet()) {
+            if (!visited.add(entry.getKey())) continue;
+
+            onPath.add(entry.getKey());
+            path.add(entry.getKey());
+            iterators.push(entry.getValue().iterator());
+            while (!iterators.isEmpty()) {
+                Iterator<String> iterator = iterators.peek();
+                if (!iterator.hasNext()) {
+                    iterators.pop();
+                    onPath.remove(path.remove(path.size() - 1));
+                    continue;
+                }
+
+                String next = iterator.next();
+                Collection<String> nextRequirements = requirements.get(next);
+                if (nextRequirements == null) continue;
+
+                if (onPath.contains(next)) {
+                    List<String> cycle = new ArrayList<>(path.subList(path.indexOf(next), path.size()));
+                    cycle.add(next);
+                    cycles.add(cycle);
+                } else if (visited.add(next)) {
+                    onPath.add(next);
+                    path.add(next);
+                    iterators.push(nextRequirements.iterator());
+                }
+            }
+        }
+        return cycles;
+    }
+}
@@ -13,6 +13,7 @@ public class Task {
     private final Map<String, Object> configValues = new HashMap<>();
     private final String id;
     private final String type;
+    private Object compiledConfig;
 
     public Task(String id, String type) {
         this.id = id;
@@ -89,4 +90,23 @@ public class Task {
         configValues.put(key, value);
     }
 
+    /**
+     * Get the compiled form of this tasks configuration, as produced by its task type when quests are loaded.
+     *
+     * @see com.leonardobishop.quests.common.tasktype.TaskType#compileTask(Task)
+     * @return compiled configuration, or null if the task has not been compiled
+     */
+    public @Nullable Object getCompiledConfig() {
+        return compiledConfig;
+    }
+
+    /**
+     * Set the compiled form of this tasks configuration
+     *
+     * @param compiledConfig compiled configuration
+     */
+    public void setCompiledConfig(@Nullable Object compiledConfig) {
+        this.compiledConfig = compiledConfig;
+    }
+
 }
@@ -0,0 +1,359 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.plugin.Quests;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the loads and saves of players against a {@link StorageProvider}. Operations for the same player are run
+ * one at a time in the order they were submitted, so a save can never race a later load, while operations for
+ * different players run in parallel up to a fixed limit. Players with queued operations take turns, so one
+ * player with many queued operations does not hold up the others.
+ * <p>
+ * A save submitted while another save for the same player is still queued is merged into it, so only the
+ * latest progress is written. Once shut down, operations are run on the submitting thread instead.
+ */
+public class StorageExecutor {
+
+    private static final long SHUTDOWN_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+    // queues of players with queued or running operations, guarded by this
+    private final Map<UUID, PlayerQueue> queues = new HashMap<>();
+    private final Deque<PlayerQueue> ready = new ArrayDeque<>();
+    private final Quests plugin;
+    private final StorageProvider storageProvider;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final boolean virtualThreads;
+    private int running;
+    private int queued;
+    private boolean shutdown;
+
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder savesCollapsed = new LongAdder();
+    private final LongAdder totalWaitTime = new LongAdder();
+    private final AtomicLong maxWaitTime = new AtomicLong();
+
+    /**
+     * @param plugin the plugin
+     * @param storageProvider the storage provider to load and save with
+     * @param parallelism the maximum number of operations to run at once
+     * @param virtualThreads whether to run operations on virtual threads, if the runtime supports them
+     */
+    public StorageExecutor(@NotNull Quests plugin, @NotNull StorageProvider storageProvider, int parallelism, boolean virtualThreads) {
+        this.plugin = Objects.requireNonNull(plugin, "plugin cannot be null");
+        this.storageProvider = Objects.requireNonNull(storageProvider, "storageProvider cannot be null");
+        this.parallelism = Math.max(1, parallelism);
+
+        ExecutorService virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtualThreads && virtualExecutor == null) {
+            plugin.getQuestsLogger().warning("Virtual threads are not supported by this version of Java - platform threads will be used for storage instead");
+        }
+        this.virtualThreads = virtualExecutor != null;
+        if (virtualExecutor != null) {
+            this.executor = virtualExecutor;
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+                Thread thread = new Thread(runnable, "Quests-Storage-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // virtual threads are only available from Java 21, so they are looked up reflectively
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Schedule a load of a player.
+     *
+     * @param uuid the uuid of the player
+     * @return completable future with the loaded progress file, or null if there was an error
+     */
+    public CompletableFuture<QuestProgressFile> load(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        LoadOperation operation = new LoadOperation(uuid);
+        submit(uuid, operation);
+        return operation.future;
+    }
+
+    /**
+     * Schedule a save of a player. The progress file is merged into any save of the player which is still queued,
+     * so it must not be changed after it has been submitted.
+     *
+     * @param uuid the uuid of the player
+     * @param questProgressFile the progress file to save, such as a snapshot of the modified progress
+     * @return completable future with whether the save was successful
+     */
+    public CompletableFuture<Boolean> save(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        synchronized (this) {
+            PlayerQueue queue = queues.get(uuid);
+            if (queue != null && queue.operations.peekLast() instanceof SaveOperation queuedSave) {
+                queuedSave.questProgressFile.mergeModified(questProgressFile);
+                savesCollapsed.increment();
+                plugin.getQuestsLogger().debug(() -> "Merged save of player " + uuid + " into a queued save.");
+                return queuedSave.future;
+            }
+        }
+
+        SaveOperation operation = new SaveOperation(uuid, questProgressFile);
+        submit(uuid, operation);
+        return operation.future;
+    }
+
+    /**
+     * Schedule a write of anything the storage provider has buffered for a player, after their queued saves.
+     * This does nothing unless the storage provider is a {@link WriteBehindStorageProvider}.
+     *
+     * @param uuid the uuid of the player
+     * @return completable future with whether the buffered progress, if any, was written
+     */
+    public CompletableFuture<Boolean> flush(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        if (!(storageProvider instanceof WriteBehindStorageProvider)) {
+            return CompletableFuture.completedFuture(true);
+        }
+
+        FlushOperation operation = new FlushOperation(uuid);
+        submit(uuid, operation);
+        return operation.future;
+    }
+
+    private void submit(UUID uuid, Operation operation) {
+        synchronized (this) {
+            if (!shutdown) {
+                PlayerQueue queue = queues.computeIfAbsent(uuid, k -> new PlayerQueue());
+                queue.operations.add(operation);
+                queued++;
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    ready.add(queue);
+                }
+                dispatch();
+                return;
+            }
+        }
+        run(operation);
+    }
+
+    private void dispatch() {
+        // the threads are only stopped early if shutting down timed out, in which case the remaining operations are lost
+        if (executor.isShutdown()) return;
+
+        while (running < parallelism && !ready.isEmpty()) {
+            PlayerQueue queue = ready.poll();
+            Operation operation = queue.operations.poll();
+            queued--;
+            running++;
+            executor.execute(() -> runQueued(queue, operation));
+        }
+    }
+
+    private void runQueued(PlayerQueue queue, Operation operation) {
+        try {
+            run(operation);
+        } finally {
+            synchronized (this) {
+                running--;
+                if (queue.operations.isEmpty()) {
+                    queue.scheduled = false;
+                    queues.remove(operation.uuid, queue);
+                    notifyAll();
+                } else {
+                    // back of the line, so that other players get a turn
+                    ready.add(queue);
+                }
+                dispatch();
+            }
+        }
+    }
+
+    private void run(Operation operation) {
+        long waitTime = System.nanoTime() - operation.submitTime;
+        operations.increment();
+        totalWaitTime.add(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+
+        try {
+            operation.run();
+        } catch (Exception e) {
+            plugin.getQuestsLogger().severe("An error occurred running a storage operation for player " + operation.uuid + "!");
+            e.printStackTrace();
+            operation.fail();
+        }
+    }
+
+    /**
+     * Wait for all queued operations to finish, and stop the threads. Operations submitted afterwards are run
+     * on the submitting thread.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+            long deadline = System.currentTimeMillis() + SHUTDOWN_TIMEOUT;
+            while (!queues.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    plugin.getQuestsLogger().severe("Timed out waiting for " + queued + " queued storage operations to finish!");
+                    break;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        executor.shutdown();
+    }
+
+    public StorageProvider getStorageProvider() {
+        return storageProvider;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return the number of operations waiting to run
+     */
+    public synchronized int getQueueDepth() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    public long getOperationCount() {
+        return operations.sum();
+    }
+
+    public long getSavesCollapsed() {
+        return savesCollapsed.sum();
+    }
+
+    /**
+     * @return the average time operations waited before running, in milliseconds
+     */
+    public double getAverageWaitTimeMillis() {
+        long count = operations.sum();
+        return count == 0 ? 0 : totalWaitTime.sum() / (count * 1_000_000D);
+    }
+
+    /**
+     * @return the longest time an operation waited before running, in milliseconds
+     */
+    public long getMaxWaitTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitTime.get());
+    }
+
+    private static final class PlayerQueue {
+
+        private final Deque<Operation> operations = new ArrayDeque<>(2);
+        // whether the queue is in the ready queue or has an operation running
+        private boolean scheduled;
+    }
+
+    private abstract static class Operation {
+
+        protected final UUID uuid;
+        private final long submitTime = System.nanoTime();
+
+        private Operation(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        protected abstract void run();
+
+        protected abstract void fail();
+    }
+
+    private final class LoadOperation extends Operation {
+
+        private final CompletableFuture<QuestProgressFile> future = new CompletableFuture<>();
+
+        private LoadOperation(UUID uuid) {
+            super(uuid);
+        }
+
+        @Override
+        protected void run() {
+            future.complete(storageProvider.loadProgressFile(uuid));
+        }
+
+        @Override
+        protected void fail() {
+            future.complete(null);
+        }
+    }
+
+    private final class SaveOperation extends Operation {
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private final QuestProgressFile questProgressFile;
+
+        private SaveOperation(UUID uuid, QuestProgressFile questProgressFile) {
+            super(uuid);
+            this.questProgressFile = questProgressFile;
+        }
+
+        @Override
+        protected void run() {
+            future.complete(storageProvider.saveProgressFile(uuid, questProgressFile));
+        }
+
+        @Override
+        protected void fail() {
+            future.complete(false);
+        }
+    }
+
+    private final class FlushOperation extends Operation {
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        private FlushOperation(UUID uuid) {
+            super(uuid);
+        }
+
+        @Override
+        protected void run() {
+            future.complete(((WriteBehindStorageProvider) storageProvider).flush(uuid));
+        }
+
+        @Override
+        protected void fail() {
+            future.complete(false);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * The storage provider is responsible for obtaining a QuestProgressFile for a specified UUID and for
@@ -42,12 +43,25 @@ public interface StorageProvider {
      */
     @NotNull List<QuestProgressFile> loadAllProgressFiles();
 
+    /**
+     * Load all QuestProgressFiles, passing each to a consumer as it is loaded. Providers which are able to
+     * should override this so that every file does not need to be held in memory at once.
+     *
+     * @param consumer the consumer to pass each file to
+     */
+    default void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        for (QuestProgressFile file : loadAllProgressFiles()) {
+            consumer.accept(file);
+        }
+    }
+
     /**
      * Save a list of QuestProgressFiles
      *
      * @param files the list of QuestProgressFile to save
+     * @return true if every file was saved, false if any could not be
      **/
-    void saveAllProgressFiles(List<QuestProgressFile> files);
+    boolean saveAllProgressFiles(List<QuestProgressFile> files);
 
     /**
      * Whether this provider is 'similar' to another one.
@@ -0,0 +1,267 @@
+package com.leonardobishop.quests.common.storage;
+
+import com.leonardobishop.quests.common.player.questprogressfile.QuestProgressFile;
+import com.leonardobishop.quests.common.plugin.Quests;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A storage provider which buffers saves and writes them to another storage provider in batches.
+ * Saves of the same player are combined while buffered, and buffered saves are written with
+ * {@link StorageProvider#saveAllProgressFiles(List)} when the flush interval elapses or the batch size is reached.
+ * If the number of buffered players reaches the maximum, the saving thread writes the buffer itself.
+ * <p>
+ * Loading a player always writes any buffered save for that player first. Shutting down this provider
+ * writes everything which is buffered on the calling thread before shutting down the underlying provider.
+ * <p>
+ * If the underlying provider fails to write, the files are put back in the buffer, beneath any saves buffered
+ * since, and are written again with the next flush.
+ */
+public class WriteBehindStorageProvider implements StorageProvider {
+
+    private final Map<UUID, QuestProgressFile> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong filesWritten = new AtomicLong();
+    private final AtomicLong savesCoalesced = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final Quests plugin;
+    private final StorageProvider delegate;
+    private final long flushInterval;
+    private final int batchSize;
+    private final int maxPending;
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param plugin the plugin
+     * @param delegate the storage provider to write to
+     * @param flushInterval the maximum time, in milliseconds, a save is buffered for
+     * @param batchSize the number of buffered players which causes an early flush
+     * @param maxPending the number of buffered players at which saving threads must flush themselves
+     */
+    public WriteBehindStorageProvider(@NotNull Quests plugin, @NotNull StorageProvider delegate, long flushInterval, int batchSize, int maxPending) {
+        this.plugin = Objects.requireNonNull(plugin, "plugin cannot be null");
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+        this.flushInterval = Math.max(1, flushInterval);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxPending = Math.max(this.batchSize, maxPending);
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public void init() {
+        delegate.init();
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Quests-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        plugin.getQuestsLogger().debug(() -> "Writing " + pending.size() + " buffered quest progress files before shutdown.");
+        flush();
+        delegate.shutdown();
+    }
+
+    @Override
+    public @Nullable QuestProgressFile loadProgressFile(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        if (!flush(uuid)) {
+            // loading now would return progress older than what is buffered
+            plugin.getQuestsLogger().severe("Cannot load player " + uuid + " as their buffered quest progress could not be written!");
+            return null;
+        }
+        return delegate.loadProgressFile(uuid);
+    }
+
+    /**
+     * Buffers the modified progress in the quest progress file, to be written later. The progress file is
+     * copied, so it may continue to be changed after this method returns.
+     *
+     * @param uuid the uuid to match the file to
+     * @param questProgressFile the file to save
+     * @return true
+     */
+    @Override
+    public boolean saveProgressFile(@NotNull UUID uuid, @NotNull QuestProgressFile questProgressFile) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+        Objects.requireNonNull(questProgressFile, "questProgressFile cannot be null");
+
+        pending.compute(uuid, (key, buffered) -> {
+            if (buffered == null) {
+                buffered = new QuestProgressFile(uuid, plugin);
+            } else {
+                savesCoalesced.incrementAndGet();
+            }
+            buffered.mergeModified(questProgressFile);
+            return buffered;
+        });
+
+        int size = pending.size();
+        if (size >= maxPending) {
+            plugin.getQuestsLogger().debug(() -> "Write-behind buffer is full (" + size + " players), flushing on " + Thread.currentThread().getName() + ".");
+            flush();
+        } else if (size >= batchSize && executor != null && flushQueued.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public @NotNull List<QuestProgressFile> loadAllProgressFiles() {
+        flush();
+        return delegate.loadAllProgressFiles();
+    }
+
+    @Override
+    public void loadAllProgressFiles(@NotNull Consumer<QuestProgressFile> consumer) {
+        flush();
+        delegate.loadAllProgressFiles(consumer);
+    }
+
+    @Override
+    public boolean saveAllProgressFiles(List<QuestProgressFile> files) {
+        flush();
+        return delegate.saveAllProgressFiles(files);
+    }
+
+    /**
+     * Writes the buffered quest progress file of a player to the underlying storage provider on the calling thread,
+     * such as when they are unloaded and may be loaded by another server.
+     *
+     * @param uuid the uuid of the player
+     * @return true if nothing was buffered or it was written, false if it could not be written
+     */
+    public boolean flush(@NotNull UUID uuid) {
+        Objects.requireNonNull(uuid, "uuid cannot be null");
+
+        flushLock.lock();
+        try {
+            QuestProgressFile buffered = pending.remove(uuid);
+            if (buffered == null) return true;
+
+            plugin.getQuestsLogger().debug(() -> "Writing buffered quest progress file for player " + uuid + ".");
+            return write(Collections.singletonList(buffered));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes all buffered quest progress files to the underlying storage provider on the calling thread.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) return;
+
+            List<QuestProgressFile> files = new ArrayList<>(pending.size());
+            for (UUID uuid : new ArrayList<>(pending.keySet())) {
+                QuestProgressFile file = pending.remove(uuid);
+                if (file != null) {
+                    files.add(file);
+                }
+            }
+            write(files);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean write(List<QuestProgressFile> files) {
+        if (files.isEmpty()) return true;
+
+        long start = System.currentTimeMillis();
+        boolean written;
+        try {
+            written = delegate.saveAllProgressFiles(files);
+        } catch (Exception e) {
+            e.printStackTrace();
+            written = false;
+        }
+        if (!written) {
+            plugin.getQuestsLogger().severe("Failed to write " + files.size() + " buffered quest progress files! They will be written again with the next flush.");
+            failedWrites.incrementAndGet();
+            for (QuestProgressFile file : files) {
+                requeue(file);
+            }
+            return false;
+        }
+        flushes.incrementAndGet();
+        filesWritten.addAndGet(files.size());
+        plugin.getQuestsLogger().debug(() -> "Wrote " + files.size() + " buffered quest progress files in " + (System.currentTimeMillis() - start) + "ms.");
+        return true;
+    }
+
+    // saves buffered since the file was taken are newer, so they are merged over it
+    private void requeue(QuestProgressFile file) {
+        pending.merge(file.getPlayerUUID(), file, (buffered, failed) -> {
+            failed.mergeModified(buffered);
+            return failed;
+        });
+    }
+
+    @Override
+    public boolean isSimilar(StorageProvider provider) {
+        if (provider instanceof WriteBehindStorageProvider writeBehindProvider) {
+            provider = writeBehindProvider.delegate;
+        }
+        return delegate.isSimilar(provider);
+    }
+
+    public StorageProvider getDelegate() {
+        return delegate;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getFilesWritten() {
+        return filesWritten.get();
+    }
+
+    public long getSavesCoalesced() {
+        return savesCoalesced.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+}
@@ -2,6 +2,7 @@ package com.leonardobishop.quests.common.tasktype;
 
 import com.leonardobishop.quests.common.config.ConfigProblem;
 import com.leonardobishop.quests.common.quest.Quest;
+import com.leonardobishop.quests.common.quest.Task;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -16,6 +17,7 @@ import java.util.*;
 public abstract class TaskType {
 
     private final List<Quest> quests = new ArrayList<>();
+    private final List<Quest> autoStartQuests = new ArrayList<>();
     private final List<String> aliases = new ArrayList<>();
     private final List<ConfigValidator> configValidators = new ArrayList<>();
     private final String type;
@@ -63,6 +65,9 @@ public abstract class TaskType {
 
         if (!quests.contains(quest)) {
             quests.add(quest);
+            if (quest.isAutoStartEnabled()) {
+                autoStartQuests.add(quest);
+            }
         }
     }
 
@@ -71,6 +76,7 @@ public abstract class TaskType {
      */
     protected final void unregisterAll() {
         quests.clear();
+        autoStartQuests.clear();
     }
 
     /**
@@ -80,6 +86,13 @@ public abstract class TaskType {
         return Collections.unmodifiableList(quests);
     }
 
+    /**
+     * @return immutable {@link List} of type {@link Quest} of all registered quests which have autostart enabled.
+     */
+    public final @NotNull List<Quest> getRegisteredAutoStartQuests() {
+        return Collections.unmodifiableList(autoStartQuests);
+    }
+
     public final @NotNull String getType() {
         return type;
     }
@@ -96,6 +109,18 @@ public abstract class TaskType {
         return Collections.unmodifiableList(aliases);
     }
 
+    /**
+     * Compile the configuration of a task of this type into an immutable, type-specific object,
+     * so that event handlers do not need to look up and cast config values each time they are called.
+     * Called for every task of this type each time quests are loaded, before {@link #onLoad()}.
+     *
+     * @param task the task to compile
+     * @return the compiled configuration, or null if this task type does not compile its tasks
+     */
+    public @Nullable Object compileTask(@NotNull Task task) {
+        return null;
+    }
+
     /**
      * Called when Quests has finished registering all quests to the task type.
      * May be called several times if an operator uses /quests admin reload.
@@ -105,6 +130,17 @@ public abstract class TaskType {
     }
 
 
+    /**
+     * Called on the server thread before the progress of a loaded player is saved by the
+     * {@link com.leonardobishop.quests.common.player.QPlayerManager}, so that task types which count progress
+     * over time can add what has been counted so far.
+     *
+     * @param player the uuid of the player
+     */
+    public void onSave(@NotNull UUID player) {
+        // not implemented here
+    }
+
     /**
      * Called when plugin disable
      */